@@ -3,9 +3,13 @@ package com.eazybytes.accounts;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.eazybytes.accounts.config.CommunicationOutboxProperties;
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
 import com.eazybytes.accounts.dto.AccountsContactInfoDTO;
 
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
@@ -16,8 +20,11 @@ import io.swagger.v3.oas.annotations.info.License;
 
 @SpringBootApplication
 @EnableFeignClients
+@EnableCaching
+@EnableScheduling
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(value = {AccountsContactInfoDTO.class})
+@EnableConfigurationProperties(value = {AccountsContactInfoDTO.class, CustomerDetailsProperties.class,
+		CommunicationOutboxProperties.class})
 @OpenAPIDefinition(info = @Info(title = "Accounts microservice REST API Documentation", description = "EazyBank Accounts microservices REST API Documentation", version = "v1", contact = @Contact(name = "Shivam Shadangi", email = "shadangi54@gmail.com", url = "abc.com"), license = @License(name = "Apache 2.0", url = "abc.com")), externalDocs = @ExternalDocumentation(description = "EazyBank Accounts microservice REST API Documentation", url = "abc.com"))
 public class AccountsApplication {
 
@@ -0,0 +1,19 @@
+package com.eazybytes.accounts.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.messaging.SubscribableChannel;
+
+@Configuration
+public class CommunicationOutboxConfig {
+
+	/**
+	 * @return channel the Kafka binder sends each acknowledged send-communication record to, named
+	 *         by the binding's record-metadata-channel
+	 */
+	@Bean(name = "communicationOutboxAcks")
+	public SubscribableChannel communicationOutboxAcks() {
+		return new DirectChannel();
+	}
+}
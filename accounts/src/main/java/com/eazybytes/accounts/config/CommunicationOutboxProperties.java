@@ -0,0 +1,40 @@
+package com.eazybytes.accounts.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "communication-outbox")
+public class CommunicationOutboxProperties {
+
+	/**
+	 * Delay between two polls of the outbox; read through communication-outbox.poll-interval.
+	 */
+	private Duration pollInterval = Duration.ofMillis(500);
+
+	/**
+	 * Maximum number of rows published per poll.
+	 */
+	private int batchSize = 200;
+
+	/**
+	 * How long a poll waits for the broker to acknowledge its batch; rows still unacknowledged are
+	 * rescheduled, and the row locks are never held longer than this.
+	 */
+	private Duration sendTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * Delay before the first retry of a row that failed to publish; doubled on every attempt.
+	 */
+	private Duration retryBackoff = Duration.ofSeconds(1);
+
+	/**
+	 * Upper bound of the retry delay, so a long broker outage is recovered from promptly.
+	 */
+	private Duration maxRetryBackoff = Duration.ofMinutes(5);
+}
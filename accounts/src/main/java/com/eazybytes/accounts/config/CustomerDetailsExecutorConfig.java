@@ -0,0 +1,47 @@
+package com.eazybytes.accounts.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class CustomerDetailsExecutorConfig {
+
+	/**
+	 * @param properties - customer details aggregation settings
+	 * @return executor used to fan out the loans and cards calls
+	 */
+	@Bean(name = "customerDetailsExecutor")
+	public ThreadPoolTaskExecutor customerDetailsExecutor(CustomerDetailsProperties properties) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(properties.getPoolSize());
+		executor.setMaxPoolSize(properties.getPoolSize());
+		executor.setQueueCapacity(properties.getPoolSize() * 8);
+		executor.setThreadNamePrefix("customer-details-");
+		// degrade to the sequential path instead of failing when the pool is saturated
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		return executor;
+	}
+
+	/**
+	 * Kept apart from customerDetailsExecutor, whose caller-runs policy would make a request wait
+	 * for a refresh it does not need.
+	 *
+	 * @param properties - customer details aggregation settings
+	 * @return executor used to refresh stale near-cache entries in the background
+	 */
+	@Bean(name = "nearCacheRefreshExecutor")
+	public ThreadPoolTaskExecutor nearCacheRefreshExecutor(CustomerDetailsProperties properties) {
+		int poolSize = properties.getNearCache().getRefreshPoolSize();
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(poolSize * 8);
+		executor.setThreadNamePrefix("near-cache-refresh-");
+		// DownstreamNearCache drops a rejected refresh and keeps serving the stale response
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+		return executor;
+	}
+}
@@ -0,0 +1,27 @@
+package com.eazybytes.accounts.config;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.eazybytes.accounts.dto.CardsDto;
+import com.eazybytes.accounts.dto.LoansDto;
+import com.eazybytes.accounts.service.client.DownstreamNearCache;
+
+@Configuration
+public class CustomerDetailsNearCacheConfig {
+
+	@Bean
+	public DownstreamNearCache<LoansDto> loansNearCache(CustomerDetailsProperties properties,
+			@Qualifier("nearCacheRefreshExecutor") Executor nearCacheRefreshExecutor) {
+		return new DownstreamNearCache<>("loans", properties.getNearCache(), nearCacheRefreshExecutor);
+	}
+
+	@Bean
+	public DownstreamNearCache<CardsDto> cardsNearCache(CustomerDetailsProperties properties,
+			@Qualifier("nearCacheRefreshExecutor") Executor nearCacheRefreshExecutor) {
+		return new DownstreamNearCache<>("cards", properties.getNearCache(), nearCacheRefreshExecutor);
+	}
+}
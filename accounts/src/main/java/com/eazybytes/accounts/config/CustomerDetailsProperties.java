@@ -0,0 +1,76 @@
+package com.eazybytes.accounts.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "customer-details")
+public class CustomerDetailsProperties {
+
+	/**
+	 * Fire the loans and cards calls concurrently with the local customer/account read.
+	 */
+	private boolean parallelEnabled = true;
+
+	/**
+	 * Overall deadline for the downstream calls; sections still pending are returned empty.
+	 */
+	private Duration timeout = Duration.ofSeconds(3);
+
+	/**
+	 * Number of threads used to issue the downstream Feign calls.
+	 */
+	private int poolSize = 16;
+
+	/**
+	 * Share one in-flight lookup between concurrent requests for the same mobile number.
+	 */
+	private boolean coalescingEnabled = true;
+
+	/**
+	 * How long a coalesced request waits for the shared lookup before running its own.
+	 */
+	private Duration coalescingTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * Short-lived cache of the loans and cards responses.
+	 */
+	private NearCache nearCache = new NearCache();
+
+	@Getter
+	@Setter
+	public static class NearCache {
+
+		private boolean enabled = false;
+
+		/**
+		 * How long a cached response is served without contacting the downstream service.
+		 */
+		private Duration ttl = Duration.ofSeconds(30);
+
+		/**
+		 * How long past the ttl a response is still kept, to be served while it is refreshed or
+		 * when the Feign fallback fires.
+		 */
+		private Duration staleTtl = Duration.ofMinutes(5);
+
+		/**
+		 * Serve stale responses immediately and refresh them in the background; when disabled a
+		 * stale response is refreshed inline and only served if the refresh falls back.
+		 */
+		private boolean staleWhileRevalidate = true;
+
+		/**
+		 * Threads refreshing stale responses in the background; refreshes that find them all busy
+		 * and the queue full are dropped and the stale response keeps being served.
+		 */
+		private int refreshPoolSize = 4;
+
+		private long maximumSize = 10000;
+	}
+}
@@ -1,5 +1,8 @@
 package com.eazybytes.accounts.controller;
 
+import java.io.IOException;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,11 +22,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.dto.AccountOnboardingResultDTO;
 import com.eazybytes.accounts.dto.AccountsContactInfoDTO;
 import com.eazybytes.accounts.dto.CustomerDTO;
 import com.eazybytes.accounts.dto.ErrorResponseDTO;
 import com.eazybytes.accounts.dto.ResponseDTO;
+import com.eazybytes.accounts.service.IAccountsOnboardingService;
 import com.eazybytes.accounts.service.IAccountsService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.github.resilience4j.retry.annotation.Retry;
@@ -33,6 +40,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 
@@ -45,9 +53,16 @@ public class AccountsController {
 	private static final Logger logger = LoggerFactory.getLogger(AccountsController.class);
 
 	private IAccountsService iAccountService;
+
+	private IAccountsOnboardingService iAccountsOnboardingService;
+
+	private ObjectMapper objectMapper;
 	
-	public AccountsController(IAccountsService iAccountService) {
+	public AccountsController(IAccountsService iAccountService, IAccountsOnboardingService iAccountsOnboardingService,
+			ObjectMapper objectMapper) {
 		this.iAccountService = iAccountService;
+		this.iAccountsOnboardingService = iAccountsOnboardingService;
+		this.objectMapper = objectMapper;
 	}
 	
 	@Value("${build.version}")
@@ -70,6 +85,18 @@ public class AccountsController {
 				.body(new ResponseDTO(AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201));
 	}
 
+	@Operation(summary = "Bulk Create Accounts REST API", description = "REST API to onboard many Customers & Accounts in EazyBank from a JSON array or NDJSON stream, reporting the outcome of every row")
+	@ApiResponses({ @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
+			@ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
+	@PostMapping(path = "/create-batch", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public ResponseEntity<List<AccountOnboardingResultDTO>> createAccounts(HttpServletRequest request) throws IOException {
+		// rows are read one at a time so large files are never held in memory as a whole
+		try (MappingIterator<CustomerDTO> customers = objectMapper.readerFor(CustomerDTO.class)
+				.readValues(request.getInputStream())) {
+			return ResponseEntity.status(HttpStatus.OK).body(iAccountsOnboardingService.createAccounts(customers));
+		}
+	}
+
 	@Operation(summary = "Fetch Account Details REST API", description = "REST API to fetch Customer &  Account details based on a mobile number")
 	@ApiResponses({ @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
 			@ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))) })
@@ -1,5 +1,8 @@
 package com.eazybytes.accounts.controller;
 
+import java.util.List;
+import java.util.Map;
+
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,12 +10,16 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.eazybytes.accounts.constants.AccountsConstants;
 import com.eazybytes.accounts.dto.CustomerDetailsDTO;
+import com.eazybytes.accounts.dto.CustomerDetailsResultDTO;
 import com.eazybytes.accounts.dto.ErrorResponseDTO;
 import com.eazybytes.accounts.service.ICustomerService;
 
@@ -22,7 +29,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 @Tag(
         name = "REST API for Customers in EazyBank",
@@ -69,5 +78,33 @@ public class CustomerController {
 
 	}
 
+    @Operation(
+            summary = "Fetch Customer Details in bulk REST API",
+            description = "REST API to fetch Customer details for a list of mobile numbers, with a per mobile number error when a lookup fails"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDTO.class)
+                    )
+            )
+    }
+    )
+	@PostMapping("/fetchCustomerDetailsBatch")
+	public ResponseEntity<Map<String, CustomerDetailsResultDTO>> fetchCustomerDetailsBatch(
+			@RequestHeader("eazybank-correlation-id") String correlationId,
+			@RequestBody @NotEmpty @Size(max = AccountsConstants.MAX_BATCH_SIZE, message = "At most " + AccountsConstants.MAX_BATCH_SIZE + " mobile numbers can be fetched at once")
+			List<@Pattern(regexp = "(^$|[0-9]{10})", message = "Mobile number must be 10 digits") String> mobileNumbers) {
+		logger.debug("eazyBank-correlation-id found: {} ", correlationId);
+		Map<String, CustomerDetailsResultDTO> customerDetails = iCustomerService.fetchCustomerDetailsBatch(correlationId, mobileNumbers);
+		return ResponseEntity.status(HttpStatus.SC_OK).body(customerDetails);
+	}
+
 
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.eazybytes.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(
+        name = "AccountOnboardingResult",
+        description = "Schema to hold the outcome of a single row of a bulk onboarding request"
+)
+public class AccountOnboardingResultDTO {
+
+    public enum Status { CREATED, DUPLICATE, INVALID, FAILED }
+
+    @Schema(
+            description = "Position of the row in the request, starting at 1", example = "1"
+    )
+    private int rowNumber;
+
+    @Schema(
+            description = "Mobile Number of the customer", example = "9345432123"
+    )
+    private String mobileNumber;
+
+    @Schema(
+            description = "Outcome of the row", example = "CREATED"
+    )
+    private Status status;
+
+    @Schema(
+            description = "Account Number created for the customer", example = "3454433243"
+    )
+    private Long accountNumber;
+
+    @Schema(
+            description = "Reason the row was not created"
+    )
+    private String errorMessage;
+
+    public static AccountOnboardingResultDTO created(int rowNumber, String mobileNumber, Long accountNumber) {
+        return new AccountOnboardingResultDTO(rowNumber, mobileNumber, Status.CREATED, accountNumber, null);
+    }
+
+    public static AccountOnboardingResultDTO rejected(int rowNumber, String mobileNumber, Status status, String errorMessage) {
+        return new AccountOnboardingResultDTO(rowNumber, mobileNumber, status, null, errorMessage);
+    }
+}
@@ -0,0 +1,13 @@
+package com.eazybytes.accounts.dto;
+
+/**
+ * Read-only row of a customer joined with its account, fetched in a single query without loading
+ * managed entities. The account columns are null when the customer has no account.
+ */
+public record CustomerAccountDTO(Long customerId, String name, String email, String mobileNumber,
+		Long accountNumber, String accountType, String branchAddress) {
+
+	public boolean hasAccount() {
+		return accountNumber != null;
+	}
+}
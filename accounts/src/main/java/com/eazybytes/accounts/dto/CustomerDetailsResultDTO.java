@@ -0,0 +1,34 @@
+package com.eazybytes.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(
+        name = "CustomerDetailsResult",
+        description = "Schema to hold the outcome of a single mobile number in a batch customer details request"
+)
+public class CustomerDetailsResultDTO {
+
+    @Schema(
+            description = "Customer, Account, Cards and Loans details when the lookup succeeded"
+    )
+    private CustomerDetailsDTO customerDetails;
+
+    @Schema(
+            description = "Error message when the lookup failed for this mobile number"
+    )
+    private String errorMessage;
+
+    public static CustomerDetailsResultDTO success(CustomerDetailsDTO customerDetails) {
+        return new CustomerDetailsResultDTO(customerDetails, null);
+    }
+
+    public static CustomerDetailsResultDTO failure(String errorMessage) {
+        return new CustomerDetailsResultDTO(null, errorMessage);
+    }
+}
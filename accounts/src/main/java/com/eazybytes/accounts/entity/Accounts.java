@@ -1,17 +1,22 @@
 package com.eazybytes.accounts.entity;
 
+import org.springframework.data.domain.Persistable;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = @Index(name = "uk_accounts_customer_id", columnList = "customer_id", unique = true))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class Accounts extends BaseEntity{
+public class Accounts extends BaseEntity implements Persistable<Long>{
 	
 	@Column(name="customer_id")
 	private Long customerId;
@@ -28,4 +33,18 @@ public class Accounts extends BaseEntity{
 	
 	@Column(name = "communication_sw")
 	private Boolean communicationSw;;
+
+	@Override
+	public Long getId() {
+		return accountNumber;
+	}
+
+	/**
+	 * Account numbers are assigned before the insert, so a row is new until auditing has stamped
+	 * it; this lets save() persist directly instead of merging after a select by id.
+	 */
+	@Override
+	public boolean isNew() {
+		return getCreatedAt() == null;
+	}
 }
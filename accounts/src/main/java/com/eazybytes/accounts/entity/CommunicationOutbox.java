@@ -0,0 +1,58 @@
+package com.eazybytes.accounts.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A communication request waiting to be published to the send-communication topic. Rows are
+ * written in the same transaction as the account they announce and removed once published.
+ */
+@Entity
+@Table(name = "communication_outbox", indexes = @Index(name = "ix_communication_outbox_next_attempt_at", columnList = "next_attempt_at"))
+@Data
+@NoArgsConstructor
+public class CommunicationOutbox {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "outbox_id")
+	private Long outboxId;
+
+	@Column(name = "account_number")
+	private Long accountNumber;
+
+	@Column(length = 100)
+	private String name;
+
+	@Column(length = 100)
+	private String email;
+
+	@Column(name = "mobile_number", length = 20)
+	private String mobileNumber;
+
+	private int attempts;
+
+	@Column(name = "next_attempt_at")
+	private LocalDateTime nextAttemptAt;
+
+	@Column(name = "created_at", updatable = false)
+	private LocalDateTime createdAt;
+
+	public CommunicationOutbox(Long accountNumber, String name, String email, String mobileNumber) {
+		this.accountNumber = accountNumber;
+		this.name = name;
+		this.email = email;
+		this.mobileNumber = mobileNumber;
+		this.createdAt = LocalDateTime.now();
+		this.nextAttemptAt = this.createdAt;
+	}
+}
@@ -1,6 +1,7 @@
 package com.eazybytes.accounts.functions;
 
 
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
@@ -14,11 +15,15 @@ import com.eazybytes.accounts.service.IAccountsService;
 public class AccountsFunction {
 	 private static final Logger log = LoggerFactory.getLogger(AccountsFunction.class);
 
+	    /**
+	     * Bound in batch mode, so each poll of communication-sent is applied with one bulk update.
+	     */
 	    @Bean
-	    public Consumer<Long> updateCommunication(IAccountsService accountsService) {
-	        return accountNumber -> {
-	            log.info("Updating Communication status for the account number : " + accountNumber.toString());
-	            accountsService.updateCommunicationStatus(accountNumber);
+	    public Consumer<List<Long>> updateCommunication(IAccountsService accountsService) {
+	        return accountNumbers -> {
+	            List<Long> distinctAccountNumbers = accountNumbers.stream().distinct().toList();
+	            int updated = accountsService.updateCommunicationStatus(distinctAccountNumbers);
+	            log.info("Updated Communication status for {} of {} account numbers", updated, distinctAccountNumbers.size());
 	        };
 	    }
 }
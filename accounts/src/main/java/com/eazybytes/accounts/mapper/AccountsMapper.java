@@ -1,6 +1,7 @@
 package com.eazybytes.accounts.mapper;
 
 import com.eazybytes.accounts.dto.AccountsDTO;
+import com.eazybytes.accounts.dto.CustomerAccountDTO;
 import com.eazybytes.accounts.entity.Accounts;
 
 public class AccountsMapper {
@@ -12,6 +13,13 @@ public class AccountsMapper {
 	        return accountsDto;
 	    }
 
+	    public static AccountsDTO mapToAccountsDto(CustomerAccountDTO customerAccount, AccountsDTO accountsDto) {
+	        accountsDto.setAccountNumber(customerAccount.accountNumber());
+	        accountsDto.setAccountType(customerAccount.accountType());
+	        accountsDto.setBranchAddress(customerAccount.branchAddress());
+	        return accountsDto;
+	    }
+
 	    public static Accounts mapToAccounts(AccountsDTO accountsDto, Accounts accounts) {
 	        accounts.setAccountNumber(accountsDto.getAccountNumber());
 	        accounts.setAccountType(accountsDto.getAccountType());
@@ -1,5 +1,6 @@
 package com.eazybytes.accounts.mapper;
 
+import com.eazybytes.accounts.dto.CustomerAccountDTO;
 import com.eazybytes.accounts.dto.CustomerDTO;
 import com.eazybytes.accounts.dto.CustomerDetailsDTO;
 import com.eazybytes.accounts.entity.Customer;
@@ -20,6 +21,20 @@ public class CustomerMapper {
         return customerDetailsDto;
     }
 
+    public static CustomerDTO mapToCustomerDto(CustomerAccountDTO customerAccount, CustomerDTO customerDto) {
+        customerDto.setName(customerAccount.name());
+        customerDto.setEmail(customerAccount.email());
+        customerDto.setMobileNumber(customerAccount.mobileNumber());
+        return customerDto;
+    }
+
+    public static CustomerDetailsDTO mapToCustomerDetailsDto(CustomerAccountDTO customerAccount, CustomerDetailsDTO customerDetailsDto) {
+        customerDetailsDto.setName(customerAccount.name());
+        customerDetailsDto.setEmail(customerAccount.email());
+        customerDetailsDto.setMobileNumber(customerAccount.mobileNumber());
+        return customerDetailsDto;
+    }
+
     public static Customer mapToCustomer(CustomerDTO customerDto, Customer customer) {
         customer.setName(customerDto.getName());
         customer.setEmail(customerDto.getEmail());
@@ -0,0 +1,179 @@
+package com.eazybytes.accounts.outbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eazybytes.accounts.config.CommunicationOutboxProperties;
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.dto.AccountsMsgDto;
+import com.eazybytes.accounts.entity.CommunicationOutbox;
+import com.eazybytes.accounts.repository.CommunicationOutboxRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes the communication requests recorded in the outbox. Account creation only writes the
+ * outbox row, so a slow or unavailable broker delays the notification instead of the request, and
+ * a failed publish is retried with backoff rather than dropped.
+ * <p>
+ * A batch is sent without waiting on each record; the broker's acknowledgements arrive on the
+ * {@code communicationOutboxAcks} channel and only acknowledged rows are deleted. The batch stops at
+ * the first send the producer rejects, and the whole batch is awaited for at most the configured
+ * send timeout, so an unavailable broker cannot keep the row locks for longer than that.
+ */
+@Component
+public class CommunicationOutboxRelay implements SchedulingConfigurer {
+
+	private static final Logger log = LoggerFactory.getLogger(CommunicationOutboxRelay.class);
+
+	private final CommunicationOutboxRepository outboxRepository;
+	private final StreamBridge streamBridge;
+	private final CommunicationOutboxProperties properties;
+	private final TransactionTemplate transactionTemplate;
+	private final Map<String, CompletableFuture<Void>> pendingAcks = new ConcurrentHashMap<>();
+	private final Counter publishedCounter;
+	private final Counter failedCounter;
+
+	public CommunicationOutboxRelay(CommunicationOutboxRepository outboxRepository, StreamBridge streamBridge,
+			CommunicationOutboxProperties properties, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+			@Qualifier("communicationOutboxAcks") SubscribableChannel communicationOutboxAcks) {
+		this.outboxRepository = outboxRepository;
+		this.streamBridge = streamBridge;
+		this.properties = properties;
+		this.transactionTemplate = transactionTemplate;
+		this.publishedCounter = Counter.builder("communication.outbox.publish")
+				.description("Communication requests published from the outbox")
+				.tag("outcome", "published")
+				.register(meterRegistry);
+		this.failedCounter = Counter.builder("communication.outbox.publish")
+				.description("Communication requests that failed to publish and were rescheduled")
+				.tag("outcome", "failed")
+				.register(meterRegistry);
+		communicationOutboxAcks.subscribe(this::acknowledge);
+	}
+
+	@Override
+	public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+		taskRegistrar.addFixedDelayTask(() -> transactionTemplate.executeWithoutResult(status -> relay()),
+				properties.getPollInterval());
+	}
+
+	/**
+	 * Publishes one batch of due rows; runs within the transaction that holds their row locks.
+	 */
+	void relay() {
+		List<CommunicationOutbox> due = outboxRepository.findByNextAttemptAtLessThanEqualOrderByOutboxId(
+				LocalDateTime.now(), Limit.of(properties.getBatchSize()));
+		if (due.isEmpty()) {
+			return;
+		}
+		Map<CommunicationOutbox, CompletableFuture<Void>> sent = new LinkedHashMap<>();
+		try {
+			for (CommunicationOutbox entry : due) {
+				CompletableFuture<Void> ack = new CompletableFuture<>();
+				pendingAcks.put(eventId(entry), ack);
+				if (!publish(entry)) {
+					// the producer is failing, so the rest of the batch would fail the same way
+					reschedule(entry);
+					failedCounter.increment();
+					break;
+				}
+				sent.put(entry, ack);
+			}
+			awaitAcks(sent.values());
+		} finally {
+			due.forEach(entry -> pendingAcks.remove(eventId(entry)));
+		}
+
+		List<CommunicationOutbox> published = new ArrayList<>(sent.size());
+		sent.forEach((entry, ack) -> {
+			if (ack.isDone() && !ack.isCompletedExceptionally()) {
+				published.add(entry);
+			} else {
+				reschedule(entry);
+				failedCounter.increment();
+			}
+		});
+		outboxRepository.deleteAllInBatch(published);
+		publishedCounter.increment(published.size());
+		log.debug("Published {} of {} outbox communication requests", published.size(), due.size());
+	}
+
+	private boolean publish(CommunicationOutbox entry) {
+		var accountsMsgDto = new AccountsMsgDto(entry.getAccountNumber(), entry.getName(), entry.getEmail(),
+				entry.getMobileNumber());
+		try {
+			// the outbox id identifies the event, so the message service can drop redeliveries
+			return streamBridge.send("sendCommunication-out-0", MessageBuilder.withPayload(accountsMsgDto)
+					.setHeader(AccountsConstants.EVENT_ID_HEADER, eventId(entry))
+					.build());
+		} catch (RuntimeException ex) {
+			log.warn("Failed to send Communication request for the account number : {}", entry.getAccountNumber(), ex);
+			return false;
+		}
+	}
+
+	private void awaitAcks(Iterable<CompletableFuture<Void>> acks) {
+		long deadline = System.nanoTime() + properties.getSendTimeout().toNanos();
+		for (CompletableFuture<Void> ack : acks) {
+			try {
+				ack.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException ex) {
+				log.warn("Timed out waiting for the broker to acknowledge outbox communication requests");
+				return;
+			} catch (ExecutionException ex) {
+				// left unacknowledged, so the row is rescheduled
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Completes the pending send whose eventId header the acknowledged message carries.
+	 */
+	private void acknowledge(Message<?> message) {
+		Object eventId = message.getHeaders().get(AccountsConstants.EVENT_ID_HEADER);
+		CompletableFuture<Void> ack = eventId != null ? pendingAcks.get(eventId.toString()) : null;
+		if (ack != null) {
+			ack.complete(null);
+		}
+	}
+
+	private static String eventId(CommunicationOutbox entry) {
+		return entry.getOutboxId().toString();
+	}
+
+	private void reschedule(CommunicationOutbox entry) {
+		entry.setAttempts(entry.getAttempts() + 1);
+		Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(entry.getAttempts() - 1, 20));
+		if (backoff.compareTo(properties.getMaxRetryBackoff()) > 0) {
+			backoff = properties.getMaxRetryBackoff();
+		}
+		entry.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+	}
+}
@@ -1,9 +1,13 @@
 package com.eazybytes.accounts.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.eazybytes.accounts.entity.Accounts;
@@ -18,4 +22,16 @@ public interface AccountsRepository extends JpaRepository<Accounts, Long>{
 	@Transactional
 	@Modifying
 	void deleteByCustomerId(Long customerId);
+
+	@Modifying
+	@Query("update Accounts a set a.communicationSw = true where a.accountNumber in :accountNumbers")
+	int updateCommunicationSwByAccountNumberIn(@Param("accountNumbers") Collection<Long> accountNumbers);
+
+	/**
+	 * @param count - how many account numbers to draw
+	 * @return the next account numbers; the sequence is not transactional, so this neither locks
+	 * nor needs a connection of its own
+	 */
+	@Query(value = "select next value for account_number_seq from system_range(1, :count)", nativeQuery = true)
+	List<Long> nextAccountNumbers(@Param("count") int count);
 }
@@ -0,0 +1,27 @@
+package com.eazybytes.accounts.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.eazybytes.accounts.entity.CommunicationOutbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface CommunicationOutboxRepository extends JpaRepository<CommunicationOutbox, Long> {
+
+	/**
+	 * Locks the due rows and skips rows already locked by another instance's relay, so several
+	 * instances can drain the outbox without publishing the same row twice.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	List<CommunicationOutbox> findByNextAttemptAtLessThanEqualOrderByOutboxId(LocalDateTime now, Limit limit);
+}
@@ -1,14 +1,37 @@
 package com.eazybytes.accounts.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.dto.CustomerAccountDTO;
 import com.eazybytes.accounts.entity.Customer;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long>{
 	
 	Optional<Customer> findByMobileNumber(String mobileNumber);
+
+	@Query("select c.mobileNumber from Customer c where c.mobileNumber in :mobileNumbers")
+	List<String> findExistingMobileNumbers(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+	@Query("select new com.eazybytes.accounts.dto.CustomerAccountDTO(c.customerId, c.name, c.email, c.mobileNumber, "
+			+ "a.accountNumber, a.accountType, a.branchAddress) "
+			+ "from Customer c left join Accounts a on a.customerId = c.customerId "
+			+ "where c.mobileNumber = :mobileNumber")
+	@Cacheable(cacheNames = AccountsConstants.CUSTOMER_PROFILE_CACHE, key = "#mobileNumber", unless = "#result == null")
+	Optional<CustomerAccountDTO> findCustomerAccountByMobileNumber(@Param("mobileNumber") String mobileNumber);
+
+	@Query("select new com.eazybytes.accounts.dto.CustomerAccountDTO(c.customerId, c.name, c.email, c.mobileNumber, "
+			+ "a.accountNumber, a.accountType, a.branchAddress) "
+			+ "from Customer c left join Accounts a on a.customerId = c.customerId "
+			+ "where c.mobileNumber in :mobileNumbers")
+	List<CustomerAccountDTO> findCustomerAccountsByMobileNumberIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
 }
@@ -0,0 +1,16 @@
+package com.eazybytes.accounts.service;
+
+import java.util.Iterator;
+import java.util.List;
+
+import com.eazybytes.accounts.dto.AccountOnboardingResultDTO;
+import com.eazybytes.accounts.dto.CustomerDTO;
+
+public interface IAccountsOnboardingService {
+
+	/**
+	 * @param customers - Customers to onboard, consumed lazily so the request can be streamed
+	 * @return the outcome of every row, in request order
+	 */
+	List<AccountOnboardingResultDTO> createAccounts(Iterator<CustomerDTO> customers);
+}
@@ -1,5 +1,7 @@
 package com.eazybytes.accounts.service;
 
+import java.util.Collection;
+
 import com.eazybytes.accounts.dto.CustomerDTO;
 
 
@@ -13,5 +15,5 @@ public interface IAccountsService {
 	
 	Boolean deleteAccount(String mobileNumber);
 
-	boolean updateCommunicationStatus(Long accountNumber);
+	int updateCommunicationStatus(Collection<Long> accountNumbers);
 }
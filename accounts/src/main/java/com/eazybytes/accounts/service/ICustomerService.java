@@ -1,6 +1,10 @@
 package com.eazybytes.accounts.service;
 
+import java.util.List;
+import java.util.Map;
+
 import com.eazybytes.accounts.dto.CustomerDetailsDTO;
+import com.eazybytes.accounts.dto.CustomerDetailsResultDTO;
 
 import jakarta.validation.constraints.Pattern;
 
@@ -13,4 +17,11 @@ public interface ICustomerService {
      * @return Customer Details based on a given mobileNumber
      */
     CustomerDetailsDTO	 fetchCustomerDetails(String correlationId, @Pattern(regexp = "(^$|[0-9]{10})", message = "Mobile number must be 10 digits") String mobileNumber2);
+
+    /**
+     *
+     * @param mobileNumbers - Input Mobile Numbers
+     * @return Customer Details or the lookup error, keyed by mobileNumber in request order
+     */
+    Map<String, CustomerDetailsResultDTO> fetchCustomerDetailsBatch(String correlationId, List<String> mobileNumbers);
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package com.eazybytes.accounts.service.client;
 
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
@@ -14,6 +17,11 @@ public class CardsFallback implements CardsFeignClient{
 		// TODO Auto-generated method stub
 		return null;
 	}
+
+	@Override
+	public ResponseEntity<Map<String, CardsDto>> fetchCardDetailsBatch(String correlationId, List<String> mobileNumbers) {
+		return null;
+	}
 	
 	
 }
@@ -0,0 +1,114 @@
+package com.eazybytes.accounts.service.client;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Near-cache of responses from a downstream service, keyed by mobile number. Responses are served
+ * from memory for the configured ttl and kept for a further stale window, during which they are
+ * refreshed in the background and used in place of an empty Feign fallback response. A refresh
+ * the executor rejects is dropped; the stale response is served until a later request refreshes it.
+ */
+public class DownstreamNearCache<T> {
+
+	private static final Logger log = LoggerFactory.getLogger(DownstreamNearCache.class);
+
+	private final String name;
+	private final CustomerDetailsProperties.NearCache properties;
+	private final Executor refreshExecutor;
+	private final Cache<String, CachedResponse<T>> cache;
+	private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+	private final Ticker ticker;
+
+	public DownstreamNearCache(String name, CustomerDetailsProperties.NearCache properties, Executor refreshExecutor) {
+		this(name, properties, refreshExecutor, Ticker.systemTicker());
+	}
+
+	DownstreamNearCache(String name, CustomerDetailsProperties.NearCache properties, Executor refreshExecutor,
+			Ticker ticker) {
+		this.name = name;
+		this.properties = properties;
+		this.refreshExecutor = refreshExecutor;
+		this.ticker = ticker;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumSize())
+				.expireAfterWrite(properties.getTtl().plus(properties.getStaleTtl()))
+				.ticker(ticker)
+				.build();
+	}
+
+	/**
+	 * @param mobileNumber - Input Mobile Number
+	 * @param loader       - downstream call, returning null when the Feign fallback fired
+	 * @return the cached or freshly loaded response, or null when neither is available
+	 */
+	public T get(String mobileNumber, Supplier<T> loader) {
+		if (!properties.isEnabled()) {
+			return loader.get();
+		}
+		CachedResponse<T> cached = cache.getIfPresent(mobileNumber);
+		if (cached == null) {
+			return load(mobileNumber, loader, null);
+		}
+		if (!cached.isOlderThan(properties.getTtl().toNanos(), ticker.read())) {
+			return cached.value();
+		}
+		if (!properties.isStaleWhileRevalidate()) {
+			return load(mobileNumber, loader, cached);
+		}
+		refreshInBackground(mobileNumber, loader, cached);
+		return cached.value();
+	}
+
+	private void refreshInBackground(String mobileNumber, Supplier<T> loader, CachedResponse<T> stale) {
+		if (!refreshing.add(mobileNumber)) {
+			return;
+		}
+		try {
+			refreshExecutor.execute(() -> {
+				try {
+					load(mobileNumber, loader, stale);
+				} catch (RuntimeException ex) {
+					log.warn("Background refresh of {} details for mobileNumber {} failed", name, mobileNumber, ex);
+				} finally {
+					refreshing.remove(mobileNumber);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			refreshing.remove(mobileNumber);
+			log.debug("Background refresh of {} details for mobileNumber {} dropped as the refresh pool is busy", name,
+					mobileNumber);
+		}
+	}
+
+	private T load(String mobileNumber, Supplier<T> loader, CachedResponse<T> stale) {
+		T value = loader.get();
+		if (value != null) {
+			cache.put(mobileNumber, new CachedResponse<>(value, ticker.read()));
+			return value;
+		}
+		if (stale != null) {
+			log.debug("Serving stale {} details for mobileNumber {} as the downstream call fell back", name, mobileNumber);
+			return stale.value();
+		}
+		return null;
+	}
+
+	private record CachedResponse<T>(T value, long loadedAt) {
+
+		boolean isOlderThan(long ttlNanos, long now) {
+			return now - loadedAt >= ttlNanos;
+		}
+	}
+}
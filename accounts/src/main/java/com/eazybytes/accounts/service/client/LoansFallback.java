@@ -1,5 +1,8 @@
 package com.eazybytes.accounts.service.client;
 
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
@@ -13,6 +16,11 @@ public class LoansFallback implements LoansFeignClient{
 		// TODO Auto-generated method stub
 		return null;
 	}
+
+	@Override
+	public ResponseEntity<Map<String, LoansDto>> fetchLoanDetailsBatch(String correlationId, List<String> mobileNumbers) {
+		return null;
+	}
 	
 	
 }
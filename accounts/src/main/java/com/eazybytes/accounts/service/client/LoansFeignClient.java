@@ -1,9 +1,14 @@
 package com.eazybytes.accounts.service.client;
 
+import java.util.List;
+import java.util.Map;
+
 import com.eazybytes.accounts.dto.LoansDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
@@ -13,4 +18,7 @@ public interface LoansFeignClient {
     @GetMapping(value = "/api/fetch",consumes = "application/json")
     public ResponseEntity<LoansDto> fetchLoanDetails(@RequestHeader("eazybank-correlation-id") String correlationId, @RequestParam String mobileNumber);
 
+    @PostMapping(value = "/api/fetch-batch",consumes = "application/json")
+    public ResponseEntity<Map<String, LoansDto>> fetchLoanDetailsBatch(@RequestHeader("eazybank-correlation-id") String correlationId, @RequestBody List<String> mobileNumbers);
+
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.eazybytes.accounts.service.impl;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.dto.AccountOnboardingResultDTO;
+import com.eazybytes.accounts.dto.AccountOnboardingResultDTO.Status;
+import com.eazybytes.accounts.dto.CustomerDTO;
+import com.eazybytes.accounts.exception.CustomerAlreadyExistsException;
+import com.eazybytes.accounts.repository.AccountsRepository;
+import com.eazybytes.accounts.repository.CustomerRepository;
+import com.eazybytes.accounts.service.IAccountsOnboardingService;
+import com.eazybytes.accounts.service.IAccountsService;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+
+@Service
+@AllArgsConstructor
+public class AccountsOnboardingServiceImpl implements IAccountsOnboardingService {
+
+	private static final Logger log = LoggerFactory.getLogger(AccountsOnboardingServiceImpl.class);
+
+	private static final String INSERT_CUSTOMER = "insert into customer (name, email, mobile_number, created_at, created_by) "
+			+ "values (?, ?, ?, ?, ?)";
+	private static final String SELECT_CUSTOMER_IDS = "select customer_id, mobile_number from customer "
+			+ "where mobile_number in (:mobileNumbers)";
+	private static final String INSERT_ACCOUNT = "insert into accounts (customer_id, account_number, account_type, "
+			+ "branch_address, created_at, created_by) values (?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_OUTBOX = "insert into communication_outbox (account_number, name, email, "
+			+ "mobile_number, attempts, next_attempt_at, created_at) values (?, ?, ?, ?, 0, ?, ?)";
+
+	private final CustomerRepository customerRepository;
+	private final AccountsRepository accountsRepository;
+	private final IAccountsService accountsService;
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final AuditorAware<String> auditAwareImpl;
+	private final Validator validator;
+
+	/**
+	 * Rows are validated and de-duplicated as they are read, then inserted in chunks: one query to
+	 * find the mobile numbers that are already registered, one JDBC batch for the customers and one
+	 * for their accounts and their outbox communication requests, all in a single transaction per chunk.
+	 */
+	@Override
+	public List<AccountOnboardingResultDTO> createAccounts(Iterator<CustomerDTO> customers) {
+		List<AccountOnboardingResultDTO> results = new ArrayList<>();
+		Set<String> seenMobileNumbers = new HashSet<>();
+		Map<Integer, CustomerDTO> chunk = new HashMap<>();
+		int rowNumber = 0;
+		while (true) {
+			CustomerDTO customerDTO;
+			try {
+				if (!customers.hasNext()) {
+					break;
+				}
+				customerDTO = customers.next();
+			} catch (RuntimeException ex) {
+				results.add(AccountOnboardingResultDTO.rejected(rowNumber + 1, null, Status.INVALID,
+						"Malformed input, the remaining rows were not read: " + ex.getMessage()));
+				break;
+			}
+			rowNumber++;
+
+			String violations = validate(customerDTO);
+			if (violations != null) {
+				results.add(AccountOnboardingResultDTO.rejected(rowNumber, customerDTO.getMobileNumber(), Status.INVALID, violations));
+			} else if (!seenMobileNumbers.add(customerDTO.getMobileNumber())) {
+				results.add(AccountOnboardingResultDTO.rejected(rowNumber, customerDTO.getMobileNumber(), Status.DUPLICATE,
+						"Mobile Number appears more than once in the request"));
+			} else {
+				chunk.put(rowNumber, customerDTO);
+				if (chunk.size() == AccountsConstants.ONBOARDING_CHUNK_SIZE) {
+					results.addAll(onboardChunk(chunk));
+					chunk.clear();
+				}
+			}
+		}
+		if (!chunk.isEmpty()) {
+			results.addAll(onboardChunk(chunk));
+		}
+		results.sort(Comparator.comparingInt(AccountOnboardingResultDTO::getRowNumber));
+		return results;
+	}
+
+	private List<AccountOnboardingResultDTO> onboardChunk(Map<Integer, CustomerDTO> chunk) {
+		List<AccountOnboardingResultDTO> results = new ArrayList<>();
+		Set<String> registered = new HashSet<>(customerRepository.findExistingMobileNumbers(
+				chunk.values().stream().map(CustomerDTO::getMobileNumber).toList()));
+
+		Map<Integer, CustomerDTO> newCustomers = new HashMap<>();
+		chunk.forEach((rowNumber, customerDTO) -> {
+			if (registered.contains(customerDTO.getMobileNumber())) {
+				results.add(AccountOnboardingResultDTO.rejected(rowNumber, customerDTO.getMobileNumber(), Status.DUPLICATE,
+						"Customer already registered with given Mobile Number ::" + customerDTO.getMobileNumber()));
+			} else {
+				newCustomers.put(rowNumber, customerDTO);
+			}
+		});
+		if (newCustomers.isEmpty()) {
+			return results;
+		}
+
+		Map<String, Long> accountNumbers;
+		try {
+			accountNumbers = transactionTemplate.execute(status -> insertCustomersAndAccounts(newCustomers.values()));
+		} catch (DataIntegrityViolationException ex) {
+			// a concurrent create claimed one of the mobile numbers, so isolate it row by row
+			log.warn("Batch insert of {} customers hit a constraint violation, retrying row by row", newCustomers.size());
+			results.addAll(createIndividually(newCustomers));
+			return results;
+		}
+
+		newCustomers.forEach((rowNumber, customerDTO) -> results.add(AccountOnboardingResultDTO.created(rowNumber,
+				customerDTO.getMobileNumber(), accountNumbers.get(customerDTO.getMobileNumber()))));
+		return results;
+	}
+
+	/**
+	 * @return the new account numbers keyed by mobile number
+	 */
+	private Map<String, Long> insertCustomersAndAccounts(Iterable<CustomerDTO> customers) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		String createdBy = auditAwareImpl.getCurrentAuditor().orElse(null);
+
+		List<Object[]> customerRows = new ArrayList<>();
+		List<String> mobileNumbers = new ArrayList<>();
+		Map<String, CustomerDTO> customersByMobileNumber = new HashMap<>();
+		for (CustomerDTO customerDTO : customers) {
+			customersByMobileNumber.put(customerDTO.getMobileNumber(), customerDTO);
+			customerRows.add(new Object[] { customerDTO.getName(), customerDTO.getEmail(), customerDTO.getMobileNumber(),
+					now, createdBy });
+			mobileNumbers.add(customerDTO.getMobileNumber());
+		}
+		jdbcTemplate.batchUpdate(INSERT_CUSTOMER, customerRows);
+
+		Map<String, Long> customerIds = new HashMap<>();
+		namedParameterJdbcTemplate.query(SELECT_CUSTOMER_IDS, Map.of("mobileNumbers", mobileNumbers),
+				rs -> {
+					customerIds.put(rs.getString("mobile_number"), rs.getLong("customer_id"));
+				});
+
+		Map<String, Long> accountNumbers = new HashMap<>();
+		List<Object[]> accountRows = new ArrayList<>();
+		List<Object[]> outboxRows = new ArrayList<>();
+		Iterator<Long> newAccountNumbers = accountsRepository.nextAccountNumbers(mobileNumbers.size()).iterator();
+		for (String mobileNumber : mobileNumbers) {
+			long accountNumber = newAccountNumbers.next();
+			accountNumbers.put(mobileNumber, accountNumber);
+			accountRows.add(new Object[] { customerIds.get(mobileNumber), accountNumber, AccountsConstants.SAVINGS,
+					AccountsConstants.ADDRESS, now, createdBy });
+			CustomerDTO customerDTO = customersByMobileNumber.get(mobileNumber);
+			outboxRows.add(new Object[] { accountNumber, customerDTO.getName(), customerDTO.getEmail(), mobileNumber,
+					now, now });
+		}
+		jdbcTemplate.batchUpdate(INSERT_ACCOUNT, accountRows);
+		jdbcTemplate.batchUpdate(INSERT_OUTBOX, outboxRows);
+		return accountNumbers;
+	}
+
+	private List<AccountOnboardingResultDTO> createIndividually(Map<Integer, CustomerDTO> customers) {
+		List<AccountOnboardingResultDTO> results = new ArrayList<>();
+		customers.forEach((rowNumber, customerDTO) -> {
+			try {
+				accountsService.createAccount(customerDTO);
+				Long accountNumber = accountsService.fetchAccount(customerDTO.getMobileNumber()).getAccountsDTO()
+						.getAccountNumber();
+				results.add(AccountOnboardingResultDTO.created(rowNumber, customerDTO.getMobileNumber(), accountNumber));
+			} catch (CustomerAlreadyExistsException ex) {
+				results.add(AccountOnboardingResultDTO.rejected(rowNumber, customerDTO.getMobileNumber(), Status.DUPLICATE,
+						ex.getMessage()));
+			} catch (RuntimeException ex) {
+				results.add(AccountOnboardingResultDTO.rejected(rowNumber, customerDTO.getMobileNumber(), Status.FAILED,
+						ex.getMessage()));
+			}
+		});
+		return results;
+	}
+
+	private String validate(CustomerDTO customerDTO) {
+		Set<ConstraintViolation<CustomerDTO>> violations = validator.validate(customerDTO);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream()
+				.map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+				.sorted()
+				.collect(Collectors.joining(", "));
+	}
+}
@@ -1,24 +1,26 @@
 package com.eazybytes.accounts.service.impl;
 
-import java.util.Optional;
-import java.util.Random;
+import java.util.Collection;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.eazybytes.accounts.constants.AccountsConstants;
 import com.eazybytes.accounts.dto.AccountsDTO;
-import com.eazybytes.accounts.dto.AccountsMsgDto;
+import com.eazybytes.accounts.dto.CustomerAccountDTO;
 import com.eazybytes.accounts.dto.CustomerDTO;
 import com.eazybytes.accounts.entity.Accounts;
+import com.eazybytes.accounts.entity.CommunicationOutbox;
 import com.eazybytes.accounts.entity.Customer;
 import com.eazybytes.accounts.exception.CustomerAlreadyExistsException;
 import com.eazybytes.accounts.exception.ResourceNotFoundException;
 import com.eazybytes.accounts.mapper.AccountsMapper;
 import com.eazybytes.accounts.mapper.CustomerMapper;
 import com.eazybytes.accounts.repository.AccountsRepository;
+import com.eazybytes.accounts.repository.CommunicationOutboxRepository;
 import com.eazybytes.accounts.repository.CustomerRepository;
 import com.eazybytes.accounts.service.IAccountsService;
 
@@ -28,37 +30,39 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class AccountsServiceImpl implements IAccountsService {
 	
-	private static final Logger log = LoggerFactory.getLogger(AccountsServiceImpl.class);
-	 
 	private AccountsRepository accountsRepository;
 	private CustomerRepository customerRepository;
-	private final StreamBridge streamBridge;
+	private final CommunicationOutboxRepository communicationOutboxRepository;
+	private final CacheManager cacheManager;
 
 	@Override
+	@Transactional
 	public void createAccount(CustomerDTO customerDTO) {
-		Optional<Customer> optionalCustomer = customerRepository.findByMobileNumber(customerDTO.getMobileNumber());
-
-		if (optionalCustomer.isPresent()) {
+		Customer customer = CustomerMapper.mapToCustomer(customerDTO, new Customer());
+		Customer savedCustomer;
+		try {
+			savedCustomer = customerRepository.save(customer);
+		} catch (DataIntegrityViolationException ex) {
+			// uk_customer_mobile_number rejects a second customer with the same mobile number
 			throw new CustomerAlreadyExistsException(
 					"Customer already registered with given Mobile Number ::" + customerDTO.getMobileNumber());
 		}
 
-		Customer customer = CustomerMapper.mapToCustomer(customerDTO, new Customer());
-		Customer savedCustomer = customerRepository.save(customer);
-
 		Accounts account = createNewAccount(savedCustomer);
 		Accounts savedAccount = accountsRepository.save(account);
+		evictCustomerProfile(savedCustomer.getMobileNumber());
 		sendCommunication(savedAccount, savedCustomer);
 	}
 	
 	
-	 private void sendCommunication(Accounts account, Customer customer) {
-	        var accountsMsgDto = new AccountsMsgDto(account.getAccountNumber(), customer.getName(),
-	                customer.getEmail(), customer.getMobileNumber());
-	        log.info("Sending Communication request for the details: {}", accountsMsgDto);
-	        var result = streamBridge.send("sendCommunication-out-0", accountsMsgDto);
-	        log.info("Is the Communication request successfully triggered ? : {}", result);
-	    }
+	/**
+	 * Records the communication request in the outbox within the account's transaction; it is
+	 * published to Kafka by CommunicationOutboxRelay once committed.
+	 */
+	private void sendCommunication(Accounts account, Customer customer) {
+		communicationOutboxRepository.save(new CommunicationOutbox(account.getAccountNumber(), customer.getName(),
+				customer.getEmail(), customer.getMobileNumber()));
+	}
 
 	/**
 	 * @param customer - Customer Object
@@ -67,9 +71,7 @@ public class AccountsServiceImpl implements IAccountsService {
 	private Accounts createNewAccount(Customer customer) {
 		Accounts newAccount = new Accounts();
 		newAccount.setCustomerId(customer.getCustomerId());
-		long randomAccNumber = 1000000000L + new Random().nextInt(900000000);
-
-		newAccount.setAccountNumber(randomAccNumber);
+		newAccount.setAccountNumber(accountsRepository.nextAccountNumbers(1).get(0));
 		newAccount.setAccountType(AccountsConstants.SAVINGS);
 		newAccount.setBranchAddress(AccountsConstants.ADDRESS);
 		return newAccount;
@@ -77,15 +79,14 @@ public class AccountsServiceImpl implements IAccountsService {
 
 	@Override
 	public CustomerDTO fetchAccount(String mobileNumber) {
-		Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
+		CustomerAccountDTO customerAccount = customerRepository.findCustomerAccountByMobileNumber(mobileNumber).orElseThrow(
 				() -> new ResourceNotFoundException("Customer", "Mobile Number", mobileNumber)
 				);
-		
-		Accounts account = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-				() -> new ResourceNotFoundException("Account", "Customer Id", customer.getCustomerId().toString())
-				);
-		CustomerDTO customerDTO = CustomerMapper.mapToCustomerDto(customer, new CustomerDTO());
-		customerDTO.setAccountsDTO(AccountsMapper.mapToAccountsDto(account, new AccountsDTO()));
+		if (!customerAccount.hasAccount()) {
+			throw new ResourceNotFoundException("Account", "Customer Id", customerAccount.customerId().toString());
+		}
+		CustomerDTO customerDTO = CustomerMapper.mapToCustomerDto(customerAccount, new CustomerDTO());
+		customerDTO.setAccountsDTO(AccountsMapper.mapToAccountsDto(customerAccount, new AccountsDTO()));
 		return customerDTO;
 	}
 
@@ -104,8 +105,11 @@ public class AccountsServiceImpl implements IAccountsService {
             Customer customer = customerRepository.findById(customerId).orElseThrow(
                     () -> new ResourceNotFoundException("Customer", "CustomerID", customerId.toString())
             );
+            String previousMobileNumber = customer.getMobileNumber();
             CustomerMapper.mapToCustomer(customerDTO,customer);
             customerRepository.save(customer);
+            evictCustomerProfile(previousMobileNumber);
+            evictCustomerProfile(customer.getMobileNumber());
             isUpdated = true;
         }
         return  isUpdated;
@@ -122,26 +126,33 @@ public class AccountsServiceImpl implements IAccountsService {
         );
         accountsRepository.deleteByCustomerId(customer.getCustomerId());
         customerRepository.deleteById(customer.getCustomerId());
+        evictCustomerProfile(mobileNumber);
         return true;
     }
 
-    
     /**
-     * @param accountNumber - Long
-     * @return boolean indicating if the update of communication status is successful or not
+     * The cached customer profile does not carry the communication switch, so no eviction is needed.
+     *
+     * @param accountNumbers - account numbers whose communication was sent
+     * @return number of accounts updated
      */
     @Override
-    public boolean updateCommunicationStatus(Long accountNumber) {
-        boolean isUpdated = false;
-        if(accountNumber !=null ){
-            Accounts accounts = accountsRepository.findById(accountNumber).orElseThrow(
-                    () -> new ResourceNotFoundException("Account", "AccountNumber", accountNumber.toString())
-            );
-            accounts.setCommunicationSw(true);
-            accountsRepository.save(accounts);
-            isUpdated = true;
+    @Transactional
+    public int updateCommunicationStatus(Collection<Long> accountNumbers) {
+        if (accountNumbers.isEmpty()) {
+            return 0;
+        }
+        return accountsRepository.updateCommunicationSwByAccountNumberIn(accountNumbers);
+    }
+
+    /**
+     * @param mobileNumber - Mobile Number whose cached customer profile should be dropped
+     */
+    private void evictCustomerProfile(String mobileNumber) {
+        Cache cache = cacheManager.getCache(AccountsConstants.CUSTOMER_PROFILE_CACHE);
+        if (cache != null && mobileNumber != null) {
+            cache.evict(mobileNumber);
         }
-        return  isUpdated;
     }
 
 }
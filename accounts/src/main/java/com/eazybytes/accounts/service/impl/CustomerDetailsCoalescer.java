@@ -0,0 +1,102 @@
+package com.eazybytes.accounts.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
+import com.eazybytes.accounts.dto.CustomerDetailsDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Single-flight de-duplication of customer details lookups: while a lookup for a mobile number is
+ * in flight, concurrent callers for the same mobile number wait for and share its result instead of
+ * repeating the DB read and the downstream fan-out. A caller waits at most the configured
+ * coalescing timeout before running the lookup itself.
+ */
+@Component
+public class CustomerDetailsCoalescer {
+
+	private static final Logger log = LoggerFactory.getLogger(CustomerDetailsCoalescer.class);
+
+	private final Map<String, CompletableFuture<CustomerDetailsDTO>> inFlight = new ConcurrentHashMap<>();
+	private final CustomerDetailsProperties properties;
+	private final Counter executedLookups;
+	private final Counter coalescedLookups;
+
+	public CustomerDetailsCoalescer(CustomerDetailsProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.executedLookups = Counter.builder("customer.details.lookups")
+				.description("Customer details lookups executed against the DB and downstream services")
+				.tag("outcome", "executed")
+				.register(meterRegistry);
+		this.coalescedLookups = Counter.builder("customer.details.lookups")
+				.description("Customer details lookups served from an identical in-flight lookup")
+				.tag("outcome", "coalesced")
+				.register(meterRegistry);
+		Gauge.builder("customer.details.lookups.inflight", inFlight, Map::size)
+				.description("Distinct mobile numbers with a customer details lookup in flight")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * @param mobileNumber - Input Mobile Number
+	 * @param lookup       - the lookup to run when none is in flight for the mobile number
+	 * @return Customer Details, possibly computed for a concurrent caller
+	 */
+	public CustomerDetailsDTO execute(String mobileNumber, Supplier<CustomerDetailsDTO> lookup) {
+		if (!properties.isCoalescingEnabled()) {
+			return lookup.get();
+		}
+		CompletableFuture<CustomerDetailsDTO> promise = new CompletableFuture<>();
+		CompletableFuture<CustomerDetailsDTO> existing = inFlight.putIfAbsent(mobileNumber, promise);
+		if (existing != null) {
+			coalescedLookups.increment();
+			return await(existing, mobileNumber, lookup);
+		}
+		executedLookups.increment();
+		try {
+			CustomerDetailsDTO customerDetailsDto = lookup.get();
+			promise.complete(customerDetailsDto);
+			return customerDetailsDto;
+		} catch (Throwable ex) {
+			promise.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inFlight.remove(mobileNumber, promise);
+		}
+	}
+
+	private CustomerDetailsDTO await(CompletableFuture<CustomerDetailsDTO> inFlightLookup, String mobileNumber,
+			Supplier<CustomerDetailsDTO> lookup) {
+		try {
+			return inFlightLookup.get(properties.getCoalescingTimeout().toNanos(), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException ex) {
+			log.warn("Timed out waiting for the in-flight customer details lookup of mobileNumber {}, looking it up again",
+					mobileNumber);
+			return lookup.get();
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (ex.getCause() instanceof Error cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(ex.getCause());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for the customer details of mobileNumber " + mobileNumber, ex);
+		}
+	}
+}
@@ -1,21 +1,36 @@
 package com.eazybytes.accounts.service.impl;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
 import com.eazybytes.accounts.dto.AccountsDTO;
 import com.eazybytes.accounts.dto.CardsDto;
+import com.eazybytes.accounts.dto.CustomerAccountDTO;
 import com.eazybytes.accounts.dto.CustomerDetailsDTO;
+import com.eazybytes.accounts.dto.CustomerDetailsResultDTO;
 import com.eazybytes.accounts.dto.LoansDto;
-import com.eazybytes.accounts.entity.Accounts;
-import com.eazybytes.accounts.entity.Customer;
 import com.eazybytes.accounts.exception.ResourceNotFoundException;
 import com.eazybytes.accounts.mapper.AccountsMapper;
 import com.eazybytes.accounts.mapper.CustomerMapper;
-import com.eazybytes.accounts.repository.AccountsRepository;
 import com.eazybytes.accounts.repository.CustomerRepository;
 import com.eazybytes.accounts.service.ICustomerService;
 import com.eazybytes.accounts.service.client.CardsFeignClient;
+import com.eazybytes.accounts.service.client.DownstreamNearCache;
 import com.eazybytes.accounts.service.client.LoansFeignClient;
 
 import lombok.AllArgsConstructor;
@@ -24,10 +39,16 @@ import lombok.AllArgsConstructor;
 @AllArgsConstructor
 public class CustomerServiceImpl implements ICustomerService {
 
-    private AccountsRepository accountsRepository;
+    private static final Logger log = LoggerFactory.getLogger(CustomerServiceImpl.class);
+
     private CustomerRepository customerRepository;
     private CardsFeignClient cardsFeignClient;
     private LoansFeignClient loansFeignClient;
+    private CustomerDetailsProperties customerDetailsProperties;
+    private Executor customerDetailsExecutor;
+    private DownstreamNearCache<LoansDto> loansNearCache;
+    private DownstreamNearCache<CardsDto> cardsNearCache;
+    private CustomerDetailsCoalescer customerDetailsCoalescer;
 
     /**
      * @param mobileNumber - Input Mobile Number
@@ -35,27 +56,142 @@ public class CustomerServiceImpl implements ICustomerService {
      */
     @Override
     public CustomerDetailsDTO fetchCustomerDetails(String correlationId, String mobileNumber) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
-        );
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-                () -> new ResourceNotFoundException("Account", "customerId", customer.getCustomerId().toString())
-        );
+        return customerDetailsCoalescer.execute(mobileNumber, () -> lookupCustomerDetails(correlationId, mobileNumber));
+    }
+
+    private CustomerDetailsDTO lookupCustomerDetails(String correlationId, String mobileNumber) {
+        if (!customerDetailsProperties.isParallelEnabled()) {
+            return fetchCustomerDetailsSequentially(correlationId, mobileNumber);
+        }
+        long deadline = System.nanoTime() + customerDetailsProperties.getTimeout().toNanos();
+
+        CompletableFuture<LoansDto> loansFuture = CompletableFuture.supplyAsync(
+                () -> fetchLoans(correlationId, mobileNumber), customerDetailsExecutor);
+        CompletableFuture<CardsDto> cardsFuture = CompletableFuture.supplyAsync(
+                () -> fetchCards(correlationId, mobileNumber), customerDetailsExecutor);
+
+        CustomerDetailsDTO customerDetailsDto;
+        try {
+            customerDetailsDto = fetchCustomerAndAccount(mobileNumber);
+        } catch (RuntimeException ex) {
+            loansFuture.cancel(true);
+            cardsFuture.cancel(true);
+            throw ex;
+        }
 
-        CustomerDetailsDTO customerDetailsDto = CustomerMapper.mapToCustomerDetailsDto(customer, new CustomerDetailsDTO());
-        customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDTO()));
+        customerDetailsDto.setLoansDto(await(loansFuture, deadline, "loans", "mobileNumber " + mobileNumber));
+        customerDetailsDto.setCardsDto(await(cardsFuture, deadline, "cards", "mobileNumber " + mobileNumber));
+        return customerDetailsDto;
+    }
+
+    /**
+     * @param mobileNumbers - Input Mobile Numbers
+     * @return Customer Details or the lookup error, keyed by mobileNumber in request order
+     */
+    @Override
+    public Map<String, CustomerDetailsResultDTO> fetchCustomerDetailsBatch(String correlationId, List<String> mobileNumbers) {
+        List<String> distinctMobileNumbers = mobileNumbers.stream().distinct().toList();
+        long deadline = System.nanoTime() + customerDetailsProperties.getTimeout().toNanos();
+
+        CompletableFuture<Map<String, LoansDto>> loansFuture = fanOut(
+                () -> bodyOf(loansFeignClient.fetchLoanDetailsBatch(correlationId, distinctMobileNumbers)));
+        CompletableFuture<Map<String, CardsDto>> cardsFuture = fanOut(
+                () -> bodyOf(cardsFeignClient.fetchCardDetailsBatch(correlationId, distinctMobileNumbers)));
+
+        Map<String, CustomerAccountDTO> customerAccounts = customerRepository
+                .findCustomerAccountsByMobileNumberIn(distinctMobileNumbers).stream()
+                .collect(Collectors.toMap(CustomerAccountDTO::mobileNumber, Function.identity(), (first, second) -> first));
+
+        Map<String, LoansDto> loans = await(loansFuture, deadline, "loans", distinctMobileNumbers.size() + " mobile numbers");
+        Map<String, CardsDto> cards = await(cardsFuture, deadline, "cards", distinctMobileNumbers.size() + " mobile numbers");
+
+        Map<String, CustomerDetailsResultDTO> results = new LinkedHashMap<>();
+        for (String mobileNumber : distinctMobileNumbers) {
+            CustomerAccountDTO customerAccount = customerAccounts.get(mobileNumber);
+            if (customerAccount == null) {
+                results.put(mobileNumber, CustomerDetailsResultDTO.failure(
+                        new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber).getMessage()));
+                continue;
+            }
+            if (!customerAccount.hasAccount()) {
+                results.put(mobileNumber, CustomerDetailsResultDTO.failure(
+                        new ResourceNotFoundException("Account", "customerId", customerAccount.customerId().toString()).getMessage()));
+                continue;
+            }
+            CustomerDetailsDTO customerDetailsDto = mapToCustomerDetailsDto(customerAccount);
+            customerDetailsDto.setLoansDto(loans != null ? loans.get(mobileNumber) : null);
+            customerDetailsDto.setCardsDto(cards != null ? cards.get(mobileNumber) : null);
+            results.put(mobileNumber, CustomerDetailsResultDTO.success(customerDetailsDto));
+        }
+        return results;
+    }
 
-        ResponseEntity<LoansDto> loansDtoResponseEntity = loansFeignClient.fetchLoanDetails(correlationId, mobileNumber);
-        if(loansDtoResponseEntity != null) {
-        customerDetailsDto.setLoansDto(loansDtoResponseEntity.getBody());
+    /**
+     * Runs a downstream call on the executor, or inline when the parallel fan-out is disabled. Either
+     * way a failure ends up in the future, so it only empties that section.
+     */
+    private <T> CompletableFuture<T> fanOut(Supplier<T> downstreamCall) {
+        if (customerDetailsProperties.isParallelEnabled()) {
+            return CompletableFuture.supplyAsync(downstreamCall, customerDetailsExecutor);
         }
+        try {
+            return CompletableFuture.completedFuture(downstreamCall.get());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private CustomerDetailsDTO fetchCustomerDetailsSequentially(String correlationId, String mobileNumber) {
+        CustomerDetailsDTO customerDetailsDto = fetchCustomerAndAccount(mobileNumber);
+        customerDetailsDto.setLoansDto(fetchLoans(correlationId, mobileNumber));
+        customerDetailsDto.setCardsDto(fetchCards(correlationId, mobileNumber));
+        return customerDetailsDto;
+    }
+
+    private LoansDto fetchLoans(String correlationId, String mobileNumber) {
+        return loansNearCache.get(mobileNumber, () -> bodyOf(loansFeignClient.fetchLoanDetails(correlationId, mobileNumber)));
+    }
+
+    private CardsDto fetchCards(String correlationId, String mobileNumber) {
+        return cardsNearCache.get(mobileNumber, () -> bodyOf(cardsFeignClient.fetchCardDetails(correlationId, mobileNumber)));
+    }
 
-        ResponseEntity<CardsDto> cardsDtoResponseEntity = cardsFeignClient.fetchCardDetails(correlationId, mobileNumber);
-        if(cardsDtoResponseEntity!=null) {
-        	 customerDetailsDto.setCardsDto(cardsDtoResponseEntity.getBody());
+    private CustomerDetailsDTO fetchCustomerAndAccount(String mobileNumber) {
+        CustomerAccountDTO customerAccount = customerRepository.findCustomerAccountByMobileNumber(mobileNumber).orElseThrow(
+                () -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
+        );
+        if (!customerAccount.hasAccount()) {
+            throw new ResourceNotFoundException("Account", "customerId", customerAccount.customerId().toString());
         }
-       
+        return mapToCustomerDetailsDto(customerAccount);
+    }
+
+    private static CustomerDetailsDTO mapToCustomerDetailsDto(CustomerAccountDTO customerAccount) {
+        CustomerDetailsDTO customerDetailsDto = CustomerMapper.mapToCustomerDetailsDto(customerAccount, new CustomerDetailsDTO());
+        customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerAccount, new AccountsDTO()));
         return customerDetailsDto;
+    }
+
+    /**
+     * Waits for a downstream section until the shared deadline. A timeout or failure is treated
+     * the same way as the Feign fallback, i.e. the section is left empty.
+     */
+    private <T> T await(CompletableFuture<T> future, long deadline, String section, String lookup) {
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            log.warn("Timed out waiting for {} details of {}", section, lookup);
+        } catch (ExecutionException ex) {
+            log.warn("Failed to fetch {} details of {}", section, lookup, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+        return null;
+    }
 
+    private static <T> T bodyOf(ResponseEntity<T> responseEntity) {
+        return responseEntity != null ? responseEntity.getBody() : null;
     }
-}
\ No newline at end of file
+}
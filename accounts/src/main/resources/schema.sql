@@ -9,9 +9,11 @@ CREATE TABLE IF NOT EXISTS `customer` (
     `updated_by` varchar(20) DEFAULT NULL
 );
 
+CREATE UNIQUE INDEX IF NOT EXISTS `uk_customer_mobile_number` ON `customer` (`mobile_number`);
+
 CREATE TABLE IF NOT EXISTS `accounts` (
   `customer_id` int NOT NULL,
-   `account_number` int AUTO_INCREMENT  PRIMARY KEY,
+   `account_number` bigint PRIMARY KEY,
   `account_type` varchar(100) NOT NULL,
   `branch_address` varchar(200) NOT NULL,
   `communication_sw` BOOLEAN,
@@ -19,4 +21,21 @@ CREATE TABLE IF NOT EXISTS `accounts` (
    `created_by` varchar(20) NOT NULL,
    `updated_at` date DEFAULT NULL,
     `updated_by` varchar(20) DEFAULT NULL
-);
\ No newline at end of file
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS `uk_accounts_customer_id` ON `accounts` (`customer_id`);
+
+CREATE SEQUENCE IF NOT EXISTS `account_number_seq` START WITH 1000000000 CACHE 100;
+
+CREATE TABLE IF NOT EXISTS `communication_outbox` (
+  `outbox_id` bigint AUTO_INCREMENT  PRIMARY KEY,
+  `account_number` bigint NOT NULL,
+  `name` varchar(100) NOT NULL,
+  `email` varchar(100) NOT NULL,
+  `mobile_number` varchar(20) NOT NULL,
+  `attempts` int NOT NULL DEFAULT 0,
+  `next_attempt_at` timestamp NOT NULL,
+  `created_at` timestamp NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS `ix_communication_outbox_next_attempt_at` ON `communication_outbox` (`next_attempt_at`);
@@ -0,0 +1,90 @@
+package com.eazybytes.accounts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Seeds the tables created by schema.sql and checks that the lookups behind findByMobileNumber and
+ * findByCustomerId are index seeks: the analyzed plan looks the value up in the index and reads a
+ * single row, so the lookups stay flat however large the tables grow, without timing anything.
+ */
+class SchemaScalingTests {
+
+	private static final int ROWS = 10_000;
+
+	private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new SingleConnectionDataSource("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", true);
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@AfterEach
+	void tearDown() {
+		dataSource.destroy();
+	}
+
+	@Test
+	void mobileNumberLookupsAreIndexSeeks() {
+		seed(1, ROWS);
+
+		assertIndexSeek("select customer_id from customer where mobile_number = '1000000001'", "uk_customer_mobile_number");
+	}
+
+	@Test
+	void accountLookupsByCustomerIdUseTheIndex() {
+		seed(1, ROWS);
+
+		assertIndexSeek("select account_number from accounts where customer_id = 1", "uk_accounts_customer_id");
+	}
+
+	@Test
+	void mobileNumberAndCustomerIdAreUnique() {
+		seed(1, 10);
+
+		assertThatThrownBy(() -> jdbcTemplate.update("insert into customer (name, email, mobile_number, created_at, created_by) "
+				+ "values ('Duplicate', 'dup@eazybank.com', '1000000001', current_date, 'TEST')"))
+				.isInstanceOf(DuplicateKeyException.class);
+		assertThatThrownBy(() -> jdbcTemplate.update("insert into accounts (customer_id, account_number, account_type, "
+				+ "branch_address, created_at, created_by) values (1, 999999, 'Savings', 'Main Street', current_date, 'TEST')"))
+				.isInstanceOf(DuplicateKeyException.class);
+	}
+
+	private void seed(int from, int to) {
+		jdbcTemplate.update("insert into customer (customer_id, name, email, mobile_number, created_at, created_by) "
+				+ "select x, 'Customer ' || x, 'customer' || x || '@eazybank.com', cast(1000000000 + x as varchar), "
+				+ "current_date, 'TEST' from system_range(?, ?)", from, to);
+		jdbcTemplate.update("insert into accounts (customer_id, account_number, account_type, branch_address, "
+				+ "created_at, created_by) select x, 1000000000 + x, 'Savings', 'Main Street', current_date, 'TEST' "
+				+ "from system_range(?, ?)", from, to);
+	}
+
+	/**
+	 * A scan names the index too, but without the looked up value and with a scan count of every row.
+	 */
+	private void assertIndexSeek(String sql, String index) {
+		String plan = jdbcTemplate.queryForObject("explain analyze " + sql, String.class);
+		assertThat(plan).containsIgnoringCase(index + ":");
+		Matcher scanCount = SCAN_COUNT.matcher(plan);
+		assertThat(scanCount.find()).as(plan).isTrue();
+		assertThat(Integer.parseInt(scanCount.group(1))).as(plan).isLessThanOrEqualTo(2);
+	}
+}
@@ -0,0 +1,91 @@
+package com.eazybytes.accounts.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.converter.MessageConversionException;
+
+import com.eazybytes.accounts.dto.AccountsMsgDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The message service keeps its own copy of the codec; the same golden payloads are pinned in its
+ * AccountsMsgCodecTests, so the two copies cannot drift apart on the wire.
+ */
+class AccountsMsgCodecTests {
+
+	private static final AccountsMsgDto REQUEST =
+			new AccountsMsgDto(1234567890L, "Eazy Bytes", "tutor@eazybytes.com", "9999999999");
+
+	private static final String REQUEST_HEX =
+			"0100d285d8cc040a45617a79204279746573137475746f724065617a7962797465732e636f6d0a39393939393939393939";
+
+	private static final AccountsMsgDto SPARSE_REQUEST = new AccountsMsgDto(1234567890L, null, null, "9999999999");
+
+	private static final String SPARSE_REQUEST_HEX = "0106d285d8cc040a39393939393939393939";
+
+	@Test
+	void encodesTheSharedWireFormat() {
+		assertThat(HexFormat.of().formatHex(AccountsMsgCodec.encode(REQUEST))).isEqualTo(REQUEST_HEX);
+		assertThat(HexFormat.of().formatHex(AccountsMsgCodec.encode(SPARSE_REQUEST))).isEqualTo(SPARSE_REQUEST_HEX);
+	}
+
+	@Test
+	void decodesTheSharedWireFormat() {
+		assertThat(AccountsMsgCodec.decode(HexFormat.of().parseHex(REQUEST_HEX))).isEqualTo(REQUEST);
+		assertThat(AccountsMsgCodec.decode(HexFormat.of().parseHex(SPARSE_REQUEST_HEX))).isEqualTo(SPARSE_REQUEST);
+	}
+
+	@Test
+	void ignoresTrailingBytesOfNewerWriters() {
+		byte[] payload = Arrays.copyOf(HexFormat.of().parseHex(REQUEST_HEX), REQUEST_HEX.length() / 2 + 3);
+
+		assertThat(AccountsMsgCodec.decode(payload)).isEqualTo(REQUEST);
+	}
+
+	@Test
+	void truncatedPayloadFailsConversion() {
+		byte[] payload = HexFormat.of().parseHex(REQUEST_HEX);
+		for (int length = 0; length < payload.length; length++) {
+			byte[] truncated = Arrays.copyOf(payload, length);
+			assertThatThrownBy(() -> AccountsMsgCodec.decode(truncated))
+					.as("payload truncated to %d bytes", length)
+					.isInstanceOf(MessageConversionException.class);
+		}
+	}
+
+	@Test
+	void oversizedOrNegativeLengthFailsConversion() {
+		// name length of 2^31 and of -1 as a 64-bit varint
+		byte[] oversized = HexFormat.of().parseHex("0106d285d8cc04808080800841");
+		byte[] negative = HexFormat.of().parseHex("0106d285d8cc04ffffffffffffffffff0141");
+
+		assertThatThrownBy(() -> AccountsMsgCodec.decode(oversized)).isInstanceOf(MessageConversionException.class);
+		assertThatThrownBy(() -> AccountsMsgCodec.decode(negative)).isInstanceOf(MessageConversionException.class);
+	}
+
+	@Test
+	void unsupportedVersionAndMalformedVarintFailConversion() {
+		assertThatThrownBy(() -> AccountsMsgCodec.decode(HexFormat.of().parseHex("0200")))
+				.isInstanceOf(MessageConversionException.class)
+				.hasMessageContaining("version");
+		assertThatThrownBy(() -> AccountsMsgCodec.decode(HexFormat.of().parseHex("0100ffffffffffffffffffff01")))
+				.isInstanceOf(MessageConversionException.class);
+	}
+
+	/**
+	 * The point of the binary codec is the payload size, which is asserted against the JSON encoding
+	 * it replaces. Its speed is left to a benchmark, not a unit test.
+	 */
+	@Test
+	void binaryEncodingIsSmallerThanJson() throws Exception {
+		byte[] json = new ObjectMapper().writeValueAsBytes(REQUEST);
+		byte[] binary = AccountsMsgCodec.encode(REQUEST);
+
+		assertThat(binary.length).isLessThan(json.length * 6 / 10);
+	}
+}
@@ -0,0 +1,95 @@
+package com.eazybytes.accounts.functions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+
+import com.eazybytes.accounts.audit.AuditAwareImpl;
+import com.eazybytes.accounts.entity.Accounts;
+import com.eazybytes.accounts.repository.AccountsRepository;
+import com.eazybytes.accounts.repository.CommunicationOutboxRepository;
+import com.eazybytes.accounts.repository.CustomerRepository;
+import com.eazybytes.accounts.service.IAccountsService;
+import com.eazybytes.accounts.service.impl.AccountsServiceImpl;
+
+/**
+ * Feeds the communication-sent batch consumer polls with repeated and unknown account numbers and
+ * checks the switches in the embedded database.
+ */
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AuditAwareImpl.class)
+class AccountsFunctionTests {
+
+	@Autowired
+	private AccountsRepository accountsRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CommunicationOutboxRepository communicationOutboxRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private IAccountsService accountsService;
+
+	private Consumer<List<Long>> updateCommunication;
+
+	@BeforeEach
+	void setUp() {
+		accountsService = spy(new AccountsServiceImpl(accountsRepository, customerRepository,
+				communicationOutboxRepository, new ConcurrentMapCacheManager()));
+		updateCommunication = new AccountsFunction().updateCommunication(accountsService);
+		for (long i = 1; i <= 3; i++) {
+			entityManager.persist(new Accounts(900L + i, 2000000000L + i, "Savings", "123 Main Street, New York", null));
+		}
+		entityManager.flush();
+	}
+
+	@Test
+	void pollIsAppliedWithOneBulkUpdateOfDistinctAccountNumbers() {
+		updateCommunication.accept(List.of(2000000001L, 2000000002L, 2000000001L, 2000000001L, 2000000002L));
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Long>> accountNumbers = ArgumentCaptor.forClass(List.class);
+		verify(accountsService).updateCommunicationStatus(accountNumbers.capture());
+		assertThat(accountNumbers.getValue()).containsExactly(2000000001L, 2000000002L);
+		entityManager.clear();
+		assertThat(communicationSw(2000000001L)).isTrue();
+		assertThat(communicationSw(2000000002L)).isTrue();
+		assertThat(communicationSw(2000000003L)).isNull();
+	}
+
+	@Test
+	void unknownAccountNumbersAreSkipped() {
+		int updated = accountsService.updateCommunicationStatus(List.of(2000000003L, 2999999999L));
+
+		assertThat(updated).isEqualTo(1);
+		entityManager.clear();
+		assertThat(communicationSw(2000000003L)).isTrue();
+	}
+
+	@Test
+	void emptyPollTouchesNothing() {
+		assertThat(accountsService.updateCommunicationStatus(List.of())).isZero();
+	}
+
+	private Boolean communicationSw(long accountNumber) {
+		return accountsRepository.findById(accountNumber).orElseThrow().getCommunicationSw();
+	}
+}
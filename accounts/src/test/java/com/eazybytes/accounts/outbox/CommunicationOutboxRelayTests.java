@@ -0,0 +1,148 @@
+package com.eazybytes.accounts.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.kafka.KafkaException;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eazybytes.accounts.config.CommunicationOutboxProperties;
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.entity.CommunicationOutbox;
+import com.eazybytes.accounts.repository.CommunicationOutboxRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Drives the relay against a stubbed broker: StreamBridge either acknowledges a send on the
+ * record-metadata channel, rejects it, or never acknowledges it.
+ */
+class CommunicationOutboxRelayTests {
+
+	private final CommunicationOutboxRepository outboxRepository = mock(CommunicationOutboxRepository.class);
+	private final StreamBridge streamBridge = mock(StreamBridge.class);
+	private final CommunicationOutboxProperties properties = new CommunicationOutboxProperties();
+	private final DirectChannel acks = new DirectChannel();
+	private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+	private final Set<String> unacknowledged = ConcurrentHashMap.newKeySet();
+	private final List<String> sentEventIds = new ArrayList<>();
+	private CommunicationOutboxRelay relay;
+
+	@BeforeEach
+	void setUp() {
+		properties.setSendTimeout(Duration.ofMillis(200));
+		relay = new CommunicationOutboxRelay(outboxRepository, streamBridge, properties, mock(TransactionTemplate.class),
+				new SimpleMeterRegistry(), acks);
+		when(streamBridge.send(eq("sendCommunication-out-0"), any())).thenAnswer(invocation -> {
+			Message<?> message = invocation.getArgument(1);
+			String eventId = message.getHeaders().get(AccountsConstants.EVENT_ID_HEADER, String.class);
+			sentEventIds.add(eventId);
+			if (rejected.contains(eventId)) {
+				throw new KafkaException("Topic send-communication not present in metadata after 5000 ms");
+			}
+			if (!unacknowledged.contains(eventId)) {
+				acks.send(message);
+			}
+			return true;
+		});
+	}
+
+	@Test
+	void acknowledgedRowsAreDeleted() {
+		List<CommunicationOutbox> due = due(1, 2, 3);
+
+		relay.relay();
+
+		assertThat(deleted()).containsExactlyElementsOf(due);
+		assertThat(due).allSatisfy(entry -> assertThat(entry.getAttempts()).isZero());
+	}
+
+	@Test
+	void batchStopsAtTheFirstRejectedSend() {
+		List<CommunicationOutbox> due = due(1, 2, 3);
+		rejected.add("2");
+
+		relay.relay();
+
+		assertThat(sentEventIds).containsExactly("1", "2");
+		assertThat(deleted()).containsExactly(due.get(0));
+		assertRescheduled(due.get(1));
+		assertThat(due.get(2).getAttempts()).isZero();
+	}
+
+	@Test
+	void unacknowledgedRowsAreRescheduledOnceTheSendTimeoutExpires() {
+		List<CommunicationOutbox> due = due(1, 2, 3);
+		unacknowledged.add("2");
+
+		long started = System.nanoTime();
+		relay.relay();
+
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+		assertThat(deleted()).containsExactly(due.get(0), due.get(2));
+		assertRescheduled(due.get(1));
+	}
+
+	@Test
+	void rescheduledRowIsRedeliveredWithTheSameEventId() {
+		List<CommunicationOutbox> due = due(1);
+		rejected.add("1");
+		relay.relay();
+		assertRescheduled(due.get(0));
+
+		rejected.clear();
+		when(outboxRepository.findByNextAttemptAtLessThanEqualOrderByOutboxId(any(), any())).thenReturn(due);
+		relay.relay();
+
+		assertThat(sentEventIds).containsExactly("1", "1");
+		ArgumentCaptor<List<CommunicationOutbox>> deleted = deletedCaptor(2);
+		assertThat(deleted.getAllValues().get(0)).isEmpty();
+		assertThat(deleted.getAllValues().get(1)).containsExactlyElementsOf(due);
+	}
+
+	private List<CommunicationOutbox> due(long... outboxIds) {
+		List<CommunicationOutbox> due = new ArrayList<>();
+		for (long outboxId : outboxIds) {
+			CommunicationOutbox entry = new CommunicationOutbox(1000000000L + outboxId, "Eazy Bytes",
+					"tutor@eazybytes.com", "9999999999");
+			entry.setOutboxId(outboxId);
+			due.add(entry);
+		}
+		when(outboxRepository.findByNextAttemptAtLessThanEqualOrderByOutboxId(any(), any())).thenReturn(due);
+		return due;
+	}
+
+	private List<CommunicationOutbox> deleted() {
+		return deletedCaptor(1).getValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private ArgumentCaptor<List<CommunicationOutbox>> deletedCaptor(int polls) {
+		ArgumentCaptor<List<CommunicationOutbox>> deleted = ArgumentCaptor.forClass(List.class);
+		verify(outboxRepository, times(polls)).deleteAllInBatch(deleted.capture());
+		return deleted;
+	}
+
+	private static void assertRescheduled(CommunicationOutbox entry) {
+		assertThat(entry.getAttempts()).isEqualTo(1);
+		assertThat(entry.getNextAttemptAt()).isAfter(LocalDateTime.now());
+	}
+}
@@ -0,0 +1,91 @@
+package com.eazybytes.accounts.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eazybytes.accounts.audit.AuditAwareImpl;
+import com.eazybytes.accounts.entity.Accounts;
+
+/**
+ * Draws account numbers through a single-connection pool from concurrent transactions that also
+ * insert accounts: every number is unique and no draw needs a second connection.
+ */
+@DataJpaTest(properties = { "spring.cloud.config.enabled=false", "spring.datasource.hikari.maximum-pool-size=1",
+		"spring.datasource.hikari.connection-timeout=2000" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AuditAwareImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountNumberSequenceTests {
+
+	private static final int THREADS = 8;
+	private static final int ACCOUNTS_PER_THREAD = 50;
+
+	@Autowired
+	private AccountsRepository accountsRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void numbersAreDrawnInOrderFromTheSequence() {
+		List<Long> accountNumbers = accountsRepository.nextAccountNumbers(5);
+
+		assertThat(accountNumbers).hasSize(5).doesNotHaveDuplicates().isSorted();
+		assertThat(accountNumbers.get(0)).isGreaterThanOrEqualTo(1000000000L);
+	}
+
+	@Test
+	void concurrentCreatesGetDistinctNumbersWithoutASecondConnection() throws Exception {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<List<Long>>> workers = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			long customerIdBase = 1_000_000L * (thread + 1);
+			Callable<List<Long>> worker = () -> {
+				List<Long> drawn = new ArrayList<>();
+				for (int i = 0; i < ACCOUNTS_PER_THREAD; i++) {
+					long customerId = customerIdBase + i;
+					drawn.add(transactionTemplate.execute(status -> {
+						Accounts account = new Accounts();
+						account.setCustomerId(customerId);
+						account.setAccountNumber(accountsRepository.nextAccountNumbers(1).get(0));
+						account.setAccountType("Savings");
+						account.setBranchAddress("123 Main Street, New York");
+						return accountsRepository.save(account).getAccountNumber();
+					}));
+				}
+				return drawn;
+			};
+			workers.add(executor.submit(worker));
+		}
+		Set<Long> accountNumbers = new HashSet<>();
+		try {
+			for (Future<List<Long>> worker : workers) {
+				accountNumbers.addAll(worker.get(30, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(accountNumbers).hasSize(THREADS * ACCOUNTS_PER_THREAD);
+	}
+}
@@ -0,0 +1,167 @@
+package com.eazybytes.accounts.service.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
+
+/**
+ * Drives the cache with a ticker and a refresh executor controlled by the test, in front of a
+ * downstream that answers with the number of calls it has taken, or null while it falls back.
+ */
+class DownstreamNearCacheTests {
+
+	private static final String MOBILE_NUMBER = "4354437687";
+
+	private final CustomerDetailsProperties.NearCache properties = new CustomerDetailsProperties.NearCache();
+	private final AtomicLong nanos = new AtomicLong();
+	private final List<Runnable> refreshes = new ArrayList<>();
+	private final AtomicInteger calls = new AtomicInteger();
+	private boolean fallingBack;
+
+	DownstreamNearCacheTests() {
+		properties.setEnabled(true);
+		properties.setTtl(Duration.ofSeconds(30));
+		properties.setStaleTtl(Duration.ofMinutes(5));
+	}
+
+	@Test
+	void responseIsServedFromMemoryWithinTheTtl() {
+		DownstreamNearCache<String> cache = cache(refreshes::add);
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-1");
+		advance(Duration.ofSeconds(29));
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-1");
+		assertThat(calls).hasValue(1);
+		assertThat(refreshes).isEmpty();
+	}
+
+	@Test
+	void staleResponseIsServedWhileItIsRefreshedInTheBackground() {
+		DownstreamNearCache<String> cache = cache(refreshes::add);
+		cache.get(MOBILE_NUMBER, this::downstream);
+		advance(Duration.ofSeconds(30));
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-1");
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-1");
+		// one refresh per key, however many requests see the stale response
+		assertThat(refreshes).hasSize(1);
+		assertThat(calls).hasValue(1);
+
+		refreshes.remove(0).run();
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-2");
+		assertThat(calls).hasValue(2);
+	}
+
+	@Test
+	void staleResponseIsRefreshedInlineWithoutStaleWhileRevalidate() {
+		properties.setStaleWhileRevalidate(false);
+		DownstreamNearCache<String> cache = cache(refreshes::add);
+		cache.get(MOBILE_NUMBER, this::downstream);
+		advance(Duration.ofSeconds(30));
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-2");
+		assertThat(refreshes).isEmpty();
+	}
+
+	@Test
+	void responseIsDroppedOnceTheStaleWindowIsOver() {
+		DownstreamNearCache<String> cache = cache(refreshes::add);
+		cache.get(MOBILE_NUMBER, this::downstream);
+		advance(Duration.ofSeconds(30).plus(Duration.ofMinutes(5)));
+		fallingBack = true;
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isNull();
+		assertThat(refreshes).isEmpty();
+	}
+
+	@Test
+	void staleResponseReplacesTheFallback() {
+		properties.setStaleWhileRevalidate(false);
+		DownstreamNearCache<String> cache = cache(refreshes::add);
+		cache.get(MOBILE_NUMBER, this::downstream);
+		advance(Duration.ofMinutes(1));
+		fallingBack = true;
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-1");
+		assertThat(calls).hasValue(2);
+	}
+
+	@Test
+	void fallbackDuringABackgroundRefreshKeepsTheStaleResponse() {
+		DownstreamNearCache<String> cache = cache(refreshes::add);
+		cache.get(MOBILE_NUMBER, this::downstream);
+		advance(Duration.ofMinutes(1));
+		cache.get(MOBILE_NUMBER, this::downstream);
+		fallingBack = true;
+
+		refreshes.remove(0).run();
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-1");
+		assertThat(refreshes).hasSize(1);
+	}
+
+	@Test
+	void fallbackIsNotCached() {
+		DownstreamNearCache<String> cache = cache(refreshes::add);
+		fallingBack = true;
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isNull();
+		fallingBack = false;
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-2");
+	}
+
+	@Test
+	void rejectedRefreshIsDroppedAndTriedAgainLater() {
+		AtomicInteger rejections = new AtomicInteger();
+		DownstreamNearCache<String> cache = cache(task -> {
+			if (rejections.getAndIncrement() == 0) {
+				throw new RejectedExecutionException("pool busy");
+			}
+			refreshes.add(task);
+		});
+		cache.get(MOBILE_NUMBER, this::downstream);
+		advance(Duration.ofMinutes(1));
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-1");
+		assertThat(calls).hasValue(1);
+
+		assertThat(cache.get(MOBILE_NUMBER, this::downstream)).isEqualTo("response-1");
+		assertThat(refreshes).hasSize(1);
+	}
+
+	@Test
+	void disabledCacheCallsDownstreamEveryTime() {
+		properties.setEnabled(false);
+		DownstreamNearCache<String> cache = cache(refreshes::add);
+
+		cache.get(MOBILE_NUMBER, this::downstream);
+		cache.get(MOBILE_NUMBER, this::downstream);
+
+		assertThat(calls).hasValue(2);
+	}
+
+	private String downstream() {
+		int call = calls.incrementAndGet();
+		return fallingBack ? null : "response-" + call;
+	}
+
+	private void advance(Duration duration) {
+		nanos.addAndGet(duration.toNanos());
+	}
+
+	private DownstreamNearCache<String> cache(Executor refreshExecutor) {
+		return new DownstreamNearCache<>("loans", properties, refreshExecutor, nanos::get);
+	}
+}
@@ -0,0 +1,225 @@
+package com.eazybytes.accounts.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eazybytes.accounts.audit.AuditAwareImpl;
+import com.eazybytes.accounts.dto.AccountOnboardingResultDTO;
+import com.eazybytes.accounts.dto.AccountOnboardingResultDTO.Status;
+import com.eazybytes.accounts.dto.AccountsDTO;
+import com.eazybytes.accounts.dto.CustomerDTO;
+import com.eazybytes.accounts.exception.CustomerAlreadyExistsException;
+import com.eazybytes.accounts.repository.AccountsRepository;
+import com.eazybytes.accounts.repository.CustomerRepository;
+import com.eazybytes.accounts.service.IAccountsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+
+/**
+ * Onboards JSON and NDJSON bodies, read the way the create-batch endpoint reads them, into the
+ * embedded database. Rows are committed, so every test uses its own mobile numbers.
+ */
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AuditAwareImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountsOnboardingServiceImplTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final IAccountsService accountsService = mock(IAccountsService.class);
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private AccountsRepository accountsRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private AccountsOnboardingServiceImpl onboardingService;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = spy(new JdbcTemplate(dataSource));
+		onboardingService = new AccountsOnboardingServiceImpl(customerRepository, accountsRepository, accountsService,
+				jdbcTemplate, new NamedParameterJdbcTemplate(dataSource), new TransactionTemplate(transactionManager),
+				new AuditAwareImpl(), Validation.buildDefaultValidatorFactory().getValidator());
+	}
+
+	@Test
+	void everyRowGetsAnAccountAndAnOutboxEntry() throws IOException {
+		List<AccountOnboardingResultDTO> results = onboard("""
+				[%s, %s]""".formatted(customer("1100000001"), customer("1100000002")));
+
+		assertThat(results).extracting(AccountOnboardingResultDTO::getRowNumber, AccountOnboardingResultDTO::getMobileNumber,
+				AccountOnboardingResultDTO::getStatus)
+				.containsExactly(tuple(1, "1100000001", Status.CREATED), tuple(2, "1100000002", Status.CREATED));
+		assertThat(results).allSatisfy(result -> {
+			assertThat(accountNumberOf(result.getMobileNumber())).isEqualTo(result.getAccountNumber());
+			assertThat(outboxEntriesOf(result.getMobileNumber())).isEqualTo(1);
+		});
+	}
+
+	@Test
+	void invalidRowsAreReportedAndTheRestCreated() throws IOException {
+		List<AccountOnboardingResultDTO> results = onboard("""
+				{"name":"Eazy","email":"not-an-email","mobileNumber":"1200000001"}
+				%s
+				{"name":"Eazy Bytes","email":"tutor@eazybytes.com","mobileNumber":"12345"}
+				""".formatted(customer("1200000002")));
+
+		assertThat(results).extracting(AccountOnboardingResultDTO::getRowNumber, AccountOnboardingResultDTO::getStatus)
+				.containsExactly(tuple(1, Status.INVALID), tuple(2, Status.CREATED), tuple(3, Status.INVALID));
+		assertThat(results.get(0).getErrorMessage())
+				.isEqualTo("email: Email address should be a valid value, "
+						+ "name: The length of the customer name should be between 5 and 30");
+		assertThat(results.get(2).getErrorMessage()).isEqualTo("mobileNumber: Mobile number must be 10 digits");
+		assertThat(accountNumberOf("1200000001")).isNull();
+	}
+
+	@Test
+	void malformedJsonStopsReadingButKeepsTheRowsBeforeIt() throws IOException {
+		List<AccountOnboardingResultDTO> results = onboard("""
+				%s
+				{"name":"Eazy Bytes","email":
+				%s
+				""".formatted(customer("1300000001"), customer("1300000002")));
+
+		assertThat(results).extracting(AccountOnboardingResultDTO::getRowNumber, AccountOnboardingResultDTO::getStatus)
+				.containsExactly(tuple(1, Status.CREATED), tuple(2, Status.INVALID));
+		assertThat(results.get(1).getErrorMessage()).startsWith("Malformed input, the remaining rows were not read");
+		assertThat(accountNumberOf("1300000001")).isNotNull();
+		assertThat(accountNumberOf("1300000002")).isNull();
+	}
+
+	@Test
+	void rowOfTheWrongShapeIsMalformedInput() throws IOException {
+		List<AccountOnboardingResultDTO> results = onboard("""
+				[%s, {"name":["Eazy","Bytes"]}]""".formatted(customer("1400000001")));
+
+		assertThat(results).extracting(AccountOnboardingResultDTO::getRowNumber, AccountOnboardingResultDTO::getStatus)
+				.containsExactly(tuple(1, Status.CREATED), tuple(2, Status.INVALID));
+	}
+
+	@Test
+	void mobileNumberRepeatedInTheFileIsCreatedOnce() throws IOException {
+		List<AccountOnboardingResultDTO> results = onboard("""
+				[%s, %s, %s]""".formatted(customer("1500000001"), customer("1500000002"), customer("1500000001")));
+
+		assertThat(results).extracting(AccountOnboardingResultDTO::getRowNumber, AccountOnboardingResultDTO::getStatus)
+				.containsExactly(tuple(1, Status.CREATED), tuple(2, Status.CREATED), tuple(3, Status.DUPLICATE));
+		assertThat(results.get(2).getErrorMessage()).isEqualTo("Mobile Number appears more than once in the request");
+	}
+
+	@Test
+	void mobileNumberAlreadyRegisteredIsRejected() throws IOException {
+		onboard("[%s]".formatted(customer("1600000001")));
+
+		List<AccountOnboardingResultDTO> results = onboard("""
+				[%s, %s]""".formatted(customer("1600000001"), customer("1600000002")));
+
+		assertThat(results).extracting(AccountOnboardingResultDTO::getRowNumber, AccountOnboardingResultDTO::getStatus)
+				.containsExactly(tuple(1, Status.DUPLICATE), tuple(2, Status.CREATED));
+		assertThat(results.get(0).getErrorMessage())
+				.isEqualTo("Customer already registered with given Mobile Number ::1600000001");
+		assertThat(outboxEntriesOf("1600000001")).isEqualTo(1);
+	}
+
+	@Test
+	void failedChunkBatchFallsBackToRowByRow() throws IOException {
+		doThrow(new DuplicateKeyException("uk_customer_mobile_number")).when(jdbcTemplate)
+				.batchUpdate(startsWith("insert into customer"), anyList());
+		doAnswer(invocation -> {
+			throw new CustomerAlreadyExistsException("Customer already registered with given mobileNumber 1700000002");
+		}).when(accountsService).createAccount(argThat(customer -> "1700000002".equals(customer.getMobileNumber())));
+		doThrow(new IllegalStateException("Connection is closed")).when(accountsService)
+				.createAccount(argThat(customer -> "1700000003".equals(customer.getMobileNumber())));
+		when(accountsService.fetchAccount(eq("1700000001"))).thenReturn(withAccount(1000000042L));
+
+		List<AccountOnboardingResultDTO> results = onboard("""
+				[%s, %s, %s]""".formatted(customer("1700000001"), customer("1700000002"), customer("1700000003")));
+
+		assertThat(results).extracting(AccountOnboardingResultDTO::getRowNumber, AccountOnboardingResultDTO::getStatus,
+				AccountOnboardingResultDTO::getAccountNumber, AccountOnboardingResultDTO::getErrorMessage)
+				.containsExactly(tuple(1, Status.CREATED, 1000000042L, null),
+						tuple(2, Status.DUPLICATE, null, "Customer already registered with given mobileNumber 1700000002"),
+						tuple(3, Status.FAILED, null, "Connection is closed"));
+		// the chunk's transaction was rolled back before the rows were retried
+		assertThat(outboxEntriesOf("1700000001")).isZero();
+		verify(jdbcTemplate, never()).batchUpdate(startsWith("insert into accounts"), anyList());
+	}
+
+	@Test
+	void emptyBodyReportsNothing() throws IOException {
+		assertThat(onboard("[]")).isEmpty();
+		verify(accountsService, never()).createAccount(any());
+	}
+
+	private List<AccountOnboardingResultDTO> onboard(String body) throws IOException {
+		Iterator<CustomerDTO> customers = objectMapper.readerFor(CustomerDTO.class).readValues(body);
+		return onboardingService.createAccounts(customers);
+	}
+
+	private Long accountNumberOf(String mobileNumber) {
+		return jdbcTemplate.query("select a.account_number from accounts a join customer c on c.customer_id = a.customer_id "
+				+ "where c.mobile_number = ?", rs -> rs.next() ? rs.getLong(1) : null, mobileNumber);
+	}
+
+	private int outboxEntriesOf(String mobileNumber) {
+		return jdbcTemplate.queryForObject("select count(*) from communication_outbox where mobile_number = ?",
+				Integer.class, mobileNumber);
+	}
+
+	private static CustomerDTO withAccount(long accountNumber) {
+		AccountsDTO accountsDTO = new AccountsDTO();
+		accountsDTO.setAccountNumber(accountNumber);
+		CustomerDTO customerDTO = new CustomerDTO();
+		customerDTO.setAccountsDTO(accountsDTO);
+		return customerDTO;
+	}
+
+	private static String customer(String mobileNumber) {
+		return """
+				{"name":"Eazy Bytes","email":"tutor@eazybytes.com","mobileNumber":"%s"}""".formatted(mobileNumber);
+	}
+}
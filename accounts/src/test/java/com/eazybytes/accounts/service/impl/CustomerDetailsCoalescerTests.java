@@ -0,0 +1,153 @@
+package com.eazybytes.accounts.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
+import com.eazybytes.accounts.dto.CustomerDetailsDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CustomerDetailsCoalescerTests {
+
+	private static final int CALLERS = 8;
+
+	private final CustomerDetailsProperties properties = new CustomerDetailsProperties();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CustomerDetailsCoalescer coalescer = new CustomerDetailsCoalescer(properties, meterRegistry);
+	private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentCallersShareOneLookup() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger lookups = new AtomicInteger();
+		CustomerDetailsDTO customerDetails = new CustomerDetailsDTO();
+
+		List<Future<CustomerDetailsDTO>> callers = startCallers(() -> {
+			lookups.incrementAndGet();
+			await(release);
+			return customerDetails;
+		});
+		awaitCoalesced(CALLERS - 1);
+		release.countDown();
+
+		for (Future<CustomerDetailsDTO> caller : callers) {
+			assertThat(caller.get(5, TimeUnit.SECONDS)).isSameAs(customerDetails);
+		}
+		assertThat(lookups).hasValue(1);
+		assertThat(count("executed")).isEqualTo(1);
+		assertThat(count("coalesced")).isEqualTo(CALLERS - 1);
+		assertThat(inFlight()).isZero();
+	}
+
+	@Test
+	void anErrorFromTheLeaderReachesEveryWaiter() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<CustomerDetailsDTO>> callers = startCallers(() -> {
+			await(release);
+			throw new StackOverflowError("lookup failed");
+		});
+		awaitCoalesced(CALLERS - 1);
+		release.countDown();
+
+		for (Future<CustomerDetailsDTO> caller : callers) {
+			assertThatThrownBy(() -> caller.get(5, TimeUnit.SECONDS))
+					.isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(StackOverflowError.class);
+		}
+		assertThat(inFlight()).isZero();
+		assertThat(coalescer.execute("9999999999", CustomerDetailsDTO::new)).isNotNull();
+	}
+
+	@Test
+	void waitersRunTheirOwnLookupWhenTheLeaderHangs() throws Exception {
+		properties.setCoalescingTimeout(Duration.ofMillis(100));
+		CountDownLatch leaderStarted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<CustomerDetailsDTO> leader = executor.submit(() -> coalescer.execute("9999999999", () -> {
+			leaderStarted.countDown();
+			await(release);
+			return new CustomerDetailsDTO();
+		}));
+		assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+		CustomerDetailsDTO ownResult = new CustomerDetailsDTO();
+
+		long started = System.nanoTime();
+		assertThat(coalescer.execute("9999999999", () -> ownResult)).isSameAs(ownResult);
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isNotNull();
+		assertThat(inFlight()).isZero();
+	}
+
+	@Test
+	void disabledCoalescingRunsEveryLookup() {
+		properties.setCoalescingEnabled(false);
+		AtomicInteger lookups = new AtomicInteger();
+
+		coalescer.execute("9999999999", () -> {
+			lookups.incrementAndGet();
+			return new CustomerDetailsDTO();
+		});
+		coalescer.execute("9999999999", () -> {
+			lookups.incrementAndGet();
+			return new CustomerDetailsDTO();
+		});
+
+		assertThat(lookups).hasValue(2);
+		assertThat(count("executed")).isZero();
+	}
+
+	private List<Future<CustomerDetailsDTO>> startCallers(Supplier<CustomerDetailsDTO> lookup) {
+		List<Future<CustomerDetailsDTO>> callers = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			callers.add(executor.submit(() -> coalescer.execute("9999999999", lookup)));
+		}
+		return callers;
+	}
+
+	private void awaitCoalesced(int expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (count("coalesced") < expected && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(count("coalesced")).isEqualTo(expected);
+	}
+
+	private double count(String outcome) {
+		return meterRegistry.get("customer.details.lookups").tag("outcome", outcome).counter().count();
+	}
+
+	private double inFlight() {
+		return meterRegistry.get("customer.details.lookups.inflight").gauge().value();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
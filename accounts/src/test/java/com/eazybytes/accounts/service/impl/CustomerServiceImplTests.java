@@ -0,0 +1,240 @@
+package com.eazybytes.accounts.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
+import com.eazybytes.accounts.dto.CardsDto;
+import com.eazybytes.accounts.dto.CustomerAccountDTO;
+import com.eazybytes.accounts.dto.CustomerDetailsDTO;
+import com.eazybytes.accounts.dto.CustomerDetailsResultDTO;
+import com.eazybytes.accounts.dto.LoansDto;
+import com.eazybytes.accounts.repository.CustomerRepository;
+import com.eazybytes.accounts.service.client.CardsFeignClient;
+import com.eazybytes.accounts.service.client.DownstreamNearCache;
+import com.eazybytes.accounts.service.client.LoansFeignClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the customer details aggregation against stubbed repository and Feign clients. Stubs that
+ * need to overlap or stall wait on latches, so no test depends on sleeps or wall-clock timing.
+ */
+class CustomerServiceImplTests {
+
+	private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+	private final LoansFeignClient loansFeignClient = mock(LoansFeignClient.class);
+	private final CardsFeignClient cardsFeignClient = mock(CardsFeignClient.class);
+	private final CustomerDetailsProperties properties = new CustomerDetailsProperties();
+	/** Released in tearDown, so stalled stubs never outlive their test. */
+	private final CountDownLatch stalled = new CountDownLatch(1);
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		properties.setCoalescingEnabled(false);
+		when(customerRepository.findCustomerAccountByMobileNumber(anyString()))
+				.thenAnswer(invocation -> Optional.of(customerAccount(invocation.getArgument(0))));
+		when(loansFeignClient.fetchLoanDetails(any(), anyString())).thenAnswer(invocation -> {
+			LoansDto loansDto = new LoansDto();
+			loansDto.setMobileNumber(invocation.getArgument(1));
+			return ResponseEntity.ok(loansDto);
+		});
+		when(cardsFeignClient.fetchCardDetails(any(), anyString())).thenAnswer(invocation -> {
+			CardsDto cardsDto = new CardsDto();
+			cardsDto.setMobileNumber(invocation.getArgument(1));
+			return ResponseEntity.ok(cardsDto);
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		stalled.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void parallelFanOutOverlapsTheDownstreamCalls() {
+		properties.setParallelEnabled(true);
+		// each call waits until the other two have started, which only happens if all three overlap
+		CountDownLatch started = new CountDownLatch(3);
+		Set<Boolean> overlapped = ConcurrentHashMap.newKeySet();
+		when(customerRepository.findCustomerAccountByMobileNumber(anyString())).thenAnswer(invocation -> {
+			overlapped.add(arrive(started));
+			return Optional.of(customerAccount(invocation.getArgument(0)));
+		});
+		when(loansFeignClient.fetchLoanDetails(any(), anyString())).thenAnswer(invocation -> {
+			overlapped.add(arrive(started));
+			return ResponseEntity.ok(new LoansDto());
+		});
+		when(cardsFeignClient.fetchCardDetails(any(), anyString())).thenAnswer(invocation -> {
+			overlapped.add(arrive(started));
+			return ResponseEntity.ok(new CardsDto());
+		});
+
+		CustomerDetailsDTO customerDetails = customerService().fetchCustomerDetails("corr", "9999999999");
+
+		assertThat(overlapped).containsExactly(true);
+		assertThat(customerDetails.getLoansDto()).isNotNull();
+		assertThat(customerDetails.getCardsDto()).isNotNull();
+	}
+
+	@Test
+	void sequentialPathMakesEveryCallOnTheCallingThread() {
+		properties.setParallelEnabled(false);
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		when(loansFeignClient.fetchLoanDetails(any(), anyString())).thenAnswer(invocation -> {
+			threads.add(Thread.currentThread());
+			return ResponseEntity.ok(new LoansDto());
+		});
+		when(cardsFeignClient.fetchCardDetails(any(), anyString())).thenAnswer(invocation -> {
+			threads.add(Thread.currentThread());
+			return ResponseEntity.ok(new CardsDto());
+		});
+
+		CustomerDetailsDTO customerDetails = customerService().fetchCustomerDetails("corr", "9999999999");
+
+		assertThat(threads).containsExactly(Thread.currentThread());
+		assertThat(customerDetails.getLoansDto()).isNotNull();
+		assertThat(customerDetails.getCardsDto()).isNotNull();
+	}
+
+	@Test
+	void sectionsStillPendingAtTheDeadlineAreLeftEmpty() {
+		properties.setTimeout(Duration.ofMillis(150));
+		when(loansFeignClient.fetchLoanDetails(any(), anyString())).thenAnswer(invocation -> {
+			stalled.await();
+			return ResponseEntity.ok(new LoansDto());
+		});
+
+		CustomerDetailsDTO customerDetails = customerService().fetchCustomerDetails("corr", "9999999999");
+
+		assertThat(customerDetails.getAccountsDto()).isNotNull();
+		assertThat(customerDetails.getCardsDto()).isNotNull();
+		assertThat(customerDetails.getLoansDto()).isNull();
+	}
+
+	@Test
+	void feignFallbackLeavesTheSectionEmpty() {
+		when(loansFeignClient.fetchLoanDetails(any(), anyString())).thenReturn(null);
+
+		CustomerDetailsDTO customerDetails = customerService().fetchCustomerDetails("corr", "9999999999");
+
+		assertThat(customerDetails.getLoansDto()).isNull();
+		assertThat(customerDetails.getCardsDto()).isNotNull();
+	}
+
+	@Test
+	void batchLookupResolvesAllMobileNumbersWithOneQueryAndOneCallPerService() {
+		when(customerRepository.findCustomerAccountsByMobileNumberIn(anyList())).thenReturn(List.of(
+				customerAccount("1111111111"),
+				new CustomerAccountDTO(2L, "No Account", "none@eazybank.com", "2222222222", null, null, null)));
+		LoansDto loansDto = new LoansDto();
+		when(loansFeignClient.fetchLoanDetailsBatch(any(), anyList()))
+				.thenReturn(ResponseEntity.ok(Map.of("1111111111", loansDto)));
+		when(cardsFeignClient.fetchCardDetailsBatch(any(), anyList())).thenReturn(null);
+
+		Map<String, CustomerDetailsResultDTO> results = customerService().fetchCustomerDetailsBatch("corr",
+				List.of("1111111111", "2222222222", "3333333333", "1111111111"));
+
+		assertThat(results).containsOnlyKeys("1111111111", "2222222222", "3333333333");
+		assertThat(results.get("1111111111").getCustomerDetails().getLoansDto()).isSameAs(loansDto);
+		assertThat(results.get("1111111111").getCustomerDetails().getCardsDto()).isNull();
+		assertThat(results.get("2222222222").getErrorMessage()).contains("Account");
+		assertThat(results.get("3333333333").getErrorMessage()).contains("Customer");
+		verify(customerRepository, times(1)).findCustomerAccountsByMobileNumberIn(
+				List.of("1111111111", "2222222222", "3333333333"));
+		verify(loansFeignClient, times(1)).fetchLoanDetailsBatch(any(), anyList());
+		verify(cardsFeignClient, times(1)).fetchCardDetailsBatch(any(), anyList());
+		verify(loansFeignClient, never()).fetchLoanDetails(any(), anyString());
+	}
+
+	@Test
+	void batchLookupNeedsOneRoundTripPerDependencyInsteadOfOnePerCustomer() {
+		List<String> mobileNumbers = IntStream.range(0, 20).mapToObj(i -> String.valueOf(1000000000L + i)).toList();
+		when(customerRepository.findCustomerAccountsByMobileNumberIn(anyList()))
+				.thenReturn(mobileNumbers.stream().map(CustomerServiceImplTests::customerAccount).toList());
+		when(loansFeignClient.fetchLoanDetailsBatch(any(), anyList())).thenReturn(ResponseEntity.ok(
+				mobileNumbers.stream().collect(Collectors.toMap(Function.identity(), m -> new LoansDto()))));
+		when(cardsFeignClient.fetchCardDetailsBatch(any(), anyList())).thenReturn(ResponseEntity.ok(
+				mobileNumbers.stream().collect(Collectors.toMap(Function.identity(), m -> new CardsDto()))));
+		CustomerServiceImpl customerService = customerService();
+
+		mobileNumbers.forEach(mobileNumber -> customerService.fetchCustomerDetails("corr", mobileNumber));
+		Map<String, CustomerDetailsResultDTO> results = customerService.fetchCustomerDetailsBatch("corr", mobileNumbers);
+
+		assertThat(results.values()).allSatisfy(result -> assertThat(result.getCustomerDetails()).isNotNull());
+		verify(customerRepository, times(20)).findCustomerAccountByMobileNumber(anyString());
+		verify(loansFeignClient, times(20)).fetchLoanDetails(any(), anyString());
+		verify(cardsFeignClient, times(20)).fetchCardDetails(any(), anyString());
+		verify(customerRepository, times(1)).findCustomerAccountsByMobileNumberIn(anyList());
+		verify(loansFeignClient, times(1)).fetchLoanDetailsBatch(any(), anyList());
+		verify(cardsFeignClient, times(1)).fetchCardDetailsBatch(any(), anyList());
+	}
+
+	@Test
+	void failedBatchCallOnlyEmptiesItsSectionWhenRunInline() {
+		properties.setParallelEnabled(false);
+		when(customerRepository.findCustomerAccountsByMobileNumberIn(anyList()))
+				.thenReturn(List.of(customerAccount("1111111111")));
+		when(loansFeignClient.fetchLoanDetailsBatch(any(), anyList())).thenThrow(new IllegalStateException("loans down"));
+		CardsDto cardsDto = new CardsDto();
+		when(cardsFeignClient.fetchCardDetailsBatch(any(), anyList()))
+				.thenReturn(ResponseEntity.ok(Map.of("1111111111", cardsDto)));
+
+		Map<String, CustomerDetailsResultDTO> results = customerService().fetchCustomerDetailsBatch("corr",
+				List.of("1111111111"));
+
+		CustomerDetailsDTO customerDetails = results.get("1111111111").getCustomerDetails();
+		assertThat(customerDetails.getAccountsDto()).isNotNull();
+		assertThat(customerDetails.getLoansDto()).isNull();
+		assertThat(customerDetails.getCardsDto()).isSameAs(cardsDto);
+	}
+
+	private CustomerServiceImpl customerService() {
+		return new CustomerServiceImpl(customerRepository, cardsFeignClient, loansFeignClient, properties, executor,
+				new DownstreamNearCache<>("loans", properties.getNearCache(), executor),
+				new DownstreamNearCache<>("cards", properties.getNearCache(), executor),
+				new CustomerDetailsCoalescer(properties, new SimpleMeterRegistry()));
+	}
+
+	private static CustomerAccountDTO customerAccount(String mobileNumber) {
+		return new CustomerAccountDTO(1L, "Eazy Bytes", "tutor@eazybytes.com", mobileNumber, 1000000001L, "Savings",
+				"123 Main Street, New York");
+	}
+
+	/**
+	 * @return whether the other callers arrived too before the wait gave up
+	 */
+	private static boolean arrive(CountDownLatch started) throws InterruptedException {
+		started.countDown();
+		return started.await(5, TimeUnit.SECONDS);
+	}
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(indexes = {
+		@Index(name = "uk_cards_mobile_number", columnList = "mobile_number", unique = true),
+		@Index(name = "uk_cards_card_number", columnList = "card_number", unique = true) })
 @Getter
 @Setter
 @ToString
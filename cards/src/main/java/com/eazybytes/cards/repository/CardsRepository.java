@@ -2,8 +2,11 @@ package com.eazybytes.cards.repository;
 
 import com.eazybytes.cards.entity.Cards;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +16,13 @@ public interface CardsRepository extends JpaRepository<Cards, Long> {
 
     Optional<Cards> findByCardNumber(String cardNumber);
 
+    List<Cards> findByMobileNumberIn(Collection<String> mobileNumbers);
+
+    /**
+     * @return the next card number; the sequence is not transactional, so this neither locks nor
+     * needs a connection of its own
+     */
+    @Query(value = "select next value for card_number_seq", nativeQuery = true)
+    Long nextCardNumber();
+
 }
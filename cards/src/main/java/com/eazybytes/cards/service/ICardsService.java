@@ -1,5 +1,8 @@
 package com.eazybytes.cards.service;
 
+import java.util.List;
+import java.util.Map;
+
 import com.eazybytes.cards.dto.CardsDto;
 
 public interface ICardsService {
@@ -17,6 +20,13 @@ public interface ICardsService {
      */
     CardsDto fetchCard(String mobileNumber);
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Card Details keyed by mobileNumber, mobile numbers without a card are omitted
+     */
+    Map<String, CardsDto> fetchCards(List<String> mobileNumbers);
+
     /**
      *
      * @param cardsDto - CardsDto Object
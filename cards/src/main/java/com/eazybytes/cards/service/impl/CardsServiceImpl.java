@@ -9,10 +9,12 @@ import com.eazybytes.cards.mapper.CardsMapper;
 import com.eazybytes.cards.repository.CardsRepository;
 import com.eazybytes.cards.service.ICardsService;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-import java.util.Random;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
@@ -25,11 +27,12 @@ public class CardsServiceImpl implements ICardsService {
      */
     @Override
     public void createCard(String mobileNumber) {
-        Optional<Cards> optionalCards= cardsRepository.findByMobileNumber(mobileNumber);
-        if(optionalCards.isPresent()){
+        try {
+            cardsRepository.save(createNewCard(mobileNumber));
+        } catch (DataIntegrityViolationException ex) {
+            // uk_cards_mobile_number rejects a second card for the same mobile number
             throw new CardAlreadyExistsException("Card already registered with given mobileNumber "+mobileNumber);
         }
-        cardsRepository.save(createNewCard(mobileNumber));
     }
 
     /**
@@ -38,8 +41,7 @@ public class CardsServiceImpl implements ICardsService {
      */
     private Cards createNewCard(String mobileNumber) {
         Cards newCard = new Cards();
-        long randomCardNumber = 100000000000L + new Random().nextInt(900000000);
-        newCard.setCardNumber(Long.toString(randomCardNumber));
+        newCard.setCardNumber(cardsRepository.nextCardNumber().toString());
         newCard.setMobileNumber(mobileNumber);
         newCard.setCardType(CardsConstants.CREDIT_CARD);
         newCard.setTotalLimit(CardsConstants.NEW_CARD_LIMIT);
@@ -61,6 +63,20 @@ public class CardsServiceImpl implements ICardsService {
         return CardsMapper.mapToCardsDto(cards, new CardsDto());
     }
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Card Details keyed by mobileNumber, mobile numbers without a card are omitted
+     */
+    @Override
+    public Map<String, CardsDto> fetchCards(List<String> mobileNumbers) {
+        Map<String, CardsDto> cardsByMobileNumber = new LinkedHashMap<>();
+        for (Cards cards : cardsRepository.findByMobileNumberIn(mobileNumbers)) {
+            cardsByMobileNumber.putIfAbsent(cards.getMobileNumber(), CardsMapper.mapToCardsDto(cards, new CardsDto()));
+        }
+        return cardsByMobileNumber;
+    }
+
     /**
      *
      * @param cardsDto - CardsDto Object
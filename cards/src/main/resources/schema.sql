@@ -11,4 +11,10 @@ CREATE TABLE IF NOT EXISTS `cards` (
   `updated_at` date DEFAULT NULL,
   `updated_by` varchar(20) DEFAULT NULL,
   PRIMARY KEY (`card_id`)
-);
\ No newline at end of file
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS `uk_cards_mobile_number` ON `cards` (`mobile_number`);
+
+CREATE UNIQUE INDEX IF NOT EXISTS `uk_cards_card_number` ON `cards` (`card_number`);
+
+CREATE SEQUENCE IF NOT EXISTS `card_number_seq` START WITH 100000000000 CACHE 100;
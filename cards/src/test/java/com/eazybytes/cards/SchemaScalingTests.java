@@ -0,0 +1,92 @@
+package com.eazybytes.cards;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Seeds the tables created by schema.sql and checks that the lookups behind findByMobileNumber and
+ * findByCardNumber are index seeks: the analyzed plan looks the value up in the index and reads a
+ * single row, so the lookups stay flat however large the tables grow, without timing anything.
+ */
+class SchemaScalingTests {
+
+	private static final int ROWS = 10_000;
+
+	private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new SingleConnectionDataSource("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", true);
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@AfterEach
+	void tearDown() {
+		dataSource.destroy();
+	}
+
+	@Test
+	void mobileNumberLookupsAreIndexSeeks() {
+		seed(1, ROWS);
+
+		assertIndexSeek("select card_id from cards where mobile_number = '1000000001'", "uk_cards_mobile_number");
+	}
+
+	@Test
+	void cardLookupsUseTheIndex() {
+		seed(1, ROWS);
+
+		assertIndexSeek("select card_id from cards where card_number = 'N1'", "uk_cards_card_number");
+	}
+
+	@Test
+	void mobileNumberAndCardNumberAreUnique() {
+		seed(1, 10);
+
+		assertThatThrownBy(() -> jdbcTemplate.update(insert("'1000000001'", "'N999'")))
+				.isInstanceOf(DuplicateKeyException.class);
+		assertThatThrownBy(() -> jdbcTemplate.update(insert("'1999999999'", "'N1'")))
+				.isInstanceOf(DuplicateKeyException.class);
+	}
+
+	private void seed(int from, int to) {
+		jdbcTemplate.update("insert into cards (card_id, mobile_number, card_number, card_type, total_limit, amount_used, available_amount, "
+				+ "created_at, created_by) "
+				+ "select x, cast(1000000000 + x as varchar), 'N' || x, 'Credit Card', 100000, 0, 100000, current_date, 'TEST' "
+				+ "from system_range(?, ?)", from, to);
+	}
+
+	private static String insert(String mobileNumber, String cardNumber) {
+		return "insert into cards (mobile_number, card_number, card_type, total_limit, amount_used, available_amount, created_at, "
+				+ "created_by) values ("
+				+ mobileNumber + ", " + cardNumber + ", 'Credit Card', 100000, 0, 100000, current_date, 'TEST')";
+	}
+
+	/**
+	 * A scan names the index too, but without the looked up value and with a scan count of every row.
+	 */
+	private void assertIndexSeek(String sql, String index) {
+		String plan = jdbcTemplate.queryForObject("explain analyze " + sql, String.class);
+		assertThat(plan).containsIgnoringCase(index + ":");
+		Matcher scanCount = SCAN_COUNT.matcher(plan);
+		assertThat(scanCount.find()).as(plan).isTrue();
+		assertThat(Integer.parseInt(scanCount.group(1))).as(plan).isLessThanOrEqualTo(2);
+	}
+}
@@ -1,20 +1,32 @@
 package com.eazybytes.gatewayserver;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
 import org.springframework.cloud.client.circuitbreaker.Customizer;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 
+import com.eazybytes.gatewayserver.config.ConcurrencyLimitProperties;
+import com.eazybytes.gatewayserver.config.CustomerAggregationProperties;
+import com.eazybytes.gatewayserver.config.HedgedRetryProperties;
+import com.eazybytes.gatewayserver.config.JwtCacheProperties;
+import com.eazybytes.gatewayserver.config.LoadBalancingProperties;
+import com.eazybytes.gatewayserver.config.RateLimiterProperties;
+import com.eazybytes.gatewayserver.config.ResponseCacheProperties;
+import com.eazybytes.gatewayserver.filters.ConditionalGetGatewayFilter;
+import com.eazybytes.gatewayserver.filters.HedgedRetryGatewayFilter;
+import com.eazybytes.gatewayserver.filters.StreamingRoutes;
+
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
 import jakarta.ws.rs.BeanParam;
@@ -22,6 +34,9 @@ import reactor.core.publisher.Mono;
 
 
 @SpringBootApplication
+@EnableConfigurationProperties(value = {ResponseCacheProperties.class, RateLimiterProperties.class,
+		JwtCacheProperties.class, CustomerAggregationProperties.class, ConcurrencyLimitProperties.class,
+		HedgedRetryProperties.class, LoadBalancingProperties.class})
 public class GatewayserverApplication {
 
 	public static void main(String[] args) {
@@ -29,33 +44,100 @@ public class GatewayserverApplication {
 	}
 	
 	@Bean
-	public RouteLocator eazyBankRouteConfig(RouteLocatorBuilder routeLocatorBuilder) {
+	public RouteLocator eazyBankRouteConfig(RouteLocatorBuilder routeLocatorBuilder,
+			ResponseCacheProperties responseCacheProperties, RateLimiter<?> rateLimiter,
+			HedgedRetryGatewayFilter loansHedgedRetryFilter) {
 		return routeLocatorBuilder.routes()
-						.route(p -> p
+						.route("accounts-info", p -> p
+								.order(-1)
+								.method(HttpMethod.GET).and().path(infoPaths("accounts"))
+								.filters( f -> cachedInfo(f, "accounts-info", responseCacheProperties)
+										.rewritePath("/eazybank/accounts/(?<segment>.*)","/${segment}")
+										.circuitBreaker(config -> config.setName("accountsCircuitBreaker")
+												.setFallbackUri("forward:/contactSupport")))
+								.uri("lb://ACCOUNTS"))
+						.route("accounts-batch", p -> p
+								.order(-1)
+								.method(HttpMethod.POST).and().path(batchPaths("accounts", "fetchCustomerDetailsBatch", "create-batch"))
+								.filters( f -> f.rewritePath("/eazybank/accounts/(?<segment>.*)","/${segment}"))
+								.metadata(StreamingRoutes.METADATA_KEY, true)
+								.uri("lb://ACCOUNTS"))
+						.route("accounts", p -> p
 								.path("/eazybank/accounts/**")
 								.filters( f -> f.rewritePath("/eazybank/accounts/(?<segment>.*)","/${segment}")
-										.addResponseHeader("X-Response-Time", LocalDateTime.now().toString())
 										.circuitBreaker(config -> config.setName("accountsCircuitBreaker")
 												.setFallbackUri("forward:/contactSupport")))
 								.uri("lb://ACCOUNTS"))
-					.route(p -> p
+					.route("loans-info", p -> p
+							.order(-1)
+							.method(HttpMethod.GET).and().path(infoPaths("loans"))
+							.filters( f -> cachedInfo(f, "loans-info", responseCacheProperties)
+									.rewritePath("/eazybank/loans/(?<segment>.*)","/${segment}"))
+							.uri("lb://LOANS"))
+					.route("loans-batch", p -> p
+							.order(-1)
+							.method(HttpMethod.POST).and().path(batchPaths("loans", "fetch-batch"))
+							.filters( f -> f.rewritePath("/eazybank/loans/(?<segment>.*)","/${segment}"))
+							.metadata(StreamingRoutes.METADATA_KEY, true)
+							.uri("lb://LOANS"))
+					.route("loans", p -> p
 							.path("/eazybank/loans/**")
 							.filters( f -> f.rewritePath("/eazybank/loans/(?<segment>.*)","/${segment}")
-									.addResponseHeader("X-Response-Time", LocalDateTime.now().toString())
-									.retry(retryConfig -> retryConfig.setRetries(3)
-											.setMethods(HttpMethod.GET)
-											.setBackoff(Duration.ofMillis(100), Duration.ofMillis(1000), 2, true)))
+									.filter(loansHedgedRetryFilter))
 							.uri("lb://LOANS"))
-					.route(p -> p
+					.route("cards-info", p -> p
+							.order(-1)
+							.method(HttpMethod.GET).and().path(infoPaths("cards"))
+							.filters( f -> cachedInfo(f, "cards-info", responseCacheProperties)
+									.rewritePath("/eazybank/cards/(?<segment>.*)","/${segment}")
+									.requestRateLimiter(config -> config.setRateLimiter(rateLimiter)
+											.setKeyResolver(userKeyResolver())))
+							.uri("lb://CARDS"))
+					.route("cards-batch", p -> p
+							.order(-1)
+							.method(HttpMethod.POST).and().path(batchPaths("cards", "fetch-batch"))
+							.filters( f -> f.rewritePath("/eazybank/cards/(?<segment>.*)","/${segment}")
+									.requestRateLimiter(config -> config.setRateLimiter(rateLimiter)
+											.setKeyResolver(userKeyResolver())))
+							.metadata(StreamingRoutes.METADATA_KEY, true)
+							.uri("lb://CARDS"))
+					.route("cards", p -> p
 							.path("/eazybank/cards/**")
 							.filters( f -> f.rewritePath("/eazybank/cards/(?<segment>.*)","/${segment}")
-									.addResponseHeader("X-Response-Time", LocalDateTime.now().toString())
-									.requestRateLimiter(config -> config.setRateLimiter(redisRateLimiter())
+									.requestRateLimiter(config -> config.setRateLimiter(rateLimiter)
 											.setKeyResolver(userKeyResolver())))
 							.uri("lb://CARDS")).build();
 
 
 	}
+
+	/**
+	 * Build, contact and Java version info rarely change, so they are served from a local cache.
+	 * Hits are answered before the rate limiter, circuit breaker and load balancer; the cache key
+	 * includes the Authorization header, so entries are never shared between principals.
+	 */
+	private static GatewayFilterSpec cachedInfo(GatewayFilterSpec f, String routeId,
+			ResponseCacheProperties responseCacheProperties) {
+		return f.filter(new ConditionalGetGatewayFilter())
+				.localResponseCache(responseCacheProperties.timeToLive(routeId), responseCacheProperties.getSize());
+	}
+
+	/**
+	 * Batch endpoints are streamed: they skip the circuit breaker, whose time limiter would cut off
+	 * long transfers, and the response and upstream bodies are never aggregated in the gateway.
+	 */
+	private static String[] batchPaths(String service, String... endpoints) {
+		String[] paths = new String[endpoints.length];
+		for (int i = 0; i < endpoints.length; i++) {
+			paths[i] = "/eazybank/" + service + "/api/" + endpoints[i];
+		}
+		return paths;
+	}
+
+	private static String[] infoPaths(String service) {
+		return new String[] { "/eazybank/" + service + "/api/contact-info", "/eazybank/" + service + "/api/build-info",
+				"/eazybank/" + service + "/api/java-version" };
+	}
 	
 	@Bean
 	public Customizer<ReactiveResilience4JCircuitBreakerFactory> defaultCustomizer() {
@@ -65,11 +147,6 @@ public class GatewayserverApplication {
                 .build());
     }
 	
-	@Bean
-	public RedisRateLimiter redisRateLimiter() {
-		return new RedisRateLimiter(1, 1, 1);
-	}
-	
 	@Bean
 	KeyResolver userKeyResolver() {
 		return exchange -> Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst("user"))
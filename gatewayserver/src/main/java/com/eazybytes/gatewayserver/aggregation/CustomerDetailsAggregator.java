@@ -0,0 +1,164 @@
+package com.eazybytes.gatewayserver.aggregation;
+
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.eazybytes.gatewayserver.config.CustomerAggregationProperties;
+import com.eazybytes.gatewayserver.config.CustomerAggregationProperties.Section;
+import com.eazybytes.gatewayserver.dto.CustomerDetailsDto;
+import com.eazybytes.gatewayserver.dto.SectionResultDto;
+import com.eazybytes.gatewayserver.dto.SectionResultDto.Status;
+import com.eazybytes.gatewayserver.filters.AdaptiveConcurrencyLimitFilter;
+import com.eazybytes.gatewayserver.filters.FilterUtility;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Fetches the accounts, loans and cards of a customer with three concurrent, non-blocking calls
+ * straight to the services through the load balancer. The policies of the matching gateway routes
+ * are applied in-process: every call takes a permit from the route's adaptive concurrency limit,
+ * accounts goes through the accounts circuit breaker and cards through the request rate limiter,
+ * keyed like the route. Every section has its own timeout and failures, including rejections by
+ * those policies, are reported per section instead of failing the whole response.
+ */
+@Component
+public class CustomerDetailsAggregator {
+
+	private static final Logger logger = LoggerFactory.getLogger(CustomerDetailsAggregator.class);
+
+	/** Same name as on the accounts route, so both share one breaker. */
+	private static final String ACCOUNTS_CIRCUIT_BREAKER = "accountsCircuitBreaker";
+
+	private static final String[] FORWARDED_HEADERS = { HttpHeaders.AUTHORIZATION, "user" };
+
+	private final WebClient webClient;
+
+	private final CustomerAggregationProperties properties;
+
+	private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+
+	private final RateLimiter<?> rateLimiter;
+
+	private final KeyResolver keyResolver;
+
+	private final AdaptiveConcurrencyLimitFilter concurrencyLimit;
+
+	/**
+	 * @param concurrencyLimit - absent when the concurrency limit is disabled
+	 */
+	public CustomerDetailsAggregator(WebClient.Builder webClientBuilder,
+			LoadBalancedExchangeFilterFunction loadBalancerFilter, CustomerAggregationProperties properties,
+			ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory, RateLimiter<?> rateLimiter,
+			KeyResolver userKeyResolver, ObjectProvider<AdaptiveConcurrencyLimitFilter> concurrencyLimit) {
+		this.webClient = webClientBuilder.clone().filter(loadBalancerFilter).build();
+		this.properties = properties;
+		this.circuitBreakerFactory = circuitBreakerFactory;
+		this.rateLimiter = rateLimiter;
+		this.keyResolver = userKeyResolver;
+		this.concurrencyLimit = concurrencyLimit.getIfAvailable();
+	}
+
+	/**
+	 * @param exchange - the client request; its authorization and user headers are passed on and
+	 *                   the rate limiter key is resolved from it
+	 */
+	public Mono<CustomerDetailsDto> fetchCustomerDetails(String correlationId, String mobileNumber,
+			ServerWebExchange exchange) {
+		HttpHeaders clientHeaders = exchange.getRequest().getHeaders();
+		Mono<ResponseEntity<JsonNode>> accounts = circuitBreakerFactory.create(ACCOUNTS_CIRCUIT_BREAKER)
+				.run(call(properties.getAccounts(), correlationId, mobileNumber, clientHeaders));
+		Mono<ResponseEntity<JsonNode>> loans = call(properties.getLoans(), correlationId, mobileNumber,
+				clientHeaders);
+		Mono<ResponseEntity<JsonNode>> cards = rateLimited("cards", exchange,
+				call(properties.getCards(), correlationId, mobileNumber, clientHeaders));
+		return Mono.zip(section("accounts", properties.getAccounts(), accounts),
+				section("loans", properties.getLoans(), loans),
+				section("cards", properties.getCards(), cards))
+				.map(sections -> new CustomerDetailsDto(mobileNumber, sections.getT1(), sections.getT2(),
+						sections.getT3()));
+	}
+
+	/**
+	 * The section name doubles as the id of the service's gateway route.
+	 */
+	private Mono<SectionResultDto> section(String name, Section section, Mono<ResponseEntity<JsonNode>> call) {
+		Mono<ResponseEntity<JsonNode>> limited = concurrencyLimit == null ? call
+				: concurrencyLimit.limit(name, call, response -> response.getStatusCode().is5xxServerError());
+		return limited.timeout(section.getTimeout())
+				.map(response -> toSection(name, response))
+				.onErrorResume(ex -> Mono.just(failed(name, ex)));
+	}
+
+	/**
+	 * Error statuses are returned rather than raised, so like on the routes only failed exchanges
+	 * count against the circuit breaker.
+	 */
+	private Mono<ResponseEntity<JsonNode>> call(Section section, String correlationId, String mobileNumber,
+			HttpHeaders clientHeaders) {
+		return webClient.get()
+				.uri(section.getUri() + "/api/fetch?mobileNumber={mobileNumber}", mobileNumber)
+				.headers(headers -> {
+					for (String header : FORWARDED_HEADERS) {
+						String value = clientHeaders.getFirst(header);
+						if (value != null) {
+							headers.set(header, value);
+						}
+					}
+					headers.set(FilterUtility.CORRELATION_ID, correlationId);
+				})
+				.exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+						? response.toEntity(JsonNode.class)
+						: response.releaseBody()
+								.thenReturn(ResponseEntity.status(response.statusCode()).<JsonNode>build()));
+	}
+
+	/**
+	 * Charges the route's rate limiter before the call, answering 429 when it is denied. Like
+	 * the route, a request without a key is denied.
+	 */
+	private Mono<ResponseEntity<JsonNode>> rateLimited(String routeId, ServerWebExchange exchange,
+			Mono<ResponseEntity<JsonNode>> call) {
+		return keyResolver.resolve(exchange)
+				.flatMap(key -> rateLimiter.isAllowed(routeId, key))
+				.filter(RateLimiter.Response::isAllowed)
+				.flatMap(allowed -> call)
+				.switchIfEmpty(Mono.fromSupplier(
+						() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).<JsonNode>build()));
+	}
+
+	private static SectionResultDto toSection(String name, ResponseEntity<JsonNode> response) {
+		if (response.getStatusCode().is2xxSuccessful()) {
+			return SectionResultDto.ok(response.getBody());
+		}
+		if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+			return SectionResultDto.failed(Status.NOT_FOUND, null);
+		}
+		// also covers 429 from the rate limiter
+		logger.debug("Fetching {} details failed with {}", name, response.getStatusCode());
+		return SectionResultDto.failed(Status.ERROR, name + " details are currently unavailable");
+	}
+
+	private static SectionResultDto failed(String name, Throwable ex) {
+		if (ex instanceof TimeoutException) {
+			logger.debug("Timed out fetching {} details", name);
+			return SectionResultDto.failed(Status.TIMEOUT, name + " details did not arrive in time");
+		}
+		// also covers an open circuit breaker and the 503 of a full concurrency limit
+		logger.debug("Fetching {} details failed: {}", name, ex.getMessage());
+		return SectionResultDto.failed(Status.ERROR, name + " details are currently unavailable");
+	}
+}
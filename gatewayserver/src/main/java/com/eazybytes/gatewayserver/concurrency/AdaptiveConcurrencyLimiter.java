@@ -0,0 +1,148 @@
+package com.eazybytes.gatewayserver.concurrency;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.eazybytes.gatewayserver.config.ConcurrencyLimitProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Concurrency limit for one route that follows the backend's latency, after the gradient
+ * algorithm of Netflix's concurrency-limits. A long-term average of the response time stands in
+ * for the backend's unloaded latency; while recent responses stay within rtt-tolerance of it the
+ * limit grows by about the square root of itself, and once they get slower the limit shrinks in
+ * proportion. Errors and 5xx responses cut the limit by backoff-ratio.
+ * <p>
+ * Requests over the limit wait in a bounded FIFO queue and are let in as permits are released.
+ * All state is guarded by the limiter's monitor, which is only held for a few field updates.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final int LONG_WINDOW = 600;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final int maxQueue;
+	private final double rttTolerance;
+	private final double smoothing;
+	private final double backoffRatio;
+
+	private final Deque<Sinks.One<Boolean>> queue = new ArrayDeque<>();
+
+	private double limit;
+	private double longRtt;
+	private int inFlight;
+
+	public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+		this.minLimit = properties.getMinLimit();
+		this.maxLimit = properties.getMaxLimit();
+		this.maxQueue = properties.getMaxQueue();
+		this.rttTolerance = properties.getRttTolerance();
+		this.smoothing = properties.getSmoothing();
+		this.backoffRatio = properties.getBackoffRatio();
+		this.limit = properties.getInitialLimit();
+	}
+
+	/**
+	 * @return a permit right away, after waiting in the queue, or an empty Mono when the queue is full
+	 */
+	public Mono<Boolean> acquire() {
+		Sinks.One<Boolean> waiter;
+		synchronized (this) {
+			if (inFlight < (int) limit) {
+				inFlight++;
+				return Mono.just(Boolean.TRUE);
+			}
+			if (queue.size() >= maxQueue) {
+				return Mono.empty();
+			}
+			waiter = Sinks.one();
+			queue.addLast(waiter);
+		}
+		return waiter.asMono().doOnCancel(() -> abandon(waiter));
+	}
+
+	/**
+	 * Drops a waiter that timed out or was cancelled, returning its permit if one was handed over.
+	 */
+	private void abandon(Sinks.One<Boolean> waiter) {
+		boolean removed;
+		synchronized (this) {
+			removed = queue.remove(waiter);
+		}
+		if (!removed && waiter.tryEmitValue(Boolean.FALSE).isFailure()) {
+			// the permit was already handed to this waiter
+			release(0, false);
+		}
+	}
+
+	/**
+	 * Returns a permit; the round trip time feeds the limit unless it is 0.
+	 */
+	public void release(long rttNanos, boolean failed) {
+		synchronized (this) {
+			if (rttNanos > 0) {
+				update(rttNanos, failed);
+			}
+			inFlight--;
+		}
+		admitQueued();
+	}
+
+	/**
+	 * Hands free permits to queued requests. Waiters are completed outside the monitor, as that
+	 * runs the rest of their filter chain.
+	 */
+	private void admitQueued() {
+		while (true) {
+			Sinks.One<Boolean> waiter;
+			synchronized (this) {
+				if (inFlight >= (int) limit || queue.isEmpty()) {
+					return;
+				}
+				waiter = queue.pollFirst();
+				inFlight++;
+			}
+			if (waiter.tryEmitValue(Boolean.TRUE).isFailure()) {
+				// abandoned in the meantime
+				synchronized (this) {
+					inFlight--;
+				}
+			}
+		}
+	}
+
+	private void update(long rttNanos, boolean failed) {
+		double rtt = rttNanos;
+		longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / LONG_WINDOW;
+		if (longRtt / rtt > 2) {
+			// the backend got much faster, let the baseline catch up
+			longRtt *= 0.95;
+		}
+		double estimate;
+		if (failed) {
+			estimate = limit * backoffRatio;
+		} else if (inFlight < limit / 2) {
+			// not enough traffic to tell whether the backend could take more
+			return;
+		} else {
+			double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / rtt));
+			estimate = limit * gradient + Math.sqrt(limit);
+		}
+		limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + estimate * smoothing));
+	}
+
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	public synchronized int getQueued() {
+		return queue.size();
+	}
+}
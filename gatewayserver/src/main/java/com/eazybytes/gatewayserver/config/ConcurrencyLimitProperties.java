@@ -0,0 +1,133 @@
+package com.eazybytes.gatewayserver.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "eazybank.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+	private boolean enabled = true;
+
+	/**
+	 * Route ids to limit; every route is limited when empty.
+	 */
+	private List<String> routes = new ArrayList<>();
+
+	/**
+	 * In-flight requests allowed per route before any latency has been observed.
+	 */
+	private int initialLimit = 20;
+
+	private int minLimit = 4;
+
+	private int maxLimit = 200;
+
+	/**
+	 * Requests over the limit wait in a queue of at most this many per route; the rest are rejected
+	 * with 503.
+	 */
+	private int maxQueue = 50;
+
+	/**
+	 * How long a queued request waits for a permit before it is rejected.
+	 */
+	private Duration queueTimeout = Duration.ofMillis(500);
+
+	/**
+	 * How much slower than the long-term latency a response may be before the limit shrinks.
+	 */
+	private double rttTolerance = 1.5;
+
+	/**
+	 * Weight of each new limit estimate, between 0 and 1.
+	 */
+	private double smoothing = 0.2;
+
+	/**
+	 * Factor the limit is multiplied by when a request fails with a 5xx or an error.
+	 */
+	private double backoffRatio = 0.9;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public List<String> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(List<String> routes) {
+		this.routes = routes;
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public void setInitialLimit(int initialLimit) {
+		this.initialLimit = initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+	public int getMaxQueue() {
+		return maxQueue;
+	}
+
+	public void setMaxQueue(int maxQueue) {
+		this.maxQueue = maxQueue;
+	}
+
+	public Duration getQueueTimeout() {
+		return queueTimeout;
+	}
+
+	public void setQueueTimeout(Duration queueTimeout) {
+		this.queueTimeout = queueTimeout;
+	}
+
+	public double getRttTolerance() {
+		return rttTolerance;
+	}
+
+	public void setRttTolerance(double rttTolerance) {
+		this.rttTolerance = rttTolerance;
+	}
+
+	public double getSmoothing() {
+		return smoothing;
+	}
+
+	public void setSmoothing(double smoothing) {
+		this.smoothing = smoothing;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+
+	public void setBackoffRatio(double backoffRatio) {
+		this.backoffRatio = backoffRatio;
+	}
+}
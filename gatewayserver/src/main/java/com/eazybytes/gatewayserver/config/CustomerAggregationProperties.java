@@ -0,0 +1,76 @@
+package com.eazybytes.gatewayserver.config;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "eazybank.customer-aggregation")
+public class CustomerAggregationProperties {
+
+	private Section accounts = new Section(URI.create("lb://ACCOUNTS"));
+
+	private Section loans = new Section(URI.create("lb://LOANS"));
+
+	private Section cards = new Section(URI.create("lb://CARDS"));
+
+	public Section getAccounts() {
+		return accounts;
+	}
+
+	public void setAccounts(Section accounts) {
+		this.accounts = accounts;
+	}
+
+	public Section getLoans() {
+		return loans;
+	}
+
+	public void setLoans(Section loans) {
+		this.loans = loans;
+	}
+
+	public Section getCards() {
+		return cards;
+	}
+
+	public void setCards(Section cards) {
+		this.cards = cards;
+	}
+
+	public static class Section {
+
+		/**
+		 * Base URI of the service, resolved by the load balancer like the service's gateway route.
+		 */
+		private URI uri;
+
+		/**
+		 * How long to wait for this section before returning it as timed out.
+		 */
+		private Duration timeout = Duration.ofSeconds(2);
+
+		public Section() {
+		}
+
+		Section(URI uri) {
+			this.uri = uri;
+		}
+
+		public URI getUri() {
+			return uri;
+		}
+
+		public void setUri(URI uri) {
+			this.uri = uri;
+		}
+
+		public Duration getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+	}
+}
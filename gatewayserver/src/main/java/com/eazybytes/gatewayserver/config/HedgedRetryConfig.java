@@ -0,0 +1,33 @@
+package com.eazybytes.gatewayserver.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.eazybytes.gatewayserver.filters.HedgedRetryGatewayFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.netty.http.client.HttpClient;
+
+@Configuration
+public class HedgedRetryConfig {
+
+	/**
+	 * Shares the gateway's HttpClient, so hedges and retries use the same connection pool and
+	 * timeouts as proxied requests.
+	 */
+	@Bean
+	public HedgedRetryGatewayFilter loansHedgedRetryFilter(HedgedRetryProperties properties,
+			WebClient.Builder webClientBuilder, HttpClient httpClient, LoadBalancerClientFactory clientFactory,
+			ObjectProvider<List<HttpHeadersFilter>> headersFilters, MeterRegistry meterRegistry) {
+		WebClient webClient = webClientBuilder.clone().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+		return new HedgedRetryGatewayFilter("loans", properties, webClient, clientFactory, headersFilters,
+				meterRegistry);
+	}
+}
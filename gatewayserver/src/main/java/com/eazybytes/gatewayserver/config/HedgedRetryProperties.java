@@ -0,0 +1,152 @@
+package com.eazybytes.gatewayserver.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Retries and hedging of GET requests on the loans route.
+ */
+@ConfigurationProperties(prefix = "eazybank.hedged-retry")
+public class HedgedRetryProperties {
+
+	/**
+	 * Retries after the first attempt, when the budget allows.
+	 */
+	private int retries = 3;
+
+	private Duration firstBackoff = Duration.ofMillis(100);
+
+	private Duration maxBackoff = Duration.ofSeconds(1);
+
+	/**
+	 * Retries and hedges allowed as a percentage of the requests.
+	 */
+	private double budgetPercent = 20;
+
+	/**
+	 * Retries allowed per second regardless of traffic, so a quiet route can still retry.
+	 */
+	private double minRetriesPerSecond = 5;
+
+	/**
+	 * Most retries that can be saved up during quiet periods.
+	 */
+	private double maxBudget = 50;
+
+	private final Hedging hedging = new Hedging();
+
+	public int getRetries() {
+		return retries;
+	}
+
+	public void setRetries(int retries) {
+		this.retries = retries;
+	}
+
+	public Duration getFirstBackoff() {
+		return firstBackoff;
+	}
+
+	public void setFirstBackoff(Duration firstBackoff) {
+		this.firstBackoff = firstBackoff;
+	}
+
+	public Duration getMaxBackoff() {
+		return maxBackoff;
+	}
+
+	public void setMaxBackoff(Duration maxBackoff) {
+		this.maxBackoff = maxBackoff;
+	}
+
+	public double getBudgetPercent() {
+		return budgetPercent;
+	}
+
+	public void setBudgetPercent(double budgetPercent) {
+		this.budgetPercent = budgetPercent;
+	}
+
+	public double getMinRetriesPerSecond() {
+		return minRetriesPerSecond;
+	}
+
+	public void setMinRetriesPerSecond(double minRetriesPerSecond) {
+		this.minRetriesPerSecond = minRetriesPerSecond;
+	}
+
+	public double getMaxBudget() {
+		return maxBudget;
+	}
+
+	public void setMaxBudget(double maxBudget) {
+		this.maxBudget = maxBudget;
+	}
+
+	public Hedging getHedging() {
+		return hedging;
+	}
+
+	public static class Hedging {
+
+		/**
+		 * Send a second request to another instance when the first one is slow.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Latency percentile after which the hedge is sent.
+		 */
+		private double percentile = 0.95;
+
+		/**
+		 * Hedge delay used until enough responses have been seen.
+		 */
+		private Duration initialDelay = Duration.ofMillis(200);
+
+		private Duration minDelay = Duration.ofMillis(20);
+
+		private Duration maxDelay = Duration.ofSeconds(1);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public double getPercentile() {
+			return percentile;
+		}
+
+		public void setPercentile(double percentile) {
+			this.percentile = percentile;
+		}
+
+		public Duration getInitialDelay() {
+			return initialDelay;
+		}
+
+		public void setInitialDelay(Duration initialDelay) {
+			this.initialDelay = initialDelay;
+		}
+
+		public Duration getMinDelay() {
+			return minDelay;
+		}
+
+		public void setMinDelay(Duration minDelay) {
+			this.minDelay = minDelay;
+		}
+
+		public Duration getMaxDelay() {
+			return maxDelay;
+		}
+
+		public void setMaxDelay(Duration maxDelay) {
+			this.maxDelay = maxDelay;
+		}
+	}
+}
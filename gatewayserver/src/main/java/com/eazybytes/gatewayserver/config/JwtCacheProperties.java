@@ -0,0 +1,61 @@
+package com.eazybytes.gatewayserver.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "eazybank.jwt-cache")
+public class JwtCacheProperties {
+
+	/**
+	 * Maximum number of verified tokens kept.
+	 */
+	private long maxSize = 10_000;
+
+	/**
+	 * Upper bound on how long a verified token is kept; tokens are never kept past their exp claim.
+	 */
+	private Duration maxTimeToLive = Duration.ofMinutes(15);
+
+	/**
+	 * How often the JWK set is fetched in the background.
+	 */
+	private Duration jwkRefreshInterval = Duration.ofMinutes(5);
+
+	/**
+	 * Minimum time between fetches triggered by tokens signed with an unknown key id.
+	 */
+	private Duration jwkMinRefreshInterval = Duration.ofSeconds(30);
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public Duration getMaxTimeToLive() {
+		return maxTimeToLive;
+	}
+
+	public void setMaxTimeToLive(Duration maxTimeToLive) {
+		this.maxTimeToLive = maxTimeToLive;
+	}
+
+	public Duration getJwkRefreshInterval() {
+		return jwkRefreshInterval;
+	}
+
+	public void setJwkRefreshInterval(Duration jwkRefreshInterval) {
+		this.jwkRefreshInterval = jwkRefreshInterval;
+	}
+
+	public Duration getJwkMinRefreshInterval() {
+		return jwkMinRefreshInterval;
+	}
+
+	public void setJwkMinRefreshInterval(Duration jwkMinRefreshInterval) {
+		this.jwkMinRefreshInterval = jwkMinRefreshInterval;
+	}
+}
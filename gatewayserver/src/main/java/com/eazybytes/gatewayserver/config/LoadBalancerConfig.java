@@ -0,0 +1,12 @@
+package com.eazybytes.gatewayserver.config;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+import com.eazybytes.gatewayserver.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+}
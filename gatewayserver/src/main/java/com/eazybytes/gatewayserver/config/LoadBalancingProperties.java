@@ -0,0 +1,101 @@
+package com.eazybytes.gatewayserver.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "eazybank.load-balancer")
+public class LoadBalancingProperties {
+
+	/**
+	 * Use the latency aware load balancer for lb:// URIs; round robin otherwise.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Time over which old latency samples lose most of their weight.
+	 */
+	private Duration decayTime = Duration.ofSeconds(10);
+
+	/**
+	 * Consecutive failures after which an instance is ejected.
+	 */
+	private int failureThreshold = 5;
+
+	/**
+	 * An instance whose latency is this many times the median of its service is ejected.
+	 */
+	private double slowRatio = 3;
+
+	/**
+	 * Instances faster than this are never ejected for being slow.
+	 */
+	private Duration minSlowLatency = Duration.ofMillis(200);
+
+	/**
+	 * How long an ejected instance gets no traffic; grows with each ejection until it serves a
+	 * request successfully again, up to five times this.
+	 */
+	private Duration ejectionTime = Duration.ofSeconds(30);
+
+	/**
+	 * Upper bound on the share of a service's instances that can be ejected at once.
+	 */
+	private int maxEjectionPercent = 50;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Duration getDecayTime() {
+		return decayTime;
+	}
+
+	public void setDecayTime(Duration decayTime) {
+		this.decayTime = decayTime;
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public void setFailureThreshold(int failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+
+	public double getSlowRatio() {
+		return slowRatio;
+	}
+
+	public void setSlowRatio(double slowRatio) {
+		this.slowRatio = slowRatio;
+	}
+
+	public Duration getMinSlowLatency() {
+		return minSlowLatency;
+	}
+
+	public void setMinSlowLatency(Duration minSlowLatency) {
+		this.minSlowLatency = minSlowLatency;
+	}
+
+	public Duration getEjectionTime() {
+		return ejectionTime;
+	}
+
+	public void setEjectionTime(Duration ejectionTime) {
+		this.ejectionTime = ejectionTime;
+	}
+
+	public int getMaxEjectionPercent() {
+		return maxEjectionPercent;
+	}
+
+	public void setMaxEjectionPercent(int maxEjectionPercent) {
+		this.maxEjectionPercent = maxEjectionPercent;
+	}
+}
@@ -0,0 +1,47 @@
+package com.eazybytes.gatewayserver.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import com.eazybytes.gatewayserver.ratelimit.LocalRateLimiter;
+import com.eazybytes.gatewayserver.ratelimit.RateLimitRedisSync;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Picks the rate limiter used by the rate limited routes with {@code eazybank.rate-limiter.type}.
+ */
+@Configuration
+public class RateLimiterConfig {
+
+	/**
+	 * Primary because the gateway's Redis auto-configuration still registers its own
+	 * RedisRateLimiter.
+	 */
+	@Bean
+	@Primary
+	@ConditionalOnProperty(prefix = "eazybank.rate-limiter", name = "type", havingValue = "local", matchIfMissing = true)
+	public LocalRateLimiter localRateLimiter(RateLimiterProperties properties, MeterRegistry meterRegistry) {
+		return new LocalRateLimiter(properties, meterRegistry);
+	}
+
+	@Bean
+	@ConditionalOnBean(LocalRateLimiter.class)
+	@ConditionalOnProperty(prefix = "eazybank.rate-limiter.sync", name = "enabled", havingValue = "true")
+	public RateLimitRedisSync rateLimitRedisSync(LocalRateLimiter localRateLimiter,
+			ReactiveStringRedisTemplate redisTemplate, RateLimiterProperties properties, MeterRegistry meterRegistry) {
+		return new RateLimitRedisSync(localRateLimiter, redisTemplate, properties, meterRegistry);
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "eazybank.rate-limiter", name = "type", havingValue = "redis")
+	public RedisRateLimiter redisRateLimiter(RateLimiterProperties properties) {
+		return new RedisRateLimiter(properties.getReplenishRate(), properties.getBurstCapacity(),
+				properties.getRequestedTokens());
+	}
+}
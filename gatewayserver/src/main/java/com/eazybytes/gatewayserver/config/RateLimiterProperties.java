@@ -0,0 +1,129 @@
+package com.eazybytes.gatewayserver.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "eazybank.rate-limiter")
+public class RateLimiterProperties {
+
+	public enum Type {
+		/** Token buckets held in the gateway, optionally synced to Redis in the background. */
+		LOCAL,
+		/** Spring Cloud Gateway's RedisRateLimiter, one Redis round trip per request. */
+		REDIS
+	}
+
+	private Type type = Type.LOCAL;
+
+	/**
+	 * Tokens added to each bucket per second.
+	 */
+	private int replenishRate = 1;
+
+	/**
+	 * Maximum number of tokens a bucket can hold.
+	 */
+	private int burstCapacity = 1;
+
+	/**
+	 * Tokens taken by each request.
+	 */
+	private int requestedTokens = 1;
+
+	/**
+	 * Maximum number of keys tracked by the local rate limiter; least recently used keys are
+	 * dropped first.
+	 */
+	private long maxKeys = 100_000;
+
+	/**
+	 * Keys not seen for this long are dropped. Keep it above the time a bucket needs to refill,
+	 * otherwise an idle key comes back with a full bucket a little early.
+	 */
+	private Duration idleTimeout = Duration.ofMinutes(10);
+
+	private final Sync sync = new Sync();
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public int getReplenishRate() {
+		return replenishRate;
+	}
+
+	public void setReplenishRate(int replenishRate) {
+		this.replenishRate = replenishRate;
+	}
+
+	public int getBurstCapacity() {
+		return burstCapacity;
+	}
+
+	public void setBurstCapacity(int burstCapacity) {
+		this.burstCapacity = burstCapacity;
+	}
+
+	public int getRequestedTokens() {
+		return requestedTokens;
+	}
+
+	public void setRequestedTokens(int requestedTokens) {
+		this.requestedTokens = requestedTokens;
+	}
+
+	public long getMaxKeys() {
+		return maxKeys;
+	}
+
+	public void setMaxKeys(long maxKeys) {
+		this.maxKeys = maxKeys;
+	}
+
+	public Duration getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(Duration idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	public Sync getSync() {
+		return sync;
+	}
+
+	public static class Sync {
+
+		/**
+		 * Share token consumption between gateway instances through Redis (hybrid mode).
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * How often local consumption is pushed to Redis and other instances' consumption is
+		 * charged to the local buckets.
+		 */
+		private Duration interval = Duration.ofSeconds(1);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getInterval() {
+			return interval;
+		}
+
+		public void setInterval(Duration interval) {
+			this.interval = interval;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.eazybytes.gatewayserver.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "eazybank.response-cache")
+public class ResponseCacheProperties {
+
+	/**
+	 * Time to live of cached responses for routes without their own entry in {@link #routes}.
+	 */
+	private Duration timeToLive = Duration.ofMinutes(10);
+
+	/**
+	 * Maximum size of each route's cache.
+	 */
+	private DataSize size = DataSize.ofMegabytes(1);
+
+	/**
+	 * Time to live by route id, e.g. accounts-info: 30m.
+	 */
+	private Map<String, Duration> routes = new HashMap<>();
+
+	public Duration getTimeToLive() {
+		return timeToLive;
+	}
+
+	public void setTimeToLive(Duration timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	public DataSize getSize() {
+		return size;
+	}
+
+	public void setSize(DataSize size) {
+		this.size = size;
+	}
+
+	public Map<String, Duration> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(Map<String, Duration> routes) {
+		this.routes = routes;
+	}
+
+	public Duration timeToLive(String routeId) {
+		return routes.getOrDefault(routeId, timeToLive);
+	}
+}
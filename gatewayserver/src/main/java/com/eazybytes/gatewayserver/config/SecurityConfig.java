@@ -1,5 +1,6 @@
 package com.eazybytes.gatewayserver.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -9,10 +10,17 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.web.reactive.function.client.WebClient;
 
+import com.eazybytes.gatewayserver.security.CachingJwtAuthenticationManager;
+import com.eazybytes.gatewayserver.security.RefreshingJwkSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import reactor.core.publisher.Mono;
 
 @Configuration
@@ -20,17 +28,40 @@ import reactor.core.publisher.Mono;
 public class SecurityConfig {
 
 	@Bean
-	public SecurityWebFilterChain sprigSecurityFilterChain(ServerHttpSecurity serverHttpSecurity) {
+	public SecurityWebFilterChain sprigSecurityFilterChain(ServerHttpSecurity serverHttpSecurity,
+			CachingJwtAuthenticationManager jwtAuthenticationManager) {
 		serverHttpSecurity.authorizeExchange(exchanges -> exchanges.pathMatchers(HttpMethod.GET).permitAll()
 				.pathMatchers("/eazybank/accounts/**").hasRole("ACCOUNTS")
 				.pathMatchers("/eazybank/cards/**").hasRole("CARDS")
 				.pathMatchers("/eazybank/loans/**").hasRole("LOANS"))
 		.oauth2ResourceServer(oAuth2ResourceServerSpecs -> oAuth2ResourceServerSpecs
-				.jwt(jwtSpec -> jwtSpec.jwtAuthenticationConverter(grantedAuthoritiesExtractor())));
+				.jwt(jwtSpec -> jwtSpec.authenticationManager(jwtAuthenticationManager)));
 		serverHttpSecurity.csrf(csrfSpec -> csrfSpec.disable());
 		return serverHttpSecurity.build();
 	}
 	
+	/**
+	 * Verified tokens are cached with their authorities, see {@link CachingJwtAuthenticationManager}.
+	 */
+	@Bean
+	public CachingJwtAuthenticationManager jwtAuthenticationManager(ReactiveJwtDecoder jwtDecoder,
+			JwtCacheProperties jwtCacheProperties, MeterRegistry meterRegistry) {
+		return new CachingJwtAuthenticationManager(jwtDecoder, grantedAuthoritiesExtractor(), jwtCacheProperties,
+				meterRegistry);
+	}
+
+	@Bean
+	public ReactiveJwtDecoder jwtDecoder(RefreshingJwkSource jwkSource) {
+		return NimbusReactiveJwtDecoder.withJwkSource(jwkSource).build();
+	}
+
+	@Bean
+	public RefreshingJwkSource jwkSource(WebClient.Builder webClientBuilder,
+			@Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+			JwtCacheProperties jwtCacheProperties) {
+		return new RefreshingJwkSource(webClientBuilder.build(), jwkSetUri, jwtCacheProperties);
+	}
+
 	private Converter<Jwt, Mono<AbstractAuthenticationToken>> grantedAuthoritiesExtractor() {
         JwtAuthenticationConverter jwtAuthenticationConverter =
                 new JwtAuthenticationConverter();
@@ -0,0 +1,47 @@
+package com.eazybytes.gatewayserver.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.eazybytes.gatewayserver.aggregation.CustomerDetailsAggregator;
+import com.eazybytes.gatewayserver.dto.CustomerDetailsDto;
+import com.eazybytes.gatewayserver.dto.SectionResultDto.Status;
+import com.eazybytes.gatewayserver.filters.FilterUtility;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Customer details assembled in the gateway from the accounts, loans and cards services, without
+ * the extra hop through accounts' fetchCustomerDetails.
+ */
+@RestController
+public class CustomerDetailsController {
+
+	private final CustomerDetailsAggregator customerDetailsAggregator;
+
+	public CustomerDetailsController(CustomerDetailsAggregator customerDetailsAggregator) {
+		this.customerDetailsAggregator = customerDetailsAggregator;
+	}
+
+	@GetMapping("/eazybank/customers/api/fetchCustomerDetails")
+	public Mono<ResponseEntity<CustomerDetailsDto>> fetchCustomerDetails(
+			@RequestHeader(name = FilterUtility.CORRELATION_ID, required = false) String correlationId,
+			@RequestParam String mobileNumber, ServerWebExchange exchange) {
+		if (!mobileNumber.matches("[0-9]{10}")) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+		String id = correlationId != null ? correlationId : UUID.randomUUID().toString();
+		return customerDetailsAggregator.fetchCustomerDetails(id, mobileNumber, exchange)
+				.map(details -> ResponseEntity
+						.status(details.getAccounts().getStatus() == Status.NOT_FOUND ? HttpStatus.NOT_FOUND : HttpStatus.OK)
+						.header(FilterUtility.CORRELATION_ID, id)
+						.body(details));
+	}
+}
@@ -0,0 +1,40 @@
+package com.eazybytes.gatewayserver.dto;
+
+/**
+ * Customer, account, loans and cards details of one mobile number, each section with its own
+ * status so a slow or failing service only blanks its own part.
+ */
+public class CustomerDetailsDto {
+
+	private final String mobileNumber;
+
+	private final SectionResultDto accounts;
+
+	private final SectionResultDto loans;
+
+	private final SectionResultDto cards;
+
+	public CustomerDetailsDto(String mobileNumber, SectionResultDto accounts, SectionResultDto loans,
+			SectionResultDto cards) {
+		this.mobileNumber = mobileNumber;
+		this.accounts = accounts;
+		this.loans = loans;
+		this.cards = cards;
+	}
+
+	public String getMobileNumber() {
+		return mobileNumber;
+	}
+
+	public SectionResultDto getAccounts() {
+		return accounts;
+	}
+
+	public SectionResultDto getLoans() {
+		return loans;
+	}
+
+	public SectionResultDto getCards() {
+		return cards;
+	}
+}
@@ -0,0 +1,48 @@
+package com.eazybytes.gatewayserver.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Outcome of one backend call in an aggregated response. The data is passed through as returned
+ * by the service.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SectionResultDto {
+
+	public enum Status {
+		OK, NOT_FOUND, TIMEOUT, ERROR
+	}
+
+	private final Status status;
+
+	private final JsonNode data;
+
+	private final String errorMessage;
+
+	private SectionResultDto(Status status, JsonNode data, String errorMessage) {
+		this.status = status;
+		this.data = data;
+		this.errorMessage = errorMessage;
+	}
+
+	public static SectionResultDto ok(JsonNode data) {
+		return new SectionResultDto(Status.OK, data, null);
+	}
+
+	public static SectionResultDto failed(Status status, String errorMessage) {
+		return new SectionResultDto(status, null, errorMessage);
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public JsonNode getData() {
+		return data;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+}
@@ -0,0 +1,152 @@
+package com.eazybytes.gatewayserver.filters;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.eazybytes.gatewayserver.concurrency.AdaptiveConcurrencyLimiter;
+import com.eazybytes.gatewayserver.config.ConcurrencyLimitProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Caps the requests in flight to each route with an {@link AdaptiveConcurrencyLimiter}, queueing
+ * briefly and then answering 503 once the backend is saturated. Runs after the local response
+ * cache, so cache hits never take a permit. Streaming routes are not limited, as their long
+ * transfers say nothing about the backend's latency.
+ */
+@Component
+@ConditionalOnProperty(prefix = "eazybank.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+	/** Between LocalResponseCache (-4) and the route filters (0). */
+	public static final int ORDER = -3;
+
+	private final ConcurrencyLimitProperties properties;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+	public AdaptiveConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+		if (route == null || StreamingRoutes.isStreaming(route) || !isLimited(route.getId())) {
+			return chain.filter(exchange);
+		}
+		String routeId = route.getId();
+		AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(routeId, this::register);
+		Duration queueTimeout = properties.getQueueTimeout();
+		return limiter.acquire()
+				.timeout(queueTimeout, Mono.empty())
+				.flatMap(permit -> {
+					long start = System.nanoTime();
+					return chain.filter(exchange).doFinally(signal -> {
+						long rtt = signal == SignalType.CANCEL ? 0 : System.nanoTime() - start;
+						limiter.release(rtt, signal == SignalType.ON_ERROR || isServerError(exchange));
+					}).thenReturn(permit);
+				})
+				.switchIfEmpty(Mono.defer(() -> reject(exchange, routeId)))
+				.then();
+	}
+
+	/**
+	 * Runs a call made on behalf of a route outside its filter chain, such as the customer details
+	 * aggregation, under the same limit as the requests proxied by the route. When no permit frees
+	 * up within the queue timeout the call fails with 503 without being subscribed.
+	 *
+	 * @param failed - whether a result counts as a failure for the limit, like a 5xx response
+	 */
+	public <T> Mono<T> limit(String routeId, Mono<T> call, Predicate<? super T> failed) {
+		if (!isLimited(routeId)) {
+			return call;
+		}
+		AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(routeId, this::register);
+		return limiter.acquire()
+				.timeout(properties.getQueueTimeout(), Mono.empty())
+				.switchIfEmpty(Mono.defer(() -> {
+					meterRegistry.counter("gateway.concurrency.rejected", "routeId", routeId).increment();
+					return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+							"Concurrency limit of route " + routeId + " reached"));
+				}))
+				.flatMap(permit -> {
+					long start = System.nanoTime();
+					// released before the outcome reaches the caller, and only once
+					AtomicBoolean released = new AtomicBoolean();
+					BiConsumer<Long, Boolean> release = (rtt, failedCall) -> {
+						if (released.compareAndSet(false, true)) {
+							limiter.release(rtt, failedCall);
+						}
+					};
+					return call.doOnSuccess(result -> release.accept(System.nanoTime() - start,
+									result != null && failed.test(result)))
+							.doOnError(ex -> release.accept(System.nanoTime() - start, true))
+							.doOnCancel(() -> release.accept(0L, false));
+				});
+	}
+
+	private boolean isLimited(String routeId) {
+		List<String> routes = properties.getRoutes();
+		return routes.isEmpty() || routes.contains(routeId);
+	}
+
+	private AdaptiveConcurrencyLimiter register(String routeId) {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties);
+		Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+				.description("Current adaptive concurrency limit")
+				.tag("routeId", routeId)
+				.register(meterRegistry);
+		Gauge.builder("gateway.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+				.tag("routeId", routeId)
+				.register(meterRegistry);
+		Gauge.builder("gateway.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+				.description("Requests waiting for a permit")
+				.tag("routeId", routeId)
+				.register(meterRegistry);
+		return limiter;
+	}
+
+	private Mono<Boolean> reject(ServerWebExchange exchange, String routeId) {
+		meterRegistry.counter("gateway.concurrency.rejected", "routeId", routeId).increment();
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+		response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+		return response.setComplete().thenReturn(Boolean.FALSE);
+	}
+
+	private static boolean isServerError(ServerWebExchange exchange) {
+		HttpStatusCode status = exchange.getResponse().getStatusCode();
+		return status != null && status.is5xxServerError();
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+}
@@ -0,0 +1,81 @@
+package com.eazybytes.gatewayserver.filters;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adds an ETag to successful GET responses and answers 304 Not Modified when it matches the
+ * client's If-None-Match. It wraps the local response cache, so cache hits are tagged as well.
+ */
+public class ConditionalGetGatewayFilter implements GatewayFilter, Ordered {
+
+	/** Runs outside LocalResponseCache, which is ordered at -4. */
+	public static final int ORDER = -5;
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+			return chain.filter(exchange);
+		}
+		String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+		ServerHttpResponse response = exchange.getResponse();
+		ServerHttpResponseDecorator decorator = new ServerHttpResponseDecorator(response) {
+			@Override
+			public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+				if (!HttpStatus.OK.equals(getStatusCode())) {
+					return super.writeWith(body);
+				}
+				return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+					byte[] content = new byte[joined.readableByteCount()];
+					joined.read(content);
+					DataBufferUtils.release(joined);
+					String etag = "\"" + DigestUtils.md5DigestAsHex(content) + "\"";
+					getHeaders().setETag(etag);
+					if (matches(ifNoneMatch, etag)) {
+						setStatusCode(HttpStatus.NOT_MODIFIED);
+						getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+						getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+						return super.setComplete();
+					}
+					return super.writeWith(Mono.just(bufferFactory().wrap(content)));
+				});
+			}
+		};
+		return chain.filter(exchange.mutate().response(decorator).build());
+	}
+
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String value = candidate.trim();
+			if (value.startsWith("W/")) {
+				value = value.substring(2);
+			}
+			if (value.equals("*") || value.equals(etag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+}
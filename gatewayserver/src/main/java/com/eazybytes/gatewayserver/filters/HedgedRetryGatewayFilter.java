@@ -0,0 +1,330 @@
+package com.eazybytes.gatewayserver.filters;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycleValidator;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.Type;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.eazybytes.gatewayserver.config.HedgedRetryProperties;
+import com.eazybytes.gatewayserver.resilience.LatencyTracker;
+import com.eazybytes.gatewayserver.resilience.RetryBudget;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Proxies GET requests of one route with retries that draw on a {@link RetryBudget} and, when
+ * enabled, a hedged second request to another instance once the first has taken longer than the
+ * route's recent p95. Whichever response arrives first is returned and the other request is
+ * cancelled; hedges draw on the same budget as retries, so neither can multiply the load on a
+ * struggling service.
+ * <p>
+ * Runs right after the load balancer picked the first instance and replaces the Netty routing
+ * filter for these requests. Responses are buffered so the attempts can be raced, which suits the
+ * small JSON bodies of the loans API. Other methods go through the regular chain.
+ * <p>
+ * Every attempt is reported to the load balancer lifecycle with its own instance, round trip time
+ * and outcome, so the instance statistics see retries and hedges like any other request, and the
+ * exchange as a whole is no longer reported against the first instance.
+ */
+public class HedgedRetryGatewayFilter implements GatewayFilter, Ordered {
+
+	public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+	private final String routeId;
+
+	private final HedgedRetryProperties properties;
+
+	private final WebClient webClient;
+
+	private final LoadBalancerClientFactory clientFactory;
+
+	private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+
+	private final MeterRegistry meterRegistry;
+
+	private final RetryBudget retryBudget;
+
+	private final LatencyTracker latencyTracker;
+
+	public HedgedRetryGatewayFilter(String routeId, HedgedRetryProperties properties, WebClient webClient,
+			LoadBalancerClientFactory clientFactory, ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+			MeterRegistry meterRegistry) {
+		this.routeId = routeId;
+		this.properties = properties;
+		this.webClient = webClient;
+		this.clientFactory = clientFactory;
+		this.headersFilters = headersFilters;
+		this.meterRegistry = meterRegistry;
+		this.retryBudget = new RetryBudget(properties.getBudgetPercent(), properties.getMinRetriesPerSecond(),
+				properties.getMaxBudget());
+		HedgedRetryProperties.Hedging hedging = properties.getHedging();
+		this.latencyTracker = new LatencyTracker(hedging.getPercentile(), hedging.getInitialDelay(),
+				hedging.getMinDelay(), hedging.getMaxDelay());
+		Gauge.builder("gateway.retry.budget", retryBudget, RetryBudget::getBalance)
+				.description("Retries and hedges currently allowed")
+				.tag("routeId", routeId)
+				.register(meterRegistry);
+		Gauge.builder("gateway.hedge.delay", latencyTracker, tracker -> tracker.get().toMillis())
+				.baseUnit("milliseconds")
+				.tag("routeId", routeId)
+				.register(meterRegistry);
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		URI primary = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+		Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+		if (!HttpMethod.GET.equals(exchange.getRequest().getMethod()) || ServerWebExchangeUtils.isAlreadyRouted(exchange)
+				|| primary == null || route == null
+				|| !("http".equals(primary.getScheme()) || "https".equals(primary.getScheme()))) {
+			return chain.filter(exchange);
+		}
+		ServerWebExchangeUtils.setAlreadyRouted(exchange);
+		retryBudget.onRequest();
+		String serviceId = route.getUri().getHost();
+		Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+		Target first = new Target(chosen != null && chosen.hasServer() ? chosen.getServer() : null, primary);
+		if (first.instance() != null) {
+			// reported per attempt below, so the load balancer filter must not report the exchange
+			exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new EmptyResponse());
+		}
+		Attempts attempts = new Attempts(lifecycles(serviceId), new RequestData(exchange.getRequest()));
+		// without header filters this is the request's own, read-only headers
+		HttpHeaders headers = new HttpHeaders();
+		headers.addAll(HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange));
+		headers.remove(HttpHeaders.HOST);
+		long start = System.nanoTime();
+		int[] attempt = { 0 };
+		return Mono.defer(() -> attempt[0]++ == 0 ? hedged(first, serviceId, headers, attempts)
+						: alternate(first, serviceId).defaultIfEmpty(first)
+								.flatMap(target -> attempts.report(target, false, call(target.uri(), headers))))
+				.retryWhen(Retry.backoff(properties.getRetries(), properties.getFirstBackoff())
+						.maxBackoff(properties.getMaxBackoff())
+						// the filter also sees the last failure, which is never retried, so only
+						// withdraw while retries are left
+						.filter(ex -> attempt[0] <= properties.getRetries() && withdraw("gateway.retry"))
+						.onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+				.onErrorResume(UpstreamServerErrorException.class, ex -> Mono.just(ex.response))
+				.flatMap(response -> {
+					exchange.getAttributes().put(ResponseTimingFilter.UPSTREAM_NANOS_ATTR, System.nanoTime() - start);
+					return write(exchange, response);
+				});
+	}
+
+	/**
+	 * The first attempt, to the instance the load balancer filter chose and already reported as
+	 * started, raced against a hedge when hedging is enabled.
+	 */
+	private Mono<ResponseEntity<byte[]>> hedged(Target primary, String serviceId, HttpHeaders headers,
+			Attempts attempts) {
+		Mono<ResponseEntity<byte[]>> firstCall = attempts.report(primary, true, call(primary.uri(), headers));
+		if (!properties.getHedging().isEnabled()) {
+			return firstCall;
+		}
+		Mono<Outcome> first = outcome(firstCall, false);
+		// withdraw only once there is another instance to send the hedge to
+		Mono<Outcome> hedge = Mono.delay(latencyTracker.get())
+				.flatMap(tick -> alternate(primary, serviceId)
+						.switchIfEmpty(Mono.fromRunnable(() -> meterRegistry
+								.counter("gateway.hedge", "routeId", routeId, "outcome", "no_alternate").increment())))
+				.filter(target -> withdraw("gateway.hedge"))
+				.flatMap(target -> outcome(attempts.report(target, false, call(target.uri(), headers)), true));
+		return Flux.merge(first, hedge)
+				.takeUntil(Outcome::succeeded)
+				.last()
+				.flatMap(outcome -> {
+					if (outcome.succeeded() && outcome.hedge()) {
+						meterRegistry.counter("gateway.hedge", "routeId", routeId, "outcome", "won").increment();
+					}
+					return outcome.succeeded() ? Mono.just(outcome.response()) : Mono.error(outcome.error());
+				});
+	}
+
+	private Mono<ResponseEntity<byte[]>> call(URI uri, HttpHeaders headers) {
+		long start = System.nanoTime();
+		return webClient.get().uri(uri)
+				.headers(h -> h.addAll(headers))
+				.exchangeToMono(response -> response.toEntity(byte[].class))
+				.flatMap(response -> {
+					if (response.getStatusCode().is5xxServerError()) {
+						return Mono.error(new UpstreamServerErrorException(response));
+					}
+					latencyTracker.record(System.nanoTime() - start);
+					return Mono.just(response);
+				});
+	}
+
+	/**
+	 * Another instance of the service than the one in {@code primary}, if the load balancer offers one.
+	 */
+	private Mono<Target> alternate(Target primary, String serviceId) {
+		ReactorServiceInstanceLoadBalancer loadBalancer = clientFactory.getInstance(serviceId,
+				ReactorServiceInstanceLoadBalancer.class);
+		if (loadBalancer == null) {
+			return Mono.empty();
+		}
+		return Flux.range(0, 3)
+				.concatMap(i -> Mono.from(loadBalancer.choose()))
+				.filter(Response::hasServer)
+				.map(Response::getServer)
+				.filter(instance -> !(instance.getHost().equals(primary.uri().getHost())
+						&& instance.getPort() == primary.uri().getPort()))
+				.next()
+				.map(instance -> new Target(instance, replaceInstance(primary.uri(), instance)));
+	}
+
+	private Set<LoadBalancerLifecycle> lifecycles(String serviceId) {
+		Map<String, LoadBalancerLifecycle> lifecycles = clientFactory.getInstances(serviceId, LoadBalancerLifecycle.class);
+		return lifecycles == null ? Set.of()
+				: LoadBalancerLifecycleValidator.getSupportedLifecycleProcessors(lifecycles, RequestDataContext.class,
+						ResponseData.class, ServiceInstance.class);
+	}
+
+	private static URI replaceInstance(URI uri, ServiceInstance instance) {
+		return UriComponentsBuilder.fromUri(uri)
+				.scheme(instance.isSecure() ? "https" : "http")
+				.host(instance.getHost())
+				.port(instance.getPort())
+				.build(true)
+				.toUri();
+	}
+
+	private boolean withdraw(String meter) {
+		boolean allowed = retryBudget.tryAcquire();
+		meterRegistry.counter(meter, "routeId", routeId, "outcome", allowed ? "sent" : "budget_exhausted").increment();
+		return allowed;
+	}
+
+	private Mono<Void> write(ServerWebExchange exchange, ResponseEntity<byte[]> upstream) {
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(upstream.getStatusCode());
+		response.getHeaders().putAll(HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of),
+				upstream.getHeaders(), exchange, Type.RESPONSE));
+		response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+		byte[] body = upstream.getBody();
+		if (body == null) {
+			return response.setComplete();
+		}
+		response.getHeaders().setContentLength(body.length);
+		return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+	}
+
+	private static Mono<Outcome> outcome(Mono<ResponseEntity<byte[]>> call, boolean hedge) {
+		return call.map(response -> new Outcome(response, null, hedge))
+				.onErrorResume(ex -> Mono.just(new Outcome(null, ex, hedge)));
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	/**
+	 * Instance an attempt is sent to, null when the route's URL did not come from the load balancer.
+	 */
+	private record Target(ServiceInstance instance, URI uri) {
+	}
+
+	/**
+	 * Reports the attempts of one request to the load balancer lifecycle the way the load balancer
+	 * filter reports a single request: a 5xx is a completed request with a failing status, and an
+	 * attempt cancelled because another one won is discarded after the time it took so far.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private record Attempts(Set<LoadBalancerLifecycle> lifecycles, RequestData requestData) {
+
+		Mono<ResponseEntity<byte[]>> report(Target target, boolean started, Mono<ResponseEntity<byte[]>> call) {
+			if (target.instance() == null || lifecycles.isEmpty()) {
+				return call;
+			}
+			return Mono.defer(() -> {
+				DefaultRequest<RequestDataContext> lbRequest = new DefaultRequest<>(new RequestDataContext(requestData));
+				Response<ServiceInstance> lbResponse = new DefaultResponse(target.instance());
+				if (started) {
+					lbRequest.getContext().setRequestStartTime(System.nanoTime());
+				}
+				else {
+					lifecycles.forEach(lifecycle -> lifecycle.onStartRequest(lbRequest, lbResponse));
+				}
+				// a cancel can still arrive after the attempt completed
+				AtomicBoolean completed = new AtomicBoolean();
+				return call
+						.doOnSuccess(response -> complete(completed, new CompletionContext<>(
+								CompletionContext.Status.SUCCESS, lbRequest, lbResponse, responseData(response))))
+						.doOnError(ex -> complete(completed, ex instanceof UpstreamServerErrorException upstream
+								? new CompletionContext<>(CompletionContext.Status.SUCCESS, lbRequest, lbResponse,
+										responseData(upstream.response))
+								: new CompletionContext<>(CompletionContext.Status.FAILED, ex, lbRequest, lbResponse)))
+						.doOnCancel(() -> complete(completed, new CompletionContext<>(CompletionContext.Status.DISCARD,
+								lbRequest, lbResponse)));
+			});
+		}
+
+		private void complete(AtomicBoolean completed, CompletionContext completionContext) {
+			if (completed.compareAndSet(false, true)) {
+				lifecycles.forEach(lifecycle -> lifecycle.onComplete(completionContext));
+			}
+		}
+
+		private ResponseData responseData(ResponseEntity<byte[]> response) {
+			return new ResponseData(response.getStatusCode(), response.getHeaders(), new LinkedMultiValueMap<>(),
+					requestData);
+		}
+	}
+
+	private record Outcome(ResponseEntity<byte[]> response, Throwable error, boolean hedge) {
+
+		boolean succeeded() {
+			return error == null;
+		}
+	}
+
+	/**
+	 * A 5xx from the service; retried like an error, and returned to the client once retries run out.
+	 */
+	private static class UpstreamServerErrorException extends RuntimeException {
+
+		private final transient ResponseEntity<byte[]> response;
+
+		UpstreamServerErrorException(ResponseEntity<byte[]> response) {
+			super("Upstream responded with " + response.getStatusCode(), null, false, false);
+			this.response = response;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.eazybytes.gatewayserver.filters;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times every routed request and splits it into upstream time (measured by
+ * {@link UpstreamTimingFilter}) and the time spent in the gateway itself. The split up to the
+ * response headers is returned as Server-Timing and X-Response-Time headers; the full request,
+ * including writing the body, is recorded in the gateway.request.timing histograms by route.
+ */
+@Component
+public class ResponseTimingFilter implements GlobalFilter, Ordered {
+
+	static final String UPSTREAM_NANOS_ATTR = ResponseTimingFilter.class.getName() + ".upstreamNanos";
+
+	private final MeterRegistry meterRegistry;
+
+	private final ConcurrentMap<String, Timers> timers = new ConcurrentHashMap<>();
+
+	public ResponseTimingFilter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		long start = System.nanoTime();
+		exchange.getResponse().beforeCommit(() -> {
+			long total = System.nanoTime() - start;
+			long upstream = exchange.getAttributeOrDefault(UPSTREAM_NANOS_ATTR, 0L);
+			HttpHeaders headers = exchange.getResponse().getHeaders();
+			StringBuilder serverTiming = new StringBuilder();
+			if (upstream > 0) {
+				serverTiming.append("upstream;dur=").append(millis(upstream)).append(", ");
+			}
+			serverTiming.append("gateway;dur=").append(millis(total - upstream))
+					.append(", total;dur=").append(millis(total));
+			headers.add("Server-Timing", serverTiming.toString());
+			headers.set("X-Response-Time", millis(total) + "ms");
+			return Mono.empty();
+		});
+		// recorded before completion reaches the caller, not after it like doFinally
+		Runnable record = () -> {
+			long total = System.nanoTime() - start;
+			long upstream = exchange.getAttributeOrDefault(UPSTREAM_NANOS_ATTR, 0L);
+			Timers route = timers.computeIfAbsent(routeId(exchange), this::timers);
+			if (upstream > 0) {
+				route.upstream().record(upstream, TimeUnit.NANOSECONDS);
+			}
+			route.gateway().record(total - upstream, TimeUnit.NANOSECONDS);
+			route.total().record(total, TimeUnit.NANOSECONDS);
+		};
+		return chain.filter(exchange).doOnTerminate(record).doOnCancel(record);
+	}
+
+	private Timers timers(String routeId) {
+		return new Timers(timer(routeId, "upstream"), timer(routeId, "gateway"), timer(routeId, "total"));
+	}
+
+	private Timer timer(String routeId, String phase) {
+		return Timer.builder("gateway.request.timing")
+				.description("Time spent per request phase")
+				.tag("routeId", routeId)
+				.tag("phase", phase)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	private static String routeId(ServerWebExchange exchange) {
+		Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+		return route != null ? route.getId() : "none";
+	}
+
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000d);
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	private record Timers(Timer upstream, Timer gateway, Timer total) {
+	}
+}
@@ -0,0 +1,36 @@
+package com.eazybytes.gatewayserver.filters;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * Turns server compression off for streaming routes. Their responses are relayed chunk by chunk,
+ * and compressing them would buffer each chunk in the compressor and spend CPU on bodies that are
+ * often already compact, so they are sent as the service wrote them.
+ */
+@Component
+public class StreamingCompressionFilter implements GlobalFilter, Ordered {
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		if (StreamingRoutes.isStreaming(exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR))
+				&& ServerHttpResponseDecorator.getNativeResponse(exchange.getResponse())
+						instanceof HttpServerResponse nativeResponse) {
+			nativeResponse.compression(false);
+		}
+		return chain.filter(exchange);
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+}
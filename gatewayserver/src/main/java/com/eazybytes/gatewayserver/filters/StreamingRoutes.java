@@ -0,0 +1,20 @@
+package com.eazybytes.gatewayserver.filters;
+
+import org.springframework.cloud.gateway.route.Route;
+
+/**
+ * Routes carrying large bodies, such as the batch endpoints, are marked with the
+ * {@value #METADATA_KEY} metadata. Their bodies are relayed buffer by buffer, and they are kept out
+ * of filters and statistics that assume short requests.
+ */
+public final class StreamingRoutes {
+
+	public static final String METADATA_KEY = "streaming";
+
+	private StreamingRoutes() {
+	}
+
+	public static boolean isStreaming(Route route) {
+		return route != null && Boolean.TRUE.equals(route.getMetadata().get(METADATA_KEY));
+	}
+}
@@ -0,0 +1,34 @@
+package com.eazybytes.gatewayserver.filters;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs right before the request is proxied and measures until the upstream response headers have
+ * arrived. Retries add up, so the value covers every attempt.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		long start = System.nanoTime();
+		Runnable record = () -> {
+			long previous = exchange.getAttributeOrDefault(ResponseTimingFilter.UPSTREAM_NANOS_ATTR, 0L);
+			exchange.getAttributes().put(ResponseTimingFilter.UPSTREAM_NANOS_ATTR, previous + System.nanoTime() - start);
+		};
+		// recorded before completion is signalled, which is when the response starts being written
+		return chain.filter(exchange).doOnTerminate(record).doOnCancel(record);
+	}
+
+	@Override
+	public int getOrder() {
+		return NettyRoutingFilter.ORDER - 1;
+	}
+}
@@ -0,0 +1,114 @@
+package com.eazybytes.gatewayserver.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load of one service instance: requests in flight and a peak EWMA of its response time, which
+ * jumps to any slower sample and otherwise decays towards recent samples, and towards zero while
+ * the instance gets no traffic so it is probed again.
+ */
+public class InstanceStats {
+
+	private final long decayNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private double cost;
+
+	private long lastUpdateNanos = System.nanoTime();
+
+	private int consecutiveFailures;
+
+	private int ejections;
+
+	/** Whether a request succeeded since the last ejection, which ends the escalation. */
+	private boolean succeededSinceEjection;
+
+	private long ejectedUntilNanos;
+
+	InstanceStats(long decayNanos) {
+		this.decayNanos = decayNanos;
+	}
+
+	void onStart() {
+		inFlight.incrementAndGet();
+	}
+
+	synchronized void onComplete(long rttNanos, boolean failed) {
+		inFlight.updateAndGet(current -> Math.max(0, current - 1));
+		if (rttNanos > 0) {
+			observe(rttNanos, System.nanoTime());
+		}
+		consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+		succeededSinceEjection |= !failed;
+	}
+
+	/**
+	 * A request abandoned before its response, such as a hedged attempt that lost the race: the time
+	 * it took so far is a lower bound of its latency, while its outcome is unknown.
+	 */
+	synchronized void onDiscard(long rttNanos) {
+		inFlight.updateAndGet(current -> Math.max(0, current - 1));
+		if (rttNanos > 0) {
+			observe(rttNanos, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Expected cost of sending one more request here; lower is better.
+	 */
+	double score(long now) {
+		return (latency(now) + 1) * (inFlight.get() + 1);
+	}
+
+	synchronized double latency(long now) {
+		observe(0, now);
+		return cost;
+	}
+
+	private void observe(double rtt, long now) {
+		double weight = Math.exp(-(double) (now - lastUpdateNanos) / decayNanos);
+		lastUpdateNanos = now;
+		cost = rtt > cost ? rtt : cost * weight + rtt * (1 - weight);
+	}
+
+	synchronized boolean isEjected(long now) {
+		if (ejectedUntilNanos != 0 && now - ejectedUntilNanos >= 0) {
+			ejectedUntilNanos = 0;
+		}
+		return ejectedUntilNanos != 0;
+	}
+
+	synchronized int getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	synchronized void eject(long now, long baseNanos) {
+		ejections = Math.min(ejections + 1, 5);
+		ejectedUntilNanos = now + baseNanos * ejections;
+		consecutiveFailures = 0;
+		succeededSinceEjection = false;
+	}
+
+	/**
+	 * The instance is no longer an outlier. Only once it served traffic successfully since its last
+	 * ejection does the next ejection start over at the base time.
+	 */
+	synchronized void recovered() {
+		if (succeededSinceEjection) {
+			ejections = 0;
+		}
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public double getLatencyMillis() {
+		return latency(System.nanoTime()) / 1_000_000d;
+	}
+
+	public synchronized boolean isEjected() {
+		return isEjected(System.nanoTime());
+	}
+}
@@ -0,0 +1,181 @@
+package com.eazybytes.gatewayserver.loadbalancer;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.stereotype.Component;
+
+import com.eazybytes.gatewayserver.config.LoadBalancingProperties;
+import com.eazybytes.gatewayserver.filters.StreamingRoutes;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Feeds {@link InstanceStats} from the load balancer lifecycle, which the gateway's load balancer
+ * filter and the load balanced WebClient call around every request, and exports them per instance.
+ * Stats of an instance that left the discovery list are dropped together with its meters, see
+ * {@link #retain(List)}, so instances replaced on every deployment do not pile up.
+ */
+@Component
+public class InstanceStatsRegistry implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+	/** Per service id, the stats of each instance keyed by host and port. */
+	private final Map<String, Map<String, Registration>> stats = new ConcurrentHashMap<>();
+
+	private final long decayNanos;
+
+	private final MeterRegistry meterRegistry;
+
+	public InstanceStatsRegistry(LoadBalancingProperties properties, MeterRegistry meterRegistry) {
+		this.decayNanos = properties.getDecayTime().toNanos();
+		this.meterRegistry = meterRegistry;
+	}
+
+	public InstanceStats get(ServiceInstance instance) {
+		return stats.computeIfAbsent(instance.getServiceId(), serviceId -> new ConcurrentHashMap<>())
+				.computeIfAbsent(key(instance), key -> register(instance))
+				.stats();
+	}
+
+	/**
+	 * @return the stats of the instance, or null when it is not tracked (any more)
+	 */
+	InstanceStats find(ServiceInstance instance) {
+		Map<String, Registration> serviceStats = stats.get(instance.getServiceId());
+		Registration registration = serviceStats != null ? serviceStats.get(key(instance)) : null;
+		return registration != null ? registration.stats() : null;
+	}
+
+	/**
+	 * Drops the stats and meters of the instances of the service that are not in its current
+	 * discovery list. Called by the load balancer with the list it chose from, after looking up the
+	 * stats of every listed instance, so the common case costs a size comparison.
+	 */
+	void retain(List<ServiceInstance> instances) {
+		if (instances.isEmpty()) {
+			return;
+		}
+		Map<String, Registration> serviceStats = stats.get(instances.get(0).getServiceId());
+		if (serviceStats == null || serviceStats.size() <= instances.size()) {
+			return;
+		}
+		Set<String> current = new HashSet<>();
+		instances.forEach(instance -> current.add(key(instance)));
+		serviceStats.entrySet().removeIf(entry -> {
+			if (current.contains(entry.getKey())) {
+				return false;
+			}
+			entry.getValue().meters().forEach(meterRegistry::remove);
+			meterRegistry.find("gateway.loadbalancer.ejections").tags(entry.getValue().tags()).meters()
+					.forEach(meterRegistry::remove);
+			return true;
+		});
+	}
+
+	private Registration register(ServiceInstance instance) {
+		InstanceStats instanceStats = new InstanceStats(decayNanos);
+		Tags tags = tags(instance);
+		List<Meter> meters = List.of(
+				Gauge.builder("gateway.loadbalancer.latency", instanceStats, InstanceStats::getLatencyMillis)
+						.description("Peak EWMA response time of the instance")
+						.baseUnit("milliseconds")
+						.tags(tags)
+						.register(meterRegistry),
+				Gauge.builder("gateway.loadbalancer.in.flight", instanceStats, InstanceStats::getInFlight)
+						.tags(tags)
+						.register(meterRegistry),
+				Gauge.builder("gateway.loadbalancer.ejected", instanceStats, s -> s.isEjected() ? 1 : 0)
+						.tags(tags)
+						.register(meterRegistry));
+		return new Registration(instanceStats, tags, meters);
+	}
+
+	void ejected(ServiceInstance instance, String reason) {
+		meterRegistry.counter("gateway.loadbalancer.ejections", tags(instance).and("reason", reason)).increment();
+	}
+
+	@Override
+	public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+		return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+	}
+
+	@Override
+	public void onStart(Request<Object> request) {
+	}
+
+	@Override
+	public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+		if (!lbResponse.hasServer()) {
+			return;
+		}
+		if (request.getContext() instanceof TimedRequestContext context) {
+			context.setRequestStartTime(System.nanoTime());
+		}
+		get(lbResponse.getServer()).onStart();
+	}
+
+	@Override
+	public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+		Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+		// discarded without an instance when none was available
+		if (lbResponse == null || !lbResponse.hasServer()) {
+			return;
+		}
+		long rtt = 0;
+		Request<Object> request = completionContext.getLoadBalancerRequest();
+		if (request != null && request.getContext() instanceof TimedRequestContext context
+				&& context.getRequestStartTime() != 0 && !isStreaming(request)) {
+			rtt = System.nanoTime() - context.getRequestStartTime();
+		}
+		boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+				|| (completionContext.getClientResponse() instanceof ResponseData responseData
+						&& responseData.getHttpStatus() != null && responseData.getHttpStatus().is5xxServerError());
+		// not recreated for an instance that left discovery while the request was running
+		InstanceStats instanceStats = find(lbResponse.getServer());
+		if (instanceStats == null) {
+			return;
+		}
+		if (completionContext.status() == CompletionContext.Status.DISCARD) {
+			instanceStats.onDiscard(rtt);
+		}
+		else {
+			instanceStats.onComplete(rtt, failed);
+		}
+	}
+
+	/**
+	 * Transfers on streaming routes last as long as the body, so they are not latency samples.
+	 */
+	private static boolean isStreaming(Request<Object> request) {
+		return request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null
+				&& context.getClientRequest().getAttributes().get(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR) instanceof Route route
+				&& StreamingRoutes.isStreaming(route);
+	}
+
+	private static String key(ServiceInstance instance) {
+		return instance.getHost() + ":" + instance.getPort();
+	}
+
+	private static Tags tags(ServiceInstance instance) {
+		return Tags.of("serviceId", instance.getServiceId(), "instance", key(instance));
+	}
+
+	private record Registration(InstanceStats stats, Tags tags, List<Meter> meters) {
+	}
+}
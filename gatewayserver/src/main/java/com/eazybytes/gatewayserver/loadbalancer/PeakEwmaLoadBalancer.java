@@ -0,0 +1,130 @@
+package com.eazybytes.gatewayserver.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import com.eazybytes.gatewayserver.config.LoadBalancingProperties;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Picks two random instances and sends the request to the one with the lower peak EWMA latency
+ * times requests in flight (power of two choices), so a GC-pausing or overloaded instance quickly
+ * stops getting traffic without the whole pool herding onto the single fastest one.
+ * <p>
+ * Before choosing, instances with failureThreshold consecutive failures, or with a latency
+ * slowRatio times the service's median, are ejected for a while, never more than
+ * maxEjectionPercent of the service at once. The stats of instances that are no longer listed are
+ * dropped on the way.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+	private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+
+	private final InstanceStatsRegistry statsRegistry;
+
+	private final LoadBalancingProperties properties;
+
+	public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+			InstanceStatsRegistry statsRegistry, LoadBalancingProperties properties) {
+		this.supplierProvider = supplierProvider;
+		this.statsRegistry = statsRegistry;
+		this.properties = properties;
+	}
+
+	@Override
+	public Mono<Response<ServiceInstance>> choose(Request request) {
+		ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+		return supplier.get(request).next().map(instances -> {
+			Response<ServiceInstance> response = choose(instances);
+			if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+				callback.selectedServiceInstance(response.getServer());
+			}
+			return response;
+		});
+	}
+
+	private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+		if (instances.isEmpty()) {
+			return new EmptyResponse();
+		}
+		long now = System.nanoTime();
+		List<ServiceInstance> candidates = available(instances, now);
+		statsRegistry.retain(instances);
+		if (candidates.size() == 1) {
+			return new DefaultResponse(candidates.get(0));
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(candidates.size());
+		int second = random.nextInt(candidates.size() - 1);
+		if (second >= first) {
+			second++;
+		}
+		ServiceInstance a = candidates.get(first);
+		ServiceInstance b = candidates.get(second);
+		return new DefaultResponse(statsRegistry.get(a).score(now) <= statsRegistry.get(b).score(now) ? a : b);
+	}
+
+	/**
+	 * The instances that are not ejected, after ejecting new outliers; all of them if none is left.
+	 */
+	private List<ServiceInstance> available(List<ServiceInstance> instances, long now) {
+		int maxEjected = instances.size() * properties.getMaxEjectionPercent() / 100;
+		int ejected = 0;
+		double[] latencies = new double[instances.size()];
+		for (int i = 0; i < instances.size(); i++) {
+			InstanceStats stats = statsRegistry.get(instances.get(i));
+			latencies[i] = stats.latency(now);
+			if (stats.isEjected(now)) {
+				ejected++;
+			}
+		}
+		double slowThreshold = Math.max(properties.getMinSlowLatency().toNanos(),
+				median(latencies) * properties.getSlowRatio());
+
+		List<ServiceInstance> available = new ArrayList<>(instances.size());
+		for (int i = 0; i < instances.size(); i++) {
+			ServiceInstance instance = instances.get(i);
+			InstanceStats stats = statsRegistry.get(instance);
+			if (stats.isEjected(now)) {
+				continue;
+			}
+			String reason = null;
+			if (stats.getConsecutiveFailures() >= properties.getFailureThreshold()) {
+				reason = "failures";
+			} else if (instances.size() >= 3 && latencies[i] > slowThreshold) {
+				reason = "latency";
+			}
+			if (reason != null && ejected < maxEjected) {
+				stats.eject(now, properties.getEjectionTime().toNanos());
+				statsRegistry.ejected(instance, reason);
+				ejected++;
+				continue;
+			}
+			if (reason == null) {
+				stats.recovered();
+			}
+			available.add(instance);
+		}
+		return available.isEmpty() ? instances : available;
+	}
+
+	private static double median(double[] values) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+}
@@ -0,0 +1,30 @@
+package com.eazybytes.gatewayserver.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import com.eazybytes.gatewayserver.config.LoadBalancingProperties;
+
+/**
+ * Load balancer configuration of every service, registered through
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)}. It is deliberately not a
+ * {@code @Configuration}, as it is loaded into each service's child context and must stay out of
+ * component scanning.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(prefix = "eazybank.load-balancer", name = "enabled", havingValue = "true", matchIfMissing = true)
+	public ReactorLoadBalancer<ServiceInstance> peakEwmaLoadBalancer(Environment environment,
+			LoadBalancerClientFactory loadBalancerClientFactory, InstanceStatsRegistry statsRegistry,
+			LoadBalancingProperties properties) {
+		String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+		return new PeakEwmaLoadBalancer(loadBalancerClientFactory.getLazyProvider(serviceId,
+				ServiceInstanceListSupplier.class), statsRegistry, properties);
+	}
+}
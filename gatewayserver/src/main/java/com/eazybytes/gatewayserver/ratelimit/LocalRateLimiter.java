@@ -0,0 +1,178 @@
+package com.eazybytes.gatewayserver.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+
+import com.eazybytes.gatewayserver.config.RateLimiterProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Token bucket rate limiter that keeps its buckets in the gateway, so a rate limited request costs
+ * a cache lookup and a compare-and-set instead of a Redis round trip, and keeps working while Redis
+ * is down. Each bucket is a single {@link AtomicLong} holding the time at which it will be full
+ * again (GCRA), which makes taking tokens lock-free. Keys are tracked in a bounded Caffeine cache.
+ * <p>
+ * Buckets are per gateway instance; {@link RateLimitRedisSync} can share consumption between
+ * instances through Redis in the background. The response headers match {@link RedisRateLimiter}.
+ */
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+	public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+	private final Config defaultConfig;
+
+	private final Cache<String, Bucket> buckets;
+
+	private final Counter allowed;
+
+	private final Counter denied;
+
+	public LocalRateLimiter(RateLimiterProperties properties, MeterRegistry meterRegistry) {
+		super(Config.class, CONFIGURATION_PROPERTY_NAME, (ConfigurationService) null);
+		this.defaultConfig = new Config().setReplenishRate(properties.getReplenishRate())
+				.setBurstCapacity(properties.getBurstCapacity())
+				.setRequestedTokens(properties.getRequestedTokens());
+		this.buckets = Caffeine.newBuilder()
+				.maximumSize(properties.getMaxKeys())
+				.expireAfterAccess(properties.getIdleTimeout())
+				.build();
+		this.allowed = Counter.builder("gateway.ratelimit.requests").tag("outcome", "allowed")
+				.register(meterRegistry);
+		this.denied = Counter.builder("gateway.ratelimit.requests").tag("outcome", "denied")
+				.register(meterRegistry);
+		Gauge.builder("gateway.ratelimit.keys", buckets, Cache::estimatedSize)
+				.description("Keys tracked by the local rate limiter")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public Mono<Response> isAllowed(String routeId, String id) {
+		Config config = getConfig().getOrDefault(routeId, defaultConfig);
+		long now = System.nanoTime();
+		Bucket bucket = buckets.get(routeId + ":" + id, key -> new Bucket(config, now));
+		long remaining = bucket.tryAcquire(config.getRequestedTokens(), now);
+		if (remaining < 0) {
+			denied.increment();
+			return Mono.just(new Response(false, headers(config, 0)));
+		}
+		allowed.increment();
+		return Mono.just(new Response(true, headers(config, remaining)));
+	}
+
+	ConcurrentMap<String, Bucket> buckets() {
+		return buckets.asMap();
+	}
+
+	private static Map<String, String> headers(Config config, long remaining) {
+		return Map.of(RedisRateLimiter.REMAINING_HEADER, Long.toString(remaining),
+				RedisRateLimiter.REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()),
+				RedisRateLimiter.BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()),
+				RedisRateLimiter.REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+	}
+
+	static final class Bucket {
+
+		/** Nanos it takes to replenish one token. */
+		private final long emissionInterval;
+
+		/** How far ahead of now the full time may run before requests are denied. */
+		private final long tolerance;
+
+		private final AtomicLong fullAt;
+
+		/** Tokens taken since the last Redis sync. */
+		private final LongAdder unsynced = new LongAdder();
+
+		/** Only touched by the sync, which handles one bucket at a time. */
+		boolean synced;
+		long contributed;
+		long othersSeen;
+
+		Bucket(Config config, long now) {
+			this.emissionInterval = 1_000_000_000L / Math.max(1, config.getReplenishRate());
+			this.tolerance = emissionInterval * config.getBurstCapacity();
+			this.fullAt = new AtomicLong(now);
+		}
+
+		/**
+		 * @return the tokens left after taking {@code tokens}, or -1 when there are not enough
+		 */
+		long tryAcquire(int tokens, long now) {
+			while (true) {
+				long current = fullAt.get();
+				long next = Math.max(current, now) + tokens * emissionInterval;
+				if (next - now > tolerance) {
+					return -1;
+				}
+				if (fullAt.compareAndSet(current, next)) {
+					unsynced.add(tokens);
+					return (tolerance - (next - now)) / emissionInterval;
+				}
+			}
+		}
+
+		/**
+		 * Takes tokens consumed elsewhere, leaving the bucket empty at most.
+		 */
+		void charge(long tokens, long now) {
+			fullAt.accumulateAndGet(tokens * emissionInterval,
+					(current, cost) -> Math.min(Math.max(current, now) + cost, now + tolerance));
+		}
+
+		long drainUnsynced() {
+			return unsynced.sumThenReset();
+		}
+
+		void restoreUnsynced(long tokens) {
+			unsynced.add(tokens);
+		}
+	}
+
+	public static class Config {
+
+		private int replenishRate;
+
+		private int burstCapacity;
+
+		private int requestedTokens = 1;
+
+		public int getReplenishRate() {
+			return replenishRate;
+		}
+
+		public Config setReplenishRate(int replenishRate) {
+			this.replenishRate = replenishRate;
+			return this;
+		}
+
+		public int getBurstCapacity() {
+			return burstCapacity;
+		}
+
+		public Config setBurstCapacity(int burstCapacity) {
+			this.burstCapacity = burstCapacity;
+			return this;
+		}
+
+		public int getRequestedTokens() {
+			return requestedTokens;
+		}
+
+		public Config setRequestedTokens(int requestedTokens) {
+			this.requestedTokens = requestedTokens;
+			return this;
+		}
+	}
+}
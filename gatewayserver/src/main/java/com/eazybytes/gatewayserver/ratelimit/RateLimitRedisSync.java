@@ -0,0 +1,138 @@
+package com.eazybytes.gatewayserver.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.eazybytes.gatewayserver.config.RateLimiterProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hybrid mode for {@link LocalRateLimiter}: on every interval the tokens each instance took are
+ * added to a shared Redis counter per key, and whatever the other instances took since the last
+ * sync is charged to the local bucket. Requests never wait for Redis; between syncs the cluster
+ * may let through up to one interval's worth of extra requests per instance. When Redis is
+ * unavailable the counts are kept and pushed with the next successful sync.
+ * <p>
+ * A bucket's first sync only records where the shared counter stands, since the counter holds
+ * everything taken since the key was last idle. Each key costs one script call that adds to the
+ * counter and renews its expiry; the calls are issued concurrently over the shared connection, so
+ * the client pipelines them.
+ */
+public class RateLimitRedisSync implements SmartLifecycle {
+
+	private static final Logger logger = LoggerFactory.getLogger(RateLimitRedisSync.class);
+
+	private static final String KEY_PREFIX = "local_rate_limiter.{";
+
+	private static final int CONCURRENCY = 64;
+
+	private static final RedisScript<Long> INCREMENT_SCRIPT = RedisScript.of(
+			"local total = redis.call('incrby', KEYS[1], ARGV[1]) "
+					+ "redis.call('expire', KEYS[1], ARGV[2]) "
+					+ "return total",
+			Long.class);
+
+	private final LocalRateLimiter rateLimiter;
+
+	private final ReactiveStringRedisTemplate redisTemplate;
+
+	private final Duration interval;
+
+	private final Duration keyTimeToLive;
+
+	private final MeterRegistry meterRegistry;
+
+	private volatile Disposable subscription;
+
+	public RateLimitRedisSync(LocalRateLimiter rateLimiter, ReactiveStringRedisTemplate redisTemplate,
+			RateLimiterProperties properties, MeterRegistry meterRegistry) {
+		this.rateLimiter = rateLimiter;
+		this.redisTemplate = redisTemplate;
+		this.interval = properties.getSync().getInterval();
+		this.keyTimeToLive = properties.getIdleTimeout();
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void start() {
+		subscription = Flux.interval(interval, interval)
+				.onBackpressureDrop()
+				.concatMap(tick -> sync(), 1)
+				.subscribe();
+	}
+
+	@Override
+	public void stop() {
+		Disposable current = subscription;
+		if (current != null) {
+			current.dispose();
+			subscription = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return subscription != null;
+	}
+
+	Mono<Void> sync() {
+		return Flux.fromIterable(rateLimiter.buckets().entrySet())
+				.flatMap(entry -> sync(entry.getKey(), entry.getValue()), CONCURRENCY)
+				.then();
+	}
+
+	private Mono<Void> sync(String key, LocalRateLimiter.Bucket bucket) {
+		long taken = bucket.drainUnsynced();
+		if (taken == 0) {
+			return Mono.empty();
+		}
+		String redisKey = KEY_PREFIX + key + "}.taken";
+		return redisTemplate.execute(INCREMENT_SCRIPT, List.of(redisKey),
+						List.of(Long.toString(taken), Long.toString(keyTimeToLive.toSeconds())))
+				.next()
+				.doOnNext(total -> {
+					charge(bucket, taken, total);
+					meterRegistry.counter("gateway.ratelimit.sync", "outcome", "success").increment();
+				})
+				.onErrorResume(ex -> {
+					bucket.restoreUnsynced(taken);
+					meterRegistry.counter("gateway.ratelimit.sync", "outcome", "failure").increment();
+					logger.debug("Rate limit sync for {} failed: {}", key, ex.getMessage());
+					return Mono.empty();
+				})
+				.then();
+	}
+
+	private static void charge(LocalRateLimiter.Bucket bucket, long taken, long total) {
+		if (!bucket.synced) {
+			// the counter holds what was taken before this bucket existed, which it has already refilled from
+			bucket.synced = true;
+			bucket.contributed = taken;
+			bucket.othersSeen = Math.max(0, total - taken);
+			return;
+		}
+		bucket.contributed += taken;
+		long others = total - bucket.contributed;
+		if (others < bucket.othersSeen) {
+			// the Redis counter expired and started over
+			bucket.contributed = taken;
+			bucket.othersSeen = Math.max(0, total - taken);
+			return;
+		}
+		long newlyTaken = others - bucket.othersSeen;
+		bucket.othersSeen = others;
+		if (newlyTaken > 0) {
+			bucket.charge(newlyTaken, System.nanoTime());
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.eazybytes.gatewayserver.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the most recent response times in a ring buffer and derives a percentile from them every
+ * {@value #RECOMPUTE_EVERY} samples, so reading the current value is a volatile read.
+ */
+public class LatencyTracker {
+
+	private static final int SAMPLES = 1024;
+
+	private static final int RECOMPUTE_EVERY = 64;
+
+	private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final double percentile;
+
+	private final long minNanos;
+
+	private final long maxNanos;
+
+	private volatile long current;
+
+	public LatencyTracker(double percentile, Duration initial, Duration min, Duration max) {
+		this.percentile = percentile;
+		this.minNanos = min.toNanos();
+		this.maxNanos = max.toNanos();
+		this.current = clamp(initial.toNanos());
+	}
+
+	public void record(long nanos) {
+		long n = count.getAndIncrement();
+		samples.set((int) (n % SAMPLES), nanos);
+		if (n >= RECOMPUTE_EVERY && n % RECOMPUTE_EVERY == 0) {
+			int size = (int) Math.min(n, SAMPLES);
+			long[] copy = new long[size];
+			for (int i = 0; i < size; i++) {
+				copy[i] = samples.get(i);
+			}
+			Arrays.sort(copy);
+			current = clamp(copy[(int) Math.min(size - 1, Math.ceil(percentile * size) - 1)]);
+		}
+	}
+
+	public Duration get() {
+		return Duration.ofNanos(current);
+	}
+
+	private long clamp(long nanos) {
+		return Math.max(minNanos, Math.min(maxNanos, nanos));
+	}
+}
@@ -0,0 +1,52 @@
+package com.eazybytes.gatewayserver.resilience;
+
+/**
+ * Token bucket that caps retries to a share of the traffic: every request deposits a fraction of a
+ * token, every retry or hedge withdraws a whole one. A small time based refill lets a quiet route
+ * retry as well. When a backend fails outright the budget runs dry after a few retries instead of
+ * multiplying the load on it.
+ */
+public class RetryBudget {
+
+	private final double depositPerRequest;
+
+	private final double refillPerNano;
+
+	private final double maxBalance;
+
+	private double balance;
+
+	private long lastRefillNanos = System.nanoTime();
+
+	public RetryBudget(double percent, double minRetriesPerSecond, double maxBalance) {
+		this.depositPerRequest = percent / 100;
+		this.refillPerNano = minRetriesPerSecond / 1_000_000_000d;
+		this.maxBalance = maxBalance;
+		this.balance = Math.min(maxBalance, minRetriesPerSecond);
+	}
+
+	public synchronized void onRequest() {
+		refill();
+		balance = Math.min(maxBalance, balance + depositPerRequest);
+	}
+
+	public synchronized boolean tryAcquire() {
+		refill();
+		if (balance < 1) {
+			return false;
+		}
+		balance -= 1;
+		return true;
+	}
+
+	public synchronized double getBalance() {
+		refill();
+		return balance;
+	}
+
+	private void refill() {
+		long now = System.nanoTime();
+		balance = Math.min(maxBalance, balance + (now - lastRefillNanos) * refillPerNano);
+		lastRefillNanos = now;
+	}
+}
@@ -0,0 +1,107 @@
+package com.eazybytes.gatewayserver.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+
+import com.eazybytes.gatewayserver.config.JwtCacheProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * Remembers the authentication built for each bearer token, keyed by the SHA-256 hash of the
+ * token, so repeated calls with the same token skip signature verification, claim validation and
+ * the role conversion. Entries expire at the token's exp claim, or after max-time-to-live if that
+ * comes first. Concurrent first requests with the same token share one verification, which keeps
+ * running when one of them is cancelled, and failed verifications are not cached.
+ */
+public class CachingJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+	private final JwtReactiveAuthenticationManager delegate;
+
+	private final AsyncCache<String, Authentication> cache;
+
+	public CachingJwtAuthenticationManager(ReactiveJwtDecoder jwtDecoder,
+			Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+			JwtCacheProperties properties, MeterRegistry meterRegistry) {
+		this(jwtDecoder, jwtAuthenticationConverter, properties, meterRegistry, Ticker.systemTicker());
+	}
+
+	CachingJwtAuthenticationManager(ReactiveJwtDecoder jwtDecoder,
+			Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+			JwtCacheProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+		this.delegate = new JwtReactiveAuthenticationManager(jwtDecoder);
+		this.delegate.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(properties.getMaxSize())
+				.expireAfter(new UntilExpiry(properties.getMaxTimeToLive()))
+				.recordStats()
+				.ticker(ticker)
+				.buildAsync();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtAuthentication");
+	}
+
+	@Override
+	public Mono<Authentication> authenticate(Authentication authentication) {
+		if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+			return delegate.authenticate(authentication);
+		}
+		return Mono.fromFuture(() -> cache.get(hash(bearer.getToken()),
+				(key, executor) -> delegate.authenticate(bearer).toFuture()), true);
+	}
+
+	private static String hash(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static final class UntilExpiry implements Expiry<String, Authentication> {
+
+		private final long maxNanos;
+
+		UntilExpiry(Duration maxTimeToLive) {
+			this.maxNanos = maxTimeToLive.toNanos();
+		}
+
+		@Override
+		public long expireAfterCreate(String key, Authentication value, long currentTime) {
+			if (value.getPrincipal() instanceof Jwt jwt && jwt.getExpiresAt() != null) {
+				long untilExpiry = Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos();
+				return Math.max(0, Math.min(untilExpiry, maxNanos));
+			}
+			return maxNanos;
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, Authentication value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+
+		@Override
+		public long expireAfterRead(String key, Authentication value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
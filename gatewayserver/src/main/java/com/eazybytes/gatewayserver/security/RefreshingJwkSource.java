@@ -0,0 +1,127 @@
+package com.eazybytes.gatewayserver.security;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.eazybytes.gatewayserver.config.JwtCacheProperties;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * JWK source for the JWT decoder that keeps the key set in memory and fetches it from the
+ * authorization server on start-up and then on a fixed interval, so no request waits for the key
+ * set unless it is signed with a key id we have not seen yet. Those fetches are shared between
+ * concurrent requests and spaced at least jwk-min-refresh-interval apart.
+ */
+public class RefreshingJwkSource implements Function<SignedJWT, Flux<JWK>>, SmartLifecycle {
+
+	private static final Logger logger = LoggerFactory.getLogger(RefreshingJwkSource.class);
+
+	private final WebClient webClient;
+
+	private final String jwkSetUri;
+
+	private final Duration refreshInterval;
+
+	private final long minRefreshNanos;
+
+	private volatile JWKSet jwkSet = new JWKSet();
+
+	private volatile long lastRefreshNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+	private Mono<JWKSet> inFlight;
+
+	private volatile Disposable subscription;
+
+	public RefreshingJwkSource(WebClient webClient, String jwkSetUri, JwtCacheProperties properties) {
+		this.webClient = webClient;
+		this.jwkSetUri = jwkSetUri;
+		this.refreshInterval = properties.getJwkRefreshInterval();
+		this.minRefreshNanos = properties.getJwkMinRefreshInterval().toNanos();
+	}
+
+	@Override
+	public Flux<JWK> apply(SignedJWT jwt) {
+		JWKMatcher matcher = JWKMatcher.forJWSHeader(jwt.getHeader());
+		if (matcher == null) {
+			return Flux.empty();
+		}
+		JWKSelector selector = new JWKSelector(matcher);
+		List<JWK> keys = selector.select(jwkSet);
+		if (!keys.isEmpty()) {
+			return Flux.fromIterable(keys);
+		}
+		if (System.nanoTime() - lastRefreshNanos < minRefreshNanos) {
+			return Flux.empty();
+		}
+		return refresh().flatMapIterable(selector::select);
+	}
+
+	private synchronized Mono<JWKSet> refresh() {
+		if (inFlight == null) {
+			inFlight = webClient.get().uri(jwkSetUri)
+					.retrieve()
+					.bodyToMono(String.class)
+					.map(body -> {
+						try {
+							return JWKSet.parse(body);
+						} catch (ParseException ex) {
+							throw new IllegalStateException("Invalid JWK set from " + jwkSetUri, ex);
+						}
+					})
+					.doOnNext(fetched -> {
+						jwkSet = fetched;
+						lastRefreshNanos = System.nanoTime();
+						clearInFlight();
+					})
+					// cleared before callers see the result, so the next lookup is throttled, not joined
+					.doOnTerminate(this::clearInFlight)
+					.cache();
+		}
+		return inFlight;
+	}
+
+	private synchronized void clearInFlight() {
+		inFlight = null;
+	}
+
+	@Override
+	public void start() {
+		subscription = Flux.interval(Duration.ZERO, refreshInterval)
+				.onBackpressureDrop()
+				.concatMap(tick -> refresh()
+						.onErrorResume(ex -> {
+							logger.warn("Could not refresh the JWK set from {}: {}", jwkSetUri, ex.getMessage());
+							return Mono.empty();
+						}), 1)
+				.subscribe();
+	}
+
+	@Override
+	public void stop() {
+		Disposable current = subscription;
+		if (current != null) {
+			current.dispose();
+			subscription = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return subscription != null;
+	}
+}
@@ -0,0 +1,203 @@
+package com.eazybytes.gatewayserver.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.eazybytes.gatewayserver.config.ConcurrencyLimitProperties;
+import com.eazybytes.gatewayserver.config.CustomerAggregationProperties;
+import com.eazybytes.gatewayserver.dto.CustomerDetailsDto;
+import com.eazybytes.gatewayserver.dto.SectionResultDto.Status;
+import com.eazybytes.gatewayserver.filters.AdaptiveConcurrencyLimitFilter;
+import com.eazybytes.gatewayserver.filters.FilterUtility;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * A stub server stands in for the three services; the load balancer is replaced by a filter that
+ * sends {@code lb://SERVICE/...} to {@code /service/...} on the stub.
+ */
+class CustomerDetailsAggregatorTests {
+
+	private final Map<String, HttpHeaders> requests = new ConcurrentHashMap<>();
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ConcurrencyLimitProperties limitProperties = new ConcurrencyLimitProperties();
+	private final ReactiveResilience4JCircuitBreakerFactory circuitBreakerFactory = new ReactiveResilience4JCircuitBreakerFactory(
+			CircuitBreakerRegistry.ofDefaults(), TimeLimiterRegistry.ofDefaults());
+	@SuppressWarnings("unchecked")
+	private final RateLimiter<Object> rateLimiter = mock(RateLimiter.class);
+	private DisposableServer services;
+	private AdaptiveConcurrencyLimitFilter concurrencyLimit;
+	private CustomerDetailsAggregator aggregator;
+
+	@BeforeEach
+	void setUp() {
+		services = HttpServer.create().port(0)
+				.route(routes -> routes
+						.get("/accounts/api/fetch", (request, response) -> {
+							requests.put("accounts", toHttpHeaders(request.requestHeaders()));
+							return response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+									.sendString(Mono.just("{\"accountNumber\":1234567890}"));
+						})
+						.get("/loans/api/fetch", (request, response) -> {
+							requests.put("loans", toHttpHeaders(request.requestHeaders()));
+							return response.status(500).send();
+						})
+						.get("/cards/api/fetch", (request, response) -> {
+							requests.put("cards", toHttpHeaders(request.requestHeaders()));
+							return response.status(404).send();
+						}))
+				.bindNow();
+		LoadBalancedExchangeFilterFunction loadBalancer = (request, next) -> {
+			URI uri = request.url();
+			URI resolved = UriComponentsBuilder.fromUri(uri).scheme("http").host("localhost").port(services.port())
+					.replacePath("/" + uri.getHost().toLowerCase() + uri.getPath()).build(true).toUri();
+			return next.exchange(ClientRequest.from(request).url(resolved).build());
+		};
+		when(rateLimiter.isAllowed(anyString(), anyString()))
+				.thenReturn(Mono.just(new RateLimiter.Response(true, Map.of())));
+		limitProperties.setInitialLimit(1);
+		limitProperties.setMinLimit(1);
+		limitProperties.setMaxQueue(0);
+		concurrencyLimit = new AdaptiveConcurrencyLimitFilter(limitProperties, meterRegistry);
+		@SuppressWarnings("unchecked")
+		ObjectProvider<AdaptiveConcurrencyLimitFilter> limitProvider = mock(ObjectProvider.class);
+		when(limitProvider.getIfAvailable()).thenReturn(concurrencyLimit);
+		aggregator = new CustomerDetailsAggregator(WebClient.builder(), loadBalancer,
+				new CustomerAggregationProperties(), circuitBreakerFactory, rateLimiter,
+				exchange -> Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst("user")), limitProvider);
+	}
+
+	@AfterEach
+	void tearDown() {
+		services.disposeNow();
+	}
+
+	@Test
+	void sectionsAreFetchedFromTheServicesWithTheClientsCredentials() {
+		MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer token")
+				.header("user", "alice")
+				.header("Cookie", "session=secret"));
+
+		CustomerDetailsDto details = aggregator.fetchCustomerDetails("corr-1", "9999999999", exchange)
+				.block(Duration.ofSeconds(5));
+
+		assertThat(requests).containsOnlyKeys("accounts", "loans", "cards");
+		requests.values().forEach(headers -> {
+			assertThat(headers.getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer token");
+			assertThat(headers.getFirst("user")).isEqualTo("alice");
+			assertThat(headers.getFirst(FilterUtility.CORRELATION_ID)).isEqualTo("corr-1");
+			assertThat(headers.containsKey("Cookie")).isFalse();
+		});
+		assertThat(details.getAccounts().getStatus()).isEqualTo(Status.OK);
+		assertThat(details.getAccounts().getData().get("accountNumber").asLong()).isEqualTo(1234567890L);
+		assertThat(details.getLoans().getStatus()).isEqualTo(Status.ERROR);
+		assertThat(details.getCards().getStatus()).isEqualTo(Status.NOT_FOUND);
+	}
+
+	@Test
+	void cardsAreChargedToTheRateLimiterOfTheirRoute() {
+		when(rateLimiter.isAllowed("cards", "alice")).thenReturn(Mono.just(new RateLimiter.Response(false, Map.of())));
+
+		CustomerDetailsDto details = aggregator
+				.fetchCustomerDetails("corr-1", "9999999999", exchange(MockServerHttpRequest.get("/").header("user", "alice")))
+				.block(Duration.ofSeconds(5));
+
+		verify(rateLimiter).isAllowed("cards", "alice");
+		assertThat(requests).doesNotContainKey("cards");
+		assertThat(details.getCards().getStatus()).isEqualTo(Status.ERROR);
+		assertThat(details.getAccounts().getStatus()).isEqualTo(Status.OK);
+	}
+
+	@Test
+	void requestsWithoutARateLimiterKeyAreDeniedLikeOnTheRoute() {
+		CustomerDetailsDto details = aggregator
+				.fetchCustomerDetails("corr-1", "9999999999", exchange(MockServerHttpRequest.get("/")))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(requests).doesNotContainKey("cards");
+		assertThat(details.getCards().getStatus()).isEqualTo(Status.ERROR);
+	}
+
+	@Test
+	void accountsAreNotCalledWhileTheAccountsCircuitBreakerIsOpen() {
+		circuitBreakerFactory.getCircuitBreakerRegistry().circuitBreaker("accountsCircuitBreaker").transitionToOpenState();
+
+		CustomerDetailsDto details = aggregator
+				.fetchCustomerDetails("corr-1", "9999999999", exchange(MockServerHttpRequest.get("/").header("user", "alice")))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(requests).doesNotContainKey("accounts");
+		assertThat(details.getAccounts().getStatus()).isEqualTo(Status.ERROR);
+		assertThat(details.getCards().getStatus()).isEqualTo(Status.NOT_FOUND);
+	}
+
+	@Test
+	void errorStatusesDoNotCountAgainstTheCircuitBreaker() {
+		services.disposeNow();
+		services = HttpServer.create().port(0)
+				.route(routes -> routes.get("/accounts/api/fetch", (request, response) -> response.status(404).send()))
+				.bindNow();
+
+		aggregator.fetchCustomerDetails("corr-1", "9999999999", exchange(MockServerHttpRequest.get("/")))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(circuitBreakerFactory.getCircuitBreakerRegistry().circuitBreaker("accountsCircuitBreaker")
+				.getMetrics().getNumberOfFailedCalls()).isZero();
+	}
+
+	@Test
+	void sectionsTakeAPermitFromTheConcurrencyLimitOfTheirRoute() {
+		// holds the only permit of the loans route
+		Mono.never().as(call -> concurrencyLimit.limit("loans", call, result -> false)).subscribe();
+
+		CustomerDetailsDto details = aggregator
+				.fetchCustomerDetails("corr-1", "9999999999", exchange(MockServerHttpRequest.get("/").header("user", "alice")))
+				.block(Duration.ofSeconds(5));
+
+		assertThat(requests).doesNotContainKey("loans");
+		assertThat(details.getLoans().getStatus()).isEqualTo(Status.ERROR);
+		assertThat(meterRegistry.counter("gateway.concurrency.rejected", "routeId", "loans").count()).isEqualTo(1);
+		assertThat(details.getAccounts().getStatus()).isEqualTo(Status.OK);
+		assertThat(meterRegistry.get("gateway.concurrency.in.flight").tag("routeId", "accounts").gauge().value())
+				.isZero();
+	}
+
+	private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+		return MockServerWebExchange.from(request);
+	}
+
+	private static HttpHeaders toHttpHeaders(io.netty.handler.codec.http.HttpHeaders nettyHeaders) {
+		HttpHeaders headers = new HttpHeaders();
+		nettyHeaders.forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+		return headers;
+	}
+}
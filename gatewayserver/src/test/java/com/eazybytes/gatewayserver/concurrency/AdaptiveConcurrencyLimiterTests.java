@@ -0,0 +1,131 @@
+package com.eazybytes.gatewayserver.concurrency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.eazybytes.gatewayserver.config.ConcurrencyLimitProperties;
+
+import reactor.core.Disposable;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+	@Test
+	void requestsOverTheLimitWaitInOrderAndAreRejectedOnceTheQueueIsFull() {
+		AdaptiveConcurrencyLimiter limiter = limiter(2, 2);
+		assertThat(acquireNow(limiter)).isTrue();
+		assertThat(acquireNow(limiter)).isTrue();
+
+		List<String> admitted = new ArrayList<>();
+		limiter.acquire().subscribe(permit -> admitted.add("first"));
+		limiter.acquire().subscribe(permit -> admitted.add("second"));
+
+		assertThat(limiter.acquire().hasElement().block(Duration.ofSeconds(1))).isFalse();
+		assertThat(limiter.getQueued()).isEqualTo(2);
+
+		limiter.release(0, false);
+		assertThat(admitted).containsExactly("first");
+		limiter.release(0, false);
+		assertThat(admitted).containsExactly("first", "second");
+		assertThat(limiter.getInFlight()).isEqualTo(2);
+		assertThat(limiter.getQueued()).isZero();
+	}
+
+	@Test
+	void abandonedWaiterDoesNotLeakAPermit() {
+		AdaptiveConcurrencyLimiter limiter = limiter(1, 5);
+		assertThat(acquireNow(limiter)).isTrue();
+		Disposable waiter = limiter.acquire().subscribe();
+
+		waiter.dispose();
+		limiter.release(0, false);
+
+		assertThat(limiter.getQueued()).isZero();
+		assertThat(limiter.getInFlight()).isZero();
+		assertThat(acquireNow(limiter)).isTrue();
+	}
+
+	@Test
+	void limitGrowsWhileTheBackendKeepsItsLatencyUnderFullLoad() {
+		AdaptiveConcurrencyLimiter limiter = limiter(4, 0);
+
+		saturate(limiter, FAST, 100);
+
+		assertThat(limiter.getLimit()).isGreaterThan(4);
+	}
+
+	@Test
+	void limitShrinksWhenTheBackendSlowsDown() {
+		AdaptiveConcurrencyLimiter limiter = limiter(4, 0);
+		saturate(limiter, FAST, 100);
+		int grown = limiter.getLimit();
+
+		saturate(limiter, SLOW, 20);
+
+		assertThat(limiter.getLimit()).isLessThan(grown / 2);
+	}
+
+	@Test
+	void failuresCutTheLimitDownToTheMinimum() {
+		AdaptiveConcurrencyLimiter limiter = limiter(40, 0);
+
+		for (int i = 0; i < 200; i++) {
+			assertThat(acquireNow(limiter)).isTrue();
+			limiter.release(FAST, true);
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+
+	@Test
+	void lightTrafficLeavesTheLimitAlone() {
+		AdaptiveConcurrencyLimiter limiter = limiter(20, 0);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(acquireNow(limiter)).isTrue();
+			limiter.release(i % 2 == 0 ? FAST : SLOW, false);
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(20);
+	}
+
+	/**
+	 * Keeps every permit in use and recycles one at a time with the given round trip time.
+	 */
+	private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos, int releases) {
+		while (limiter.getInFlight() < limiter.getLimit()) {
+			assertThat(acquireNow(limiter)).isTrue();
+		}
+		for (int i = 0; i < releases; i++) {
+			limiter.release(rttNanos, false);
+			while (limiter.getInFlight() < limiter.getLimit()) {
+				assertThat(acquireNow(limiter)).isTrue();
+			}
+		}
+	}
+
+	private static boolean acquireNow(AdaptiveConcurrencyLimiter limiter) {
+		AtomicReference<Boolean> permit = new AtomicReference<>();
+		limiter.acquire().subscribe(permit::set).dispose();
+		return Boolean.TRUE.equals(permit.get());
+	}
+
+	private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxQueue) {
+		ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+		properties.setInitialLimit(initialLimit);
+		properties.setMinLimit(2);
+		properties.setMaxLimit(50);
+		properties.setMaxQueue(maxQueue);
+		return new AdaptiveConcurrencyLimiter(properties);
+	}
+}
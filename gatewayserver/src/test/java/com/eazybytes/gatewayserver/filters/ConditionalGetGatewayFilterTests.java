@@ -0,0 +1,133 @@
+package com.eazybytes.gatewayserver.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.cache.LocalResponseCacheGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.ResponseCacheManagerFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.keygenerator.CacheKeyGenerator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The filter in front of the gateway's local response cache, as on the info routes, with an
+ * upstream that counts its calls and answers with the current build version.
+ */
+class ConditionalGetGatewayFilterTests {
+
+	private final ConditionalGetGatewayFilter conditionalGet = new ConditionalGetGatewayFilter();
+	private final GatewayFilter responseCache = new LocalResponseCacheGatewayFilterFactory(
+			new ResponseCacheManagerFactory(new CacheKeyGenerator()), Duration.ofMinutes(1), DataSize.ofMegabytes(1))
+			.apply(new LocalResponseCacheGatewayFilterFactory.RouteCacheConfiguration()
+					.setTimeToLive(Duration.ofMinutes(1)));
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private HttpStatus upstreamStatus = HttpStatus.OK;
+	private String buildVersion = "1";
+
+	@Test
+	void missIsTaggedWithTheHashOfTheBody() {
+		MockServerWebExchange exchange = send(request());
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(exchange.getResponse().getHeaders().getETag()).matches("\"[0-9a-f]{32}\"");
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(body());
+		assertThat(upstreamCalls).hasValue(1);
+	}
+
+	@Test
+	void hitCarriesTheSameTagAsTheMiss() {
+		String etag = send(request()).getResponse().getHeaders().getETag();
+		buildVersion = "2";
+
+		MockServerWebExchange hit = send(request());
+
+		assertThat(upstreamCalls).hasValue(1);
+		assertThat(hit.getResponse().getHeaders().getETag()).isEqualTo(etag);
+		assertThat(hit.getResponse().getBodyAsString().block()).contains("\"buildVersion\":\"1\"");
+	}
+
+	@Test
+	void matchingIfNoneMatchIsAnsweredWithNotModified() {
+		String etag = send(request()).getResponse().getHeaders().getETag();
+
+		for (String ifNoneMatch : new String[] { etag, "W/" + etag, "\"other\", " + etag, "*" }) {
+			MockServerWebExchange exchange = send(request().header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch));
+
+			assertThat(exchange.getResponse().getStatusCode()).as(ifNoneMatch).isEqualTo(HttpStatus.NOT_MODIFIED);
+			assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(etag);
+			assertThat(exchange.getResponse().getHeaders().getContentType()).isNull();
+			assertThat(exchange.getResponse().getBodyAsString().block()).isNullOrEmpty();
+		}
+	}
+
+	@Test
+	void staleIfNoneMatchGetsTheFullResponse() {
+		send(request());
+
+		MockServerWebExchange exchange = send(request().header(HttpHeaders.IF_NONE_MATCH, "\"outdated\""));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(body());
+	}
+
+	@Test
+	void nonOkResponsesPassThroughUntagged() {
+		upstreamStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+		MockServerWebExchange exchange = send(request().header(HttpHeaders.IF_NONE_MATCH, "*"));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(exchange.getResponse().getHeaders().getETag()).isNull();
+		assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(body());
+	}
+
+	@Test
+	void entriesAreNotSharedBetweenAuthorizationHeaders() {
+		send(request().header(HttpHeaders.AUTHORIZATION, "Bearer alice"));
+		buildVersion = "2";
+
+		MockServerWebExchange other = send(request().header(HttpHeaders.AUTHORIZATION, "Bearer bob"));
+		MockServerWebExchange again = send(request().header(HttpHeaders.AUTHORIZATION, "Bearer alice"));
+
+		assertThat(upstreamCalls).hasValue(2);
+		assertThat(other.getResponse().getBodyAsString().block()).contains("\"buildVersion\":\"2\"");
+		assertThat(again.getResponse().getBodyAsString().block()).contains("\"buildVersion\":\"1\"");
+	}
+
+	private MockServerWebExchange send(MockServerHttpRequest.BaseBuilder<?> request) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		conditionalGet.filter(exchange, ex -> responseCache.filter(ex, this::upstream)).block(Duration.ofSeconds(5));
+		return exchange;
+	}
+
+	private Mono<Void> upstream(ServerWebExchange exchange) {
+		upstreamCalls.incrementAndGet();
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(upstreamStatus);
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		DataBuffer buffer = response.bufferFactory().wrap(body().getBytes(StandardCharsets.UTF_8));
+		return response.writeWith(Mono.just(buffer));
+	}
+
+	private String body() {
+		return "{\"buildVersion\":\"" + buildVersion + "\"}";
+	}
+
+	private static MockServerHttpRequest.BaseBuilder<?> request() {
+		return MockServerHttpRequest.get("/eazybank/accounts/api/build-info");
+	}
+}
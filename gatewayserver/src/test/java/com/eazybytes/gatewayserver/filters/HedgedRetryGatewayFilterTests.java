@@ -0,0 +1,200 @@
+package com.eazybytes.gatewayserver.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.eazybytes.gatewayserver.config.HedgedRetryProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Budget accounting of hedges and retries: a token is only withdrawn for an attempt that is really
+ * sent. The budget has no time based refill here and every request deposits ten tokens.
+ */
+class HedgedRetryGatewayFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final LoadBalancerClientFactory clientFactory = mock(LoadBalancerClientFactory.class);
+	private final List<DisposableServer> servers = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		servers.forEach(DisposableServer::disposeNow);
+	}
+
+	@Test
+	void hedgeWithoutAnotherInstanceTakesNoBudget() {
+		AtomicInteger hits = new AtomicInteger();
+		DisposableServer primary = server(hits, HttpStatus.OK, Duration.ofMillis(300));
+		instances(primary);
+		HedgedRetryGatewayFilter filter = filter(hedgingProperties());
+
+		MockServerWebExchange exchange = exchange(primary);
+		filter.filter(exchange, ex -> Mono.empty()).block(Duration.ofSeconds(5));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(hits).hasValue(1);
+		assertThat(budget()).isEqualTo(10);
+		assertThat(hedges("no_alternate")).isEqualTo(1);
+		assertThat(hedges("sent")).isZero();
+	}
+
+	@Test
+	void hedgeToAnotherInstanceTakesOneToken() {
+		AtomicInteger primaryHits = new AtomicInteger();
+		AtomicInteger alternateHits = new AtomicInteger();
+		DisposableServer primary = server(primaryHits, HttpStatus.OK, Duration.ofMillis(500));
+		DisposableServer alternate = server(alternateHits, HttpStatus.OK, Duration.ZERO);
+		instances(primary, alternate);
+		HedgedRetryGatewayFilter filter = filter(hedgingProperties());
+
+		MockServerWebExchange exchange = exchange(primary);
+		filter.filter(exchange, ex -> Mono.empty()).block(Duration.ofSeconds(5));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(alternateHits).hasValue(1);
+		assertThat(budget()).isEqualTo(9);
+		assertThat(hedges("sent")).isEqualTo(1);
+		assertThat(hedges("won")).isEqualTo(1);
+	}
+
+	@Test
+	void exhaustedRetriesTakeOneTokenPerRetrySent() {
+		AtomicInteger hits = new AtomicInteger();
+		DisposableServer primary = server(hits, HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO);
+		instances(primary);
+		HedgedRetryProperties properties = retryProperties(1000);
+		HedgedRetryGatewayFilter filter = filter(properties);
+
+		MockServerWebExchange exchange = exchange(primary);
+		filter.filter(exchange, ex -> Mono.empty()).block(Duration.ofSeconds(5));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(hits).hasValue(3);
+		assertThat(budget()).isEqualTo(8);
+		assertThat(retries("sent")).isEqualTo(2);
+		assertThat(retries("budget_exhausted")).isZero();
+	}
+
+	@Test
+	void retriesStopWhenTheBudgetRunsDry() {
+		AtomicInteger hits = new AtomicInteger();
+		DisposableServer primary = server(hits, HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO);
+		instances(primary);
+		// one token per request
+		HedgedRetryGatewayFilter filter = filter(retryProperties(100));
+
+		MockServerWebExchange exchange = exchange(primary);
+		filter.filter(exchange, ex -> Mono.empty()).block(Duration.ofSeconds(5));
+
+		assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(hits).hasValue(2);
+		assertThat(budget()).isZero();
+		assertThat(retries("sent")).isEqualTo(1);
+		assertThat(retries("budget_exhausted")).isEqualTo(1);
+	}
+
+	private HedgedRetryGatewayFilter filter(HedgedRetryProperties properties) {
+		@SuppressWarnings("unchecked")
+		ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+		when(headersFilters.getIfAvailable(any())).thenReturn(List.of());
+		return new HedgedRetryGatewayFilter("loans", properties, WebClient.create(), clientFactory, headersFilters,
+				meterRegistry);
+	}
+
+	private static HedgedRetryProperties hedgingProperties() {
+		HedgedRetryProperties properties = retryProperties(1000);
+		properties.setRetries(0);
+		properties.getHedging().setEnabled(true);
+		properties.getHedging().setInitialDelay(Duration.ofMillis(50));
+		properties.getHedging().setMinDelay(Duration.ofMillis(1));
+		return properties;
+	}
+
+	private static HedgedRetryProperties retryProperties(double budgetPercent) {
+		HedgedRetryProperties properties = new HedgedRetryProperties();
+		properties.setRetries(2);
+		properties.setFirstBackoff(Duration.ofMillis(1));
+		properties.setMaxBackoff(Duration.ofMillis(5));
+		properties.setBudgetPercent(budgetPercent);
+		properties.setMinRetriesPerSecond(0);
+		properties.setMaxBudget(50);
+		properties.getHedging().setEnabled(false);
+		return properties;
+	}
+
+	private DisposableServer server(AtomicInteger hits, HttpStatus status, Duration delay) {
+		DisposableServer server = HttpServer.create().port(0)
+				.handle((request, response) -> {
+					hits.incrementAndGet();
+					return Mono.delay(delay).then(response.status(status.value()).sendString(Mono.just("{}")).then());
+				})
+				.bindNow();
+		servers.add(server);
+		return server;
+	}
+
+	/**
+	 * The load balancer hands out the given servers round robin.
+	 */
+	private void instances(DisposableServer... instances) {
+		AtomicInteger next = new AtomicInteger();
+		ReactorServiceInstanceLoadBalancer loadBalancer = mock(ReactorServiceInstanceLoadBalancer.class);
+		when(loadBalancer.choose()).thenAnswer(invocation -> {
+			DisposableServer server = instances[Math.floorMod(next.getAndIncrement(), instances.length)];
+			return Mono.just(new DefaultResponse(
+					new DefaultServiceInstance("loans-" + server.port(), "LOANS", "localhost", server.port(), false)));
+		});
+		when(clientFactory.getInstance("LOANS", ReactorServiceInstanceLoadBalancer.class)).thenReturn(loadBalancer);
+	}
+
+	private static MockServerWebExchange exchange(DisposableServer primary) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/eazybank/loans/api/fetch"));
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+				URI.create("http://localhost:" + primary.port() + "/api/fetch"));
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+				Route.async().id("loans").uri("lb://LOANS").predicate(ex -> true).build());
+		return exchange;
+	}
+
+	private double budget() {
+		return meterRegistry.get("gateway.retry.budget").gauge().value();
+	}
+
+	private double hedges(String outcome) {
+		Counter counter = meterRegistry.find("gateway.hedge").tag("outcome", outcome).counter();
+		return counter == null ? 0 : counter.count();
+	}
+
+	private double retries(String outcome) {
+		Counter counter = meterRegistry.find("gateway.retry").tag("outcome", outcome).counter();
+		return counter == null ? 0 : counter.count();
+	}
+}
@@ -0,0 +1,102 @@
+package com.eazybytes.gatewayserver.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Both timing filters around an upstream that takes 50ms to send its response headers. As with
+ * the gateway's NettyWriteResponseFilter, the body is written once the routing filter completed.
+ */
+class ResponseTimingFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ResponseTimingFilter responseTiming = new ResponseTimingFilter(meterRegistry);
+	private final UpstreamTimingFilter upstreamTiming = new UpstreamTimingFilter();
+
+	@Test
+	void headersSplitTheResponseTimeIntoUpstreamAndGateway() {
+		MockServerWebExchange exchange = exchange("accounts");
+
+		responseTiming.filter(exchange, this::proxy).block(Duration.ofSeconds(5));
+
+		String serverTiming = exchange.getResponse().getHeaders().getFirst("Server-Timing");
+		assertThat(serverTiming).matches("upstream;dur=\\d+\\.\\d, gateway;dur=\\d+\\.\\d, total;dur=\\d+\\.\\d");
+		assertThat(duration(serverTiming, "upstream")).isGreaterThanOrEqualTo(50);
+		assertThat(duration(serverTiming, "total")).isGreaterThanOrEqualTo(duration(serverTiming, "upstream"));
+		assertThat(exchange.getResponse().getHeaders().getFirst("X-Response-Time")).matches("\\d+\\.\\dms");
+	}
+
+	@Test
+	void responseAnsweredInTheGatewayHasNoUpstreamPhase() {
+		MockServerWebExchange exchange = exchange("accounts-info");
+
+		responseTiming.filter(exchange, ex -> ex.getResponse().setComplete()).block(Duration.ofSeconds(5));
+
+		assertThat(exchange.getResponse().getHeaders().getFirst("Server-Timing")).startsWith("gateway;dur=");
+		assertThat(meterRegistry.find("gateway.request.timing").tag("routeId", "accounts-info").tag("phase", "upstream")
+				.timer().count()).isZero();
+		assertThat(timer("accounts-info", "total").count()).isEqualTo(1);
+	}
+
+	@Test
+	void everyPhaseIsRecordedByRouteOnTheSameTimers() {
+		for (int i = 0; i < 3; i++) {
+			responseTiming.filter(exchange("accounts"), this::proxy)
+					.block(Duration.ofSeconds(5));
+		}
+		responseTiming.filter(exchange(null), ex -> ex.getResponse().setComplete()).block(Duration.ofSeconds(5));
+
+		assertThat(timer("accounts", "upstream").count()).isEqualTo(3);
+		assertThat(timer("accounts", "gateway").count()).isEqualTo(3);
+		assertThat(timer("accounts", "total").count()).isEqualTo(3);
+		assertThat(timer("accounts", "upstream").totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(150);
+		assertThat(timer("none", "total").count()).isEqualTo(1);
+		// three per route, registered once
+		assertThat(meterRegistry.find("gateway.request.timing").timers()).hasSize(6);
+	}
+
+	private Timer timer(String routeId, String phase) {
+		return meterRegistry.get("gateway.request.timing").tag("routeId", routeId).tag("phase", phase).timer();
+	}
+
+	private Mono<Void> proxy(ServerWebExchange exchange) {
+		return upstreamTiming.filter(exchange, ex -> Mono.delay(Duration.ofMillis(50))
+				.doOnNext(tick -> ex.getResponse().setStatusCode(HttpStatus.OK))
+				.then())
+				.then(Mono.defer(() -> exchange.getResponse().writeWith(Mono.just(exchange.getResponse()
+						.bufferFactory().wrap("{}".getBytes(StandardCharsets.UTF_8))))));
+	}
+
+	private static double duration(String serverTiming, String metric) {
+		for (String entry : serverTiming.split(", ")) {
+			if (entry.startsWith(metric + ";dur=")) {
+				return Double.parseDouble(entry.substring(metric.length() + 5));
+			}
+		}
+		throw new AssertionError(metric + " missing from " + serverTiming);
+	}
+
+	private static MockServerWebExchange exchange(String routeId) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/eazybank/accounts/api/fetch"));
+		if (routeId != null) {
+			exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+					Route.async().id(routeId).uri("lb://ACCOUNTS").predicate(ex -> true).build());
+		}
+		return exchange;
+	}
+}
@@ -0,0 +1,149 @@
+package com.eazybytes.gatewayserver.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import io.netty.handler.codec.compression.Brotli;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Runs the filter in a Netty server configured like the gateway's server.compression, in front of
+ * a handler that answers the way an account service does, and compares what reaches the client.
+ */
+class StreamingCompressionFilterTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(StreamingCompressionFilterTests.class);
+
+	private static final byte[] BODY = body();
+
+	private WebServer server;
+
+	private HttpClient client;
+
+	@BeforeEach
+	void setUp() {
+		Compression compression = new Compression();
+		compression.setEnabled(true);
+		compression.setMinResponseSize(DataSize.ofKilobytes(2));
+		compression.setMimeTypes(new String[] { "application/json", "application/x-ndjson" });
+		NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(0);
+		factory.setCompression(compression);
+		StreamingCompressionFilter filter = new StreamingCompressionFilter();
+		server = factory.getWebServer(WebHttpHandlerBuilder.webHandler(exchange -> {
+			String path = exchange.getRequest().getPath().value();
+			Route.AsyncBuilder route = Route.async().id(path).uri("lb://ACCOUNTS").predicate(ex -> true);
+			if (path.endsWith("-batch")) {
+				route.metadata(StreamingRoutes.METADATA_KEY, true);
+			}
+			exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route.build());
+			return filter.filter(exchange, ex -> {
+				MediaType mediaType = path.endsWith("-batch") ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+				ex.getResponse().getHeaders().setContentType(mediaType);
+				DataBuffer buffer = ex.getResponse().bufferFactory().wrap(BODY);
+				return ex.getResponse().writeWith(Mono.just(buffer));
+			});
+		}).build());
+		server.start();
+		client = HttpClient.create().baseUrl("http://localhost:" + server.getPort());
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop();
+	}
+
+	@Test
+	void regularRouteIsCompressedWithTheBestEncodingTheClientAccepts() {
+		String expected = Brotli.isAvailable() ? "br" : "gzip";
+
+		Exchange response = fetch("/eazybank/accounts/api/fetch", "br, gzip");
+
+		assertThat(response.encoding()).isEqualTo(expected);
+		assertThat(response.bytes()).isLessThan(BODY.length / 4);
+	}
+
+	@Test
+	void streamingRouteIsSentUncompressed() {
+		Exchange response = fetch("/eazybank/accounts/api/fetchCustomerDetails-batch", "br, gzip");
+
+		assertThat(response.encoding()).isNull();
+		assertThat(response.bytes()).isEqualTo(BODY.length);
+	}
+
+	/**
+	 * Not a benchmark: reports what each encoding costs on the wire and in round trip time for a
+	 * typical JSON body, so a change in either shows up in the build log.
+	 */
+	@Test
+	void payloadSizeAndLatencyPerEncoding() {
+		for (String acceptEncoding : new String[] { "identity", "gzip", "br" }) {
+			if (acceptEncoding.equals("br") && !Brotli.isAvailable()) {
+				continue;
+			}
+			fetch("/eazybank/accounts/api/fetch", acceptEncoding);
+			int requests = 50;
+			long start = System.nanoTime();
+			Exchange response = null;
+			for (int i = 0; i < requests; i++) {
+				response = fetch("/eazybank/accounts/api/fetch", acceptEncoding);
+			}
+			long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / requests;
+			logger.info("{}: {} of {} bytes on the wire, {} us per request", acceptEncoding, response.bytes(),
+					BODY.length, micros);
+			if (!acceptEncoding.equals("identity")) {
+				assertThat(response.encoding()).isEqualTo(acceptEncoding);
+				assertThat(response.bytes()).isLessThan(BODY.length);
+			}
+		}
+	}
+
+	private Exchange fetch(String path, String acceptEncoding) {
+		return client.headers(headers -> headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+				.get()
+				.uri(path)
+				.responseSingle((response, content) -> content.asByteArray()
+						.defaultIfEmpty(new byte[0])
+						.map(bytes -> new Exchange(response.responseHeaders().get(HttpHeaders.CONTENT_ENCODING),
+								bytes.length)))
+				.block(Duration.ofSeconds(5));
+	}
+
+	/**
+	 * About 20KB of customer details, as repetitive as real JSON.
+	 */
+	private static byte[] body() {
+		StringBuilder body = new StringBuilder("[");
+		for (int i = 0; i < 100; i++) {
+			body.append(i == 0 ? "" : ",")
+					.append("{\"name\":\"Customer ").append(i)
+					.append("\",\"email\":\"customer").append(i).append("@eazybytes.com\"")
+					.append(",\"mobileNumber\":\"").append(9000000000L + i)
+					.append("\",\"accountNumber\":").append(1000000000L + i * 7919L)
+					.append(",\"accountType\":\"Savings\",\"branchAddress\":\"123 Main Street, New York\"}");
+		}
+		return body.append("]").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private record Exchange(String encoding, int bytes) {
+	}
+}
@@ -0,0 +1,202 @@
+package com.eazybytes.gatewayserver.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.factory.rewrite.ModifyResponseBodyGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.compression.Brotli;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Memory per request and throughput of a large batch response relayed by the gateway's Netty
+ * routing and write filters, configured like server.compression. The streaming route is compared
+ * with the same route behind a filter that aggregates and re-encodes the body, the way large
+ * responses used to be handled, and with a regular route that compresses the body.
+ * <p>
+ * Memory is the heap allocated by all threads per request; the relayed buffers themselves are
+ * pooled direct memory. The figures are logged; only the gap in heap allocation between streaming,
+ * well under the body size, and buffering, about twice the body size, is asserted.
+ */
+class StreamingProxyBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(StreamingProxyBenchmarkTests.class);
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	/** About 4MB of NDJSON customer details, written by the service in 64KB chunks. */
+	private static final byte[][] CHUNKS = chunks(4 * 1024 * 1024);
+
+	private static final long BODY_SIZE = Arrays.stream(CHUNKS).mapToLong(chunk -> chunk.length).sum();
+
+	private static final int WARM_UP = 2;
+
+	private static final int REQUESTS = 5;
+
+	private enum Mode {
+		STREAMING, BUFFERED, COMPRESSED
+	}
+
+	private DisposableServer service;
+
+	private WebServer gateway;
+
+	private HttpClient client;
+
+	@BeforeEach
+	void setUp() {
+		service = HttpServer.create().port(0)
+				.route(routes -> routes.get("/fetch-batch", (request, response) -> response
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+						.send(Flux.fromArray(CHUNKS).map(Unpooled::wrappedBuffer))))
+				.bindNow();
+		@SuppressWarnings("unchecked")
+		ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+		when(headersFilters.getIfAvailable()).thenReturn(List.of());
+		List<GlobalFilter> globalFilters = List.of(new StreamingCompressionFilter(),
+				new NettyWriteResponseFilter(List.of(MediaType.APPLICATION_NDJSON)),
+				new NettyRoutingFilter(HttpClient.create(), headersFilters, new HttpClientProperties()));
+		FilteringWebHandler filteringWebHandler = new FilteringWebHandler(globalFilters);
+		ModifyResponseBodyGatewayFilterFactory modifyResponseBody = new ModifyResponseBodyGatewayFilterFactory(
+				HandlerStrategies.builder().codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1)).build()
+						.messageReaders(),
+				Set.of(), Set.of());
+
+		Compression compression = new Compression();
+		compression.setEnabled(true);
+		compression.setMinResponseSize(DataSize.ofKilobytes(2));
+		compression.setMimeTypes(new String[] { "application/json", "application/x-ndjson" });
+		NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(0);
+		factory.setCompression(compression);
+		gateway = factory.getWebServer(WebHttpHandlerBuilder.webHandler(exchange -> {
+			Mode mode = Mode.valueOf(exchange.getRequest().getQueryParams().getFirst("mode"));
+			Route.AsyncBuilder route = Route.async().id(mode.name()).uri("lb://ACCOUNTS").predicate(ex -> true);
+			if (mode != Mode.COMPRESSED) {
+				route.metadata(StreamingRoutes.METADATA_KEY, true);
+			}
+			if (mode == Mode.BUFFERED) {
+				route.filter(modifyResponseBody.apply(new ModifyResponseBodyGatewayFilterFactory.Config()
+						.setRewriteFunction(String.class, String.class, (ex, body) -> Mono.just(body))));
+			}
+			exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route.build());
+			exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, UriComponentsBuilder
+					.fromUriString("http://localhost:" + service.port() + "/fetch-batch").build().toUri());
+			return filteringWebHandler.handle(exchange);
+		}).build());
+		gateway.start();
+		client = HttpClient.create().baseUrl("http://localhost:" + gateway.getPort());
+	}
+
+	@AfterEach
+	void tearDown() {
+		gateway.stop();
+		service.disposeNow();
+	}
+
+	@Test
+	void memoryPerRequestAndThroughputOfLargeResponses() {
+		String encoding = Brotli.isAvailable() ? "br" : "gzip";
+		Map<Mode, Long> heapPerRequest = new EnumMap<>(Mode.class);
+		for (Mode mode : Mode.values()) {
+			for (int i = 0; i < WARM_UP; i++) {
+				fetch(mode, encoding);
+			}
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+			long wireBytes = 0;
+			for (int i = 0; i < REQUESTS; i++) {
+				wireBytes = fetch(mode, encoding);
+			}
+			long nanos = System.nanoTime() - start;
+			long heap = (allocatedBytes() - allocatedBefore) / REQUESTS;
+			heapPerRequest.put(mode, heap);
+			double megabytesPerSecond = BODY_SIZE * REQUESTS / (nanos / 1e9) / (1024 * 1024);
+			logger.info("{}: {} KB heap per request, {} MB/s, {} of {} bytes on the wire", mode, heap / 1024,
+					String.format("%.0f", megabytesPerSecond), wireBytes, BODY_SIZE);
+			if (mode != Mode.COMPRESSED) {
+				assertThat(wireBytes).isEqualTo(BODY_SIZE);
+			} else {
+				assertThat(wireBytes).isLessThan(BODY_SIZE / 4);
+			}
+		}
+		assertThat(heapPerRequest.get(Mode.STREAMING)).isLessThan(BODY_SIZE);
+		assertThat(heapPerRequest.get(Mode.BUFFERED)).isGreaterThan(BODY_SIZE * 3 / 2);
+	}
+
+	/**
+	 * @return the bytes received, without aggregating them in the client
+	 */
+	private long fetch(Mode mode, String acceptEncoding) {
+		return client.headers(headers -> headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+				.get()
+				.uri("/eazybank/accounts/api/fetch-batch?mode=" + mode)
+				.responseContent()
+				.map(ByteBuf::readableBytes)
+				.reduce(0L, (total, bytes) -> total + bytes)
+				.block(Duration.ofSeconds(30));
+	}
+
+	private static long allocatedBytes() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+				.filter(bytes -> bytes > 0)
+				.sum();
+	}
+
+	private static byte[][] chunks(int size) {
+		StringBuilder body = new StringBuilder(size + 256);
+		for (int i = 0; body.length() < size; i++) {
+			body.append("{\"name\":\"Customer ").append(i)
+					.append("\",\"email\":\"customer").append(i).append("@eazybytes.com\"")
+					.append(",\"mobileNumber\":\"").append(9000000000L + i)
+					.append("\",\"accountNumber\":").append(1000000000L + i * 7919L)
+					.append(",\"accountType\":\"Savings\",\"branchAddress\":\"123 Main Street, New York\"}\n");
+		}
+		byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+		byte[][] chunks = new byte[(bytes.length + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+		for (int i = 0; i < chunks.length; i++) {
+			chunks[i] = Arrays.copyOfRange(bytes, i * CHUNK_SIZE, Math.min(bytes.length, (i + 1) * CHUNK_SIZE));
+		}
+		return chunks;
+	}
+}
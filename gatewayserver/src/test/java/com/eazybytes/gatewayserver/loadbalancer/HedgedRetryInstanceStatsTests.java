@@ -0,0 +1,183 @@
+package com.eazybytes.gatewayserver.loadbalancer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.gateway.config.GatewayLoadBalancerProperties;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.eazybytes.gatewayserver.config.HedgedRetryProperties;
+import com.eazybytes.gatewayserver.config.LoadBalancingProperties;
+import com.eazybytes.gatewayserver.filters.HedgedRetryGatewayFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Hedges and retries of the loans route as the instance statistics see them: the gateway's load
+ * balancer filter picks the first instance, the hedged retry filter sends the attempts, and every
+ * attempt must land on the instance that served it.
+ */
+class HedgedRetryInstanceStatsTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final LoadBalancingProperties loadBalancingProperties = new LoadBalancingProperties();
+	private final InstanceStatsRegistry statsRegistry = new InstanceStatsRegistry(loadBalancingProperties,
+			meterRegistry);
+	private final LoadBalancerClientFactory clientFactory = mock(LoadBalancerClientFactory.class);
+	private final List<DisposableServer> servers = new ArrayList<>();
+	private ServiceInstance primary;
+	private ServiceInstance alternate;
+
+	@BeforeEach
+	void setUp() {
+		when(clientFactory.getProperties("LOANS")).thenReturn(new LoadBalancerProperties());
+		when(clientFactory.getInstances("LOANS", LoadBalancerLifecycle.class))
+				.thenReturn(Map.of("instanceStatsRegistry", statsRegistry));
+	}
+
+	@AfterEach
+	void tearDown() {
+		servers.forEach(DisposableServer::disposeNow);
+	}
+
+	@Test
+	void failingInstanceKeepsItsFailuresWhenRetriesSucceedElsewhere() {
+		primary = instance(server(HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO));
+		alternate = instance(server(HttpStatus.OK, Duration.ZERO));
+		instances(primary, alternate);
+		HedgedRetryProperties properties = properties();
+		properties.setRetries(1);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(send(properties)).isEqualTo(HttpStatus.OK);
+		}
+
+		assertThat(statsRegistry.find(primary).getConsecutiveFailures()).isEqualTo(3);
+		assertThat(statsRegistry.find(alternate).getConsecutiveFailures()).isZero();
+		assertThat(statsRegistry.find(primary).getInFlight()).isZero();
+		assertThat(statsRegistry.find(alternate).getInFlight()).isZero();
+	}
+
+	@Test
+	void slowInstanceKeepsItsOwnLatencyWhenTheHedgeWins() throws InterruptedException {
+		primary = instance(server(HttpStatus.OK, Duration.ofMillis(500)));
+		alternate = instance(server(HttpStatus.OK, Duration.ZERO));
+		instances(primary, alternate);
+		HedgedRetryProperties properties = properties();
+		properties.getHedging().setEnabled(true);
+		properties.getHedging().setInitialDelay(Duration.ofMillis(100));
+		properties.getHedging().setMinDelay(Duration.ofMillis(100));
+
+		assertThat(send(properties)).isEqualTo(HttpStatus.OK);
+
+		InstanceStats slow = statsRegistry.find(primary);
+		InstanceStats fast = statsRegistry.find(alternate);
+		awaitCompleted(slow, fast);
+		assertThat(slow.getInFlight()).isZero();
+		assertThat(fast.getInFlight()).isZero();
+		assertThat(slow.getConsecutiveFailures()).isZero();
+		// the primary's sample is the time until the hedge won, the hedge's its own round trip
+		assertThat(slow.getLatencyMillis()).isGreaterThanOrEqualTo(90);
+		assertThat(fast.getLatencyMillis()).isGreaterThan(0).isLessThan(slow.getLatencyMillis());
+	}
+
+	/**
+	 * The losing attempt is cancelled on an event loop, possibly just after the response was written.
+	 */
+	private static void awaitCompleted(InstanceStats... stats) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+		while (Arrays.stream(stats).anyMatch(s -> s.getInFlight() > 0) && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private HttpStatus send(HedgedRetryProperties properties) {
+		@SuppressWarnings("unchecked")
+		ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+		when(headersFilters.getIfAvailable(any())).thenReturn(List.of());
+		HedgedRetryGatewayFilter hedgedRetryFilter = new HedgedRetryGatewayFilter("loans", properties,
+				WebClient.create(), clientFactory, headersFilters, meterRegistry);
+		ReactiveLoadBalancerClientFilter loadBalancerFilter = new ReactiveLoadBalancerClientFilter(clientFactory,
+				new GatewayLoadBalancerProperties());
+
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/eazybank/loans/api/fetch"));
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, URI.create("lb://LOANS/api/fetch"));
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+				Route.async().id("loans").uri("lb://LOANS").predicate(ex -> true).build());
+		// deferred like the gateway's filter chain, so the filter runs after the instance was chosen
+		loadBalancerFilter.filter(exchange, ex -> Mono.defer(() -> hedgedRetryFilter.filter(ex, next -> Mono.empty())))
+				.block(Duration.ofSeconds(5));
+		return HttpStatus.valueOf(exchange.getResponse().getStatusCode().value());
+	}
+
+	private static HedgedRetryProperties properties() {
+		HedgedRetryProperties properties = new HedgedRetryProperties();
+		properties.setRetries(0);
+		properties.setFirstBackoff(Duration.ofMillis(1));
+		properties.setMaxBackoff(Duration.ofMillis(5));
+		properties.setBudgetPercent(1000);
+		properties.setMinRetriesPerSecond(0);
+		properties.setMaxBudget(50);
+		properties.getHedging().setEnabled(false);
+		return properties;
+	}
+
+	private DisposableServer server(HttpStatus status, Duration delay) {
+		DisposableServer server = HttpServer.create().port(0)
+				.handle((request, response) -> Mono.delay(delay)
+						.then(response.status(status.value()).sendString(Mono.just("{}")).then()))
+				.bindNow();
+		servers.add(server);
+		return server;
+	}
+
+	private static ServiceInstance instance(DisposableServer server) {
+		return new DefaultServiceInstance("loans-" + server.port(), "LOANS", "localhost", server.port(), false);
+	}
+
+	/**
+	 * The load balancer hands out the given instances round robin, so the load balancer filter
+	 * picks the first and the hedged retry filter's alternate is the second.
+	 */
+	private void instances(ServiceInstance... instances) {
+		AtomicInteger next = new AtomicInteger();
+		ReactorServiceInstanceLoadBalancer loadBalancer = mock(ReactorServiceInstanceLoadBalancer.class);
+		when(loadBalancer.choose(any())).thenAnswer(invocation -> Mono.just(new DefaultResponse(
+				instances[Math.floorMod(next.getAndIncrement(), instances.length)])));
+		when(loadBalancer.choose()).thenAnswer(invocation -> Mono.just(new DefaultResponse(
+				instances[Math.floorMod(next.getAndIncrement(), instances.length)])));
+		when(clientFactory.getInstance("LOANS", ReactorServiceInstanceLoadBalancer.class)).thenReturn(loadBalancer);
+	}
+}
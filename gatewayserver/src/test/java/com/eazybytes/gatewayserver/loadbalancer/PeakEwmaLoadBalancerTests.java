@@ -0,0 +1,188 @@
+package com.eazybytes.gatewayserver.loadbalancer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import com.eazybytes.gatewayserver.config.LoadBalancingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+class PeakEwmaLoadBalancerTests {
+
+	private static final ServiceInstance FAST = instance(8081);
+	private static final ServiceInstance SLOW = instance(8082);
+	private static final ServiceInstance THIRD = instance(8083);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final LoadBalancingProperties properties = new LoadBalancingProperties();
+	private final InstanceStatsRegistry statsRegistry = new InstanceStatsRegistry(properties, meterRegistry);
+	private final AtomicReference<List<ServiceInstance>> discovered = new AtomicReference<>();
+	private final PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(supplier(), statsRegistry, properties);
+
+	@Test
+	void sendsTrafficToTheInstanceWithTheLowerLatency() {
+		discovered.set(List.of(FAST, SLOW));
+		sample(FAST, 10);
+		sample(SLOW, 100);
+
+		Map<Integer, Integer> picks = choose(100);
+
+		assertThat(picks).containsOnlyKeys(FAST.getPort());
+	}
+
+	@Test
+	void requestsInFlightCountAgainstAnInstance() {
+		discovered.set(List.of(FAST, SLOW));
+		sample(FAST, 10);
+		sample(SLOW, 30);
+		for (int i = 0; i < 5; i++) {
+			statsRegistry.get(FAST).onStart();
+		}
+
+		assertThat(choose(20)).containsOnlyKeys(SLOW.getPort());
+	}
+
+	@Test
+	void instanceFailingRepeatedlyIsEjected() {
+		discovered.set(List.of(FAST, SLOW));
+		sample(FAST, 10);
+		sample(SLOW, 100);
+		for (int i = 0; i < properties.getFailureThreshold(); i++) {
+			statsRegistry.get(FAST).onStart();
+			statsRegistry.get(FAST).onComplete(TimeUnit.MILLISECONDS.toNanos(10), true);
+		}
+
+		assertThat(choose(20)).containsOnlyKeys(SLOW.getPort());
+		assertThat(meterRegistry.get("gateway.loadbalancer.ejections").tag("instance", "localhost:8081")
+				.tag("reason", "failures").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("gateway.loadbalancer.ejected").tag("instance", "localhost:8081").gauge().value())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void backToBackEjectionsLastLongerUntilTheInstanceServesTrafficAgain() {
+		InstanceStats stats = statsRegistry.get(FAST);
+		long base = TimeUnit.SECONDS.toNanos(1);
+
+		stats.eject(0, base);
+		assertThat(stats.isEjected(base - 1)).isTrue();
+		assertThat(stats.isEjected(base)).isFalse();
+		// back in rotation, as the load balancer marks it before it got any traffic
+		stats.recovered();
+		fail(stats);
+		stats.eject(base, base);
+		assertThat(stats.isEjected(3 * base - 1)).isTrue();
+		assertThat(stats.isEjected(3 * base)).isFalse();
+		stats.recovered();
+		fail(stats);
+		stats.eject(3 * base, base);
+		assertThat(stats.isEjected(6 * base - 1)).isTrue();
+
+		stats.onStart();
+		stats.onComplete(TimeUnit.MILLISECONDS.toNanos(10), false);
+		stats.recovered();
+		stats.eject(6 * base, base);
+		assertThat(stats.isEjected(7 * base - 1)).isTrue();
+		assertThat(stats.isEjected(7 * base)).isFalse();
+	}
+
+	@Test
+	void noMoreThanTheMaximumShareIsEjected() {
+		properties.setMaxEjectionPercent(50);
+		discovered.set(List.of(FAST, SLOW));
+		for (ServiceInstance instance : List.of(FAST, SLOW)) {
+			for (int i = 0; i < properties.getFailureThreshold(); i++) {
+				statsRegistry.get(instance).onStart();
+				statsRegistry.get(instance).onComplete(TimeUnit.MILLISECONDS.toNanos(10), true);
+			}
+		}
+
+		assertThat(choose(1)).hasSize(1);
+		assertThat(meterRegistry.get("gateway.loadbalancer.ejections").counters()).hasSize(1);
+	}
+
+	@Test
+	void instancesThatLeftDiscoveryAreDroppedWithTheirMeters() {
+		discovered.set(List.of(FAST, SLOW, THIRD));
+		sample(SLOW, 100);
+		choose(1);
+		assertThat(meterRegistry.find("gateway.loadbalancer.latency").gauges()).hasSize(3);
+
+		discovered.set(List.of(FAST, THIRD));
+		choose(1);
+
+		assertThat(statsRegistry.find(SLOW)).isNull();
+		assertThat(meterRegistry.find("gateway.loadbalancer.latency").gauges()).hasSize(2);
+		assertThat(meterRegistry.find("gateway.loadbalancer.in.flight").tag("instance", "localhost:8082").gauge()).isNull();
+		assertThat(meterRegistry.find("gateway.loadbalancer.ejected").tag("instance", "localhost:8082").gauge()).isNull();
+	}
+
+	@Test
+	void requestCompletingAfterItsInstanceLeftDoesNotRegisterItAgain() {
+		discovered.set(List.of(FAST, SLOW));
+		statsRegistry.get(SLOW).onStart();
+		discovered.set(List.of(FAST));
+		choose(1);
+
+		statsRegistry.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, new DefaultRequest<>(),
+				new DefaultResponse(SLOW)));
+
+		assertThat(statsRegistry.find(SLOW)).isNull();
+		assertThat(meterRegistry.find("gateway.loadbalancer.latency").tag("instance", "localhost:8082").gauge()).isNull();
+	}
+
+	private Map<Integer, Integer> choose(int times) {
+		Map<Integer, Integer> picks = new HashMap<>();
+		for (int i = 0; i < times; i++) {
+			Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>()).block(Duration.ofSeconds(1));
+			picks.merge(response.getServer().getPort(), 1, Integer::sum);
+		}
+		return picks;
+	}
+
+	private void fail(InstanceStats stats) {
+		for (int i = 0; i < properties.getFailureThreshold(); i++) {
+			stats.onStart();
+			stats.onComplete(TimeUnit.MILLISECONDS.toNanos(10), true);
+		}
+	}
+
+	private void sample(ServiceInstance instance, long latencyMillis) {
+		InstanceStats stats = statsRegistry.get(instance);
+		stats.onStart();
+		stats.onComplete(TimeUnit.MILLISECONDS.toNanos(latencyMillis), false);
+	}
+
+	private ObjectProvider<ServiceInstanceListSupplier> supplier() {
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get(any())).thenAnswer(invocation -> Flux.just(discovered.get()));
+		@SuppressWarnings("unchecked")
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		return provider;
+	}
+
+	private static ServiceInstance instance(int port) {
+		return new DefaultServiceInstance("loans-" + port, "LOANS", "localhost", port, false);
+	}
+}
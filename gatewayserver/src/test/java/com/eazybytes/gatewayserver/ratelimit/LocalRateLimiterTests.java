@@ -0,0 +1,102 @@
+package com.eazybytes.gatewayserver.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+
+import com.eazybytes.gatewayserver.config.RateLimiterProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LocalRateLimiterTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void bucketAllowsTheBurstThenOneRequestPerEmissionInterval() {
+		LocalRateLimiter.Bucket bucket = new LocalRateLimiter.Bucket(config(2, 4, 1), 0);
+
+		assertThat(bucket.tryAcquire(1, 0)).isEqualTo(3);
+		assertThat(bucket.tryAcquire(1, 0)).isEqualTo(2);
+		assertThat(bucket.tryAcquire(1, 0)).isEqualTo(1);
+		assertThat(bucket.tryAcquire(1, 0)).isZero();
+		assertThat(bucket.tryAcquire(1, 0)).isEqualTo(-1);
+
+		// two tokens a second: one comes back every half second
+		assertThat(bucket.tryAcquire(1, SECOND / 2 - 1)).isEqualTo(-1);
+		assertThat(bucket.tryAcquire(1, SECOND / 2)).isZero();
+		assertThat(bucket.tryAcquire(1, SECOND / 2)).isEqualTo(-1);
+	}
+
+	@Test
+	void idleBucketRefillsOnlyUpToTheBurstCapacity() {
+		LocalRateLimiter.Bucket bucket = new LocalRateLimiter.Bucket(config(1, 3, 1), 0);
+		bucket.tryAcquire(3, 0);
+
+		assertThat(bucket.tryAcquire(1, 60 * SECOND)).isEqualTo(2);
+	}
+
+	@Test
+	void requestTakingSeveralTokensIsDeniedWithoutTakingAny() {
+		LocalRateLimiter.Bucket bucket = new LocalRateLimiter.Bucket(config(1, 3, 2), 0);
+
+		assertThat(bucket.tryAcquire(2, 0)).isEqualTo(1);
+		assertThat(bucket.tryAcquire(2, 0)).isEqualTo(-1);
+		assertThat(bucket.tryAcquire(1, 0)).isZero();
+		assertThat(bucket.drainUnsynced()).isEqualTo(3);
+	}
+
+	@Test
+	void chargeTakesTokensConsumedElsewhereButNeverMoreThanTheBucketHolds() {
+		LocalRateLimiter.Bucket bucket = new LocalRateLimiter.Bucket(config(1, 5, 1), 0);
+
+		bucket.charge(2, 0);
+		assertThat(bucket.tryAcquire(1, 0)).isEqualTo(2);
+
+		bucket.charge(100, 0);
+		assertThat(bucket.tryAcquire(1, 0)).isEqualTo(-1);
+		assertThat(bucket.tryAcquire(1, SECOND)).isZero();
+	}
+
+	@Test
+	void responseCarriesTheRedisRateLimiterHeaders() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		LocalRateLimiter rateLimiter = new LocalRateLimiter(properties(1, 2), meterRegistry);
+
+		Response first = rateLimiter.isAllowed("accounts", "client-a").block(Duration.ofSeconds(1));
+		rateLimiter.isAllowed("accounts", "client-a").block(Duration.ofSeconds(1));
+		Response denied = rateLimiter.isAllowed("accounts", "client-a").block(Duration.ofSeconds(1));
+		Response otherKey = rateLimiter.isAllowed("accounts", "client-b").block(Duration.ofSeconds(1));
+
+		assertThat(first.isAllowed()).isTrue();
+		assertThat(first.getHeaders())
+				.containsEntry(RedisRateLimiter.REMAINING_HEADER, "1")
+				.containsEntry(RedisRateLimiter.REPLENISH_RATE_HEADER, "1")
+				.containsEntry(RedisRateLimiter.BURST_CAPACITY_HEADER, "2")
+				.containsEntry(RedisRateLimiter.REQUESTED_TOKENS_HEADER, "1");
+		assertThat(denied.isAllowed()).isFalse();
+		assertThat(denied.getHeaders()).containsEntry(RedisRateLimiter.REMAINING_HEADER, "0");
+		assertThat(otherKey.isAllowed()).isTrue();
+		assertThat(meterRegistry.get("gateway.ratelimit.requests").tag("outcome", "allowed").counter().count())
+				.isEqualTo(3);
+		assertThat(meterRegistry.get("gateway.ratelimit.requests").tag("outcome", "denied").counter().count())
+				.isEqualTo(1);
+	}
+
+	static RateLimiterProperties properties(int replenishRate, int burstCapacity) {
+		RateLimiterProperties properties = new RateLimiterProperties();
+		properties.setReplenishRate(replenishRate);
+		properties.setBurstCapacity(burstCapacity);
+		return properties;
+	}
+
+	private static LocalRateLimiter.Config config(int replenishRate, int burstCapacity, int requestedTokens) {
+		return new LocalRateLimiter.Config().setReplenishRate(replenishRate)
+				.setBurstCapacity(burstCapacity)
+				.setRequestedTokens(requestedTokens);
+	}
+}
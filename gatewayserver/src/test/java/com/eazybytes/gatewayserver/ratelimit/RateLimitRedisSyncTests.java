@@ -0,0 +1,120 @@
+package com.eazybytes.gatewayserver.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.eazybytes.gatewayserver.config.RateLimiterProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * The sync against a stubbed Redis counter; one key with a burst of ten and a token a second, so
+ * nothing refills while a test runs.
+ */
+class RateLimitRedisSyncTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RateLimiterProperties properties = LocalRateLimiterTests.properties(1, 10);
+	private final LocalRateLimiter rateLimiter = new LocalRateLimiter(properties, meterRegistry);
+	private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+	private final RateLimitRedisSync sync = new RateLimitRedisSync(rateLimiter, redisTemplate, properties,
+			meterRegistry);
+
+	@Test
+	void firstSyncOnlyRecordsWhatOthersTookBefore() {
+		take(1);
+		counterReturns(1_000);
+
+		sync.sync().block(Duration.ofSeconds(1));
+
+		assertThat(take(1)).isEqualTo("8");
+	}
+
+	@Test
+	void laterSyncsChargeWhatOthersTookSinceTheLastOne() {
+		take(1);
+		counterReturns(1_000);
+		sync.sync().block(Duration.ofSeconds(1));
+		take(1);
+		// our token plus five taken by other instances
+		counterReturns(1_006);
+
+		sync.sync().block(Duration.ofSeconds(1));
+
+		assertThat(take(1)).isEqualTo("2");
+	}
+
+	@Test
+	void expiredCounterStartsANewBaseline() {
+		take(1);
+		counterReturns(1_000);
+		sync.sync().block(Duration.ofSeconds(1));
+		take(1);
+		// restarted counter: our token plus two from others, recorded but not charged
+		counterReturns(3);
+		sync.sync().block(Duration.ofSeconds(1));
+		take(1);
+		counterReturns(7);
+
+		sync.sync().block(Duration.ofSeconds(1));
+
+		assertThat(take(1)).isEqualTo("3");
+	}
+
+	@Test
+	void addsAndRenewsTheCounterInOneCallPerKey() {
+		take(3);
+		counterReturns(3);
+
+		sync.sync().block(Duration.ofSeconds(1));
+
+		verify(redisTemplate, times(1)).execute(any(RedisScript.class),
+				eq(List.of("local_rate_limiter.{accounts:client-a}.taken")),
+				eq(List.of("3", Long.toString(properties.getIdleTimeout().toSeconds()))));
+		assertThat(meterRegistry.get("gateway.ratelimit.sync").tag("outcome", "success").counter().count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void tokensAreKeptForTheNextSyncWhileRedisIsDown() {
+		take(2);
+		when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+				.thenReturn(Flux.error(new RedisConnectionFailureException("down")));
+
+		sync.sync().block(Duration.ofSeconds(1));
+
+		assertThat(meterRegistry.get("gateway.ratelimit.sync").tag("outcome", "failure").counter().count())
+				.isEqualTo(1);
+		assertThat(rateLimiter.buckets().get("accounts:client-a").drainUnsynced()).isEqualTo(2);
+	}
+
+	private String take(int requests) {
+		String remaining = null;
+		for (int i = 0; i < requests; i++) {
+			remaining = rateLimiter.isAllowed("accounts", "client-a").block(Duration.ofSeconds(1))
+					.getHeaders().get(RedisRateLimiter.REMAINING_HEADER);
+		}
+		return remaining;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void counterReturns(long total) {
+		when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(total));
+	}
+}
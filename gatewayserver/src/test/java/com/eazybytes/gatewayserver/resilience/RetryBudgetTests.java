@@ -0,0 +1,52 @@
+package com.eazybytes.gatewayserver.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class RetryBudgetTests {
+
+	@Test
+	void requestsEarnAShareOfARetry() {
+		RetryBudget budget = new RetryBudget(20, 0, 50);
+
+		for (int i = 0; i < 4; i++) {
+			budget.onRequest();
+		}
+		assertThat(budget.tryAcquire()).isFalse();
+
+		budget.onRequest();
+		assertThat(budget.tryAcquire()).isTrue();
+		assertThat(budget.tryAcquire()).isFalse();
+		assertThat(budget.getBalance()).isCloseTo(0, within(1e-9));
+	}
+
+	@Test
+	void balanceIsCappedAtTheMaximum() {
+		RetryBudget budget = new RetryBudget(100, 0, 3);
+
+		for (int i = 0; i < 10; i++) {
+			budget.onRequest();
+		}
+
+		assertThat(budget.getBalance()).isEqualTo(3);
+		assertThat(budget.tryAcquire()).isTrue();
+		assertThat(budget.tryAcquire()).isTrue();
+		assertThat(budget.tryAcquire()).isTrue();
+		assertThat(budget.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void quietRouteIsRefilledOverTime() throws InterruptedException {
+		RetryBudget budget = new RetryBudget(20, 10, 1);
+		boolean first = budget.tryAcquire();
+		boolean second = budget.tryAcquire();
+		assertThat(first).isTrue();
+		assertThat(second).isFalse();
+
+		Thread.sleep(150);
+
+		assertThat(budget.tryAcquire()).isTrue();
+	}
+}
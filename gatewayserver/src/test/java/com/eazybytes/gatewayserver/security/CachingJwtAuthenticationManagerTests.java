@@ -0,0 +1,125 @@
+package com.eazybytes.gatewayserver.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.eazybytes.gatewayserver.config.JwtCacheProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * The cache in front of a decoder that counts its verifications; the cache's clock is driven by
+ * the test. The decoder answers synchronously unless a verification time is set, so each entry is
+ * settled in the cache before the next step of a test.
+ */
+class CachingJwtAuthenticationManagerTests {
+
+	private final AtomicInteger verifications = new AtomicInteger();
+	private final AtomicLong nanos = new AtomicLong();
+	private final JwtCacheProperties properties = new JwtCacheProperties();
+	private Instant expiresAt = Instant.now().plus(Duration.ofMinutes(5));
+	private Duration verificationTime = Duration.ZERO;
+	private boolean invalid;
+
+	@Test
+	void sameTokenIsVerifiedOnce() {
+		CachingJwtAuthenticationManager manager = manager();
+
+		Authentication first = authenticate(manager, "token-a");
+		Authentication second = authenticate(manager, "token-a");
+		authenticate(manager, "token-b");
+
+		assertThat(second).isSameAs(first);
+		assertThat(((Jwt) first.getPrincipal()).getTokenValue()).isEqualTo("token-a");
+		assertThat(verifications).hasValue(2);
+	}
+
+	@Test
+	void entryExpiresAtTheTokensExpiry() {
+		properties.setMaxTimeToLive(Duration.ofMinutes(15));
+		CachingJwtAuthenticationManager manager = manager();
+		authenticate(manager, "token-a");
+
+		nanos.addAndGet(Duration.ofMinutes(4).toNanos());
+		authenticate(manager, "token-a");
+		assertThat(verifications).hasValue(1);
+
+		nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+		authenticate(manager, "token-a");
+		assertThat(verifications).hasValue(2);
+	}
+
+	@Test
+	void entryExpiresAfterTheMaximumTimeToLiveWhenTheTokenLivesLonger() {
+		properties.setMaxTimeToLive(Duration.ofMinutes(1));
+		expiresAt = Instant.now().plus(Duration.ofHours(1));
+		CachingJwtAuthenticationManager manager = manager();
+		authenticate(manager, "token-a");
+
+		nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+		authenticate(manager, "token-a");
+
+		assertThat(verifications).hasValue(2);
+	}
+
+	@Test
+	void failedVerificationIsNotCached() {
+		CachingJwtAuthenticationManager manager = manager();
+		invalid = true;
+
+		for (int i = 0; i < 2; i++) {
+			assertThatThrownBy(() -> authenticate(manager, "token-a")).isInstanceOf(InvalidBearerTokenException.class);
+		}
+		invalid = false;
+		authenticate(manager, "token-a");
+
+		assertThat(verifications).hasValue(3);
+	}
+
+	@Test
+	void cancelledRequestDoesNotCancelTheSharedVerification() {
+		verificationTime = Duration.ofMillis(200);
+		CachingJwtAuthenticationManager manager = manager();
+
+		Disposable cancelled = manager.authenticate(new BearerTokenAuthenticationToken("token-a")).subscribe();
+		cancelled.dispose();
+		Authentication authentication = authenticate(manager, "token-a");
+
+		assertThat(authentication.isAuthenticated()).isTrue();
+		assertThat(verifications).hasValue(1);
+	}
+
+	private Authentication authenticate(CachingJwtAuthenticationManager manager, String token) {
+		return manager.authenticate(new BearerTokenAuthenticationToken(token)).block(Duration.ofSeconds(5));
+	}
+
+	private CachingJwtAuthenticationManager manager() {
+		return new CachingJwtAuthenticationManager(token -> {
+			verifications.incrementAndGet();
+			Mono<Jwt> verification = Mono.fromCallable(() -> {
+				if (invalid) {
+					throw new BadJwtException("Invalid signature");
+				}
+				return Jwt.withTokenValue(token).header("alg", "RS256").subject("customer")
+						.issuedAt(Instant.now()).expiresAt(expiresAt).build();
+			});
+			return verificationTime.isZero() ? verification : Mono.delay(verificationTime).then(verification);
+		}, jwt -> Mono.just(new JwtAuthenticationToken(jwt, List.of())), properties, new SimpleMeterRegistry(), nanos::get);
+	}
+}
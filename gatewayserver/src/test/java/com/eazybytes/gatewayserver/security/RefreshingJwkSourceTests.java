@@ -0,0 +1,131 @@
+package com.eazybytes.gatewayserver.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.eazybytes.gatewayserver.config.JwtCacheProperties;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The key source against an authorization server stub that counts how often the key set is
+ * fetched.
+ */
+class RefreshingJwkSourceTests {
+
+	private final AtomicInteger fetches = new AtomicInteger();
+	private final JwtCacheProperties properties = new JwtCacheProperties();
+	private final RSAKey key = rsaKey("key-1");
+	private Duration fetchTime = Duration.ZERO;
+
+	@Test
+	void unknownKeyIdFetchesTheKeySet() {
+		RefreshingJwkSource source = source();
+
+		List<JWK> keys = select(source, "key-1");
+
+		assertThat(keys).extracting(JWK::getKeyID).containsExactly("key-1");
+		assertThat(fetches).hasValue(1);
+	}
+
+	@Test
+	void knownKeyIdIsServedFromMemory() {
+		RefreshingJwkSource source = source();
+		select(source, "key-1");
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(select(source, "key-1")).hasSize(1);
+		}
+
+		assertThat(fetches).hasValue(1);
+	}
+
+	@Test
+	void unknownKeyIdsDoNotFetchAgainWithinTheMinimumRefreshInterval() {
+		properties.setJwkMinRefreshInterval(Duration.ofMinutes(1));
+		RefreshingJwkSource source = source();
+		select(source, "key-1");
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(select(source, "forged-" + i)).isEmpty();
+		}
+
+		assertThat(fetches).hasValue(1);
+	}
+
+	@Test
+	void unknownKeyIdFetchesAgainOnceTheMinimumRefreshIntervalPassed() {
+		properties.setJwkMinRefreshInterval(Duration.ZERO);
+		RefreshingJwkSource source = source();
+		select(source, "key-1");
+
+		assertThat(select(source, "key-2")).isEmpty();
+
+		assertThat(fetches).hasValue(2);
+	}
+
+	@Test
+	void concurrentRequestsShareOneFetch() {
+		fetchTime = Duration.ofMillis(200);
+		RefreshingJwkSource source = source();
+		SignedJWT jwt = jwt("key-1");
+
+		List<JWK> keys = Mono.zip(source.apply(jwt).collectList(), source.apply(jwt).collectList(),
+				source.apply(jwt).collectList())
+				.map(all -> all.getT3())
+				.block(Duration.ofSeconds(5));
+
+		assertThat(keys).hasSize(1);
+		assertThat(fetches).hasValue(1);
+	}
+
+	private List<JWK> select(RefreshingJwkSource source, String keyId) {
+		return source.apply(jwt(keyId)).collectList().block(Duration.ofSeconds(5));
+	}
+
+	private RefreshingJwkSource source() {
+		String body = new JWKSet(key.toPublicJWK()).toString();
+		WebClient webClient = WebClient.builder()
+				.exchangeFunction(request -> Mono.delay(fetchTime).map(tick -> {
+					fetches.incrementAndGet();
+					return ClientResponse.create(HttpStatus.OK)
+							.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+							.body(body)
+							.build();
+				}))
+				.build();
+		return new RefreshingJwkSource(webClient, "http://keycloak/certs", properties);
+	}
+
+	private static SignedJWT jwt(String keyId) {
+		return new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build(),
+				new JWTClaimsSet.Builder().subject("customer").build());
+	}
+
+	private static RSAKey rsaKey(String keyId) {
+		try {
+			return new RSAKeyGenerator(2048).keyID(keyId).generate();
+		} catch (JOSEException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
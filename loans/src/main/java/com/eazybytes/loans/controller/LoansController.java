@@ -1,5 +1,8 @@
 package com.eazybytes.loans.controller;
 
+import java.util.List;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,7 +36,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 /**
  * @author Eazy Bytes
@@ -84,6 +89,18 @@ public class LoansController {
 		return ResponseEntity.status(HttpStatus.OK).body(loansDto);
 	}
 
+	@Operation(summary = "Fetch Loan Details in bulk REST API", description = "REST API to fetch loan details for a list of mobile numbers in one call")
+	@ApiResponses({ @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
+			@ApiResponse(responseCode = "500", description = "HTTP Status Internal Server Error", content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))) })
+	@PostMapping("/fetch-batch")
+	public ResponseEntity<Map<String, LoansDto>> fetchLoanDetailsBatch(@RequestHeader("eazybank-correlation-id") String correlationId,
+			@RequestBody @NotEmpty @Size(max = LoansConstants.MAX_BATCH_SIZE, message = "At most " + LoansConstants.MAX_BATCH_SIZE + " mobile numbers can be fetched at once")
+			List<@Pattern(regexp = "(^$|[0-9]{10})", message = "Mobile number must be 10 digits") String> mobileNumbers) {
+		logger.debug("eazyBank-correlation-id found: {} ", correlationId);
+		Map<String, LoansDto> loansDtos = iLoansService.fetchLoans(mobileNumbers);
+		return ResponseEntity.status(HttpStatus.OK).body(loansDtos);
+	}
+
 	@Operation(summary = "Update Loan Details REST API", description = "REST API to update loan details based on a loan number")
 	@ApiResponses({ @ApiResponse(responseCode = "200", description = "HTTP Status OK"),
 			@ApiResponse(responseCode = "417", description = "Expectation Failed"),
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(indexes = {
+		@Index(name = "uk_loans_mobile_number", columnList = "mobile_number", unique = true),
+		@Index(name = "uk_loans_loan_number", columnList = "loan_number", unique = true) })
 @Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
 public class Loans extends BaseEntity {
 
@@ -2,8 +2,11 @@ package com.eazybytes.loans.repository;
 
 import com.eazybytes.loans.entity.Loans;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +16,13 @@ public interface LoansRepository extends JpaRepository<Loans, Long> {
 
     Optional<Loans> findByLoanNumber(String loanNumber);
 
+    List<Loans> findByMobileNumberIn(Collection<String> mobileNumbers);
+
+    /**
+     * @return the next loan number; the sequence is not transactional, so this neither locks nor
+     * needs a connection of its own
+     */
+    @Query(value = "select next value for loan_number_seq", nativeQuery = true)
+    Long nextLoanNumber();
+
 }
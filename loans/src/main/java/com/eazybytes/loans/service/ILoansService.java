@@ -1,5 +1,8 @@
 package com.eazybytes.loans.service;
 
+import java.util.List;
+import java.util.Map;
+
 import com.eazybytes.loans.dto.LoansDto;
 
 public interface ILoansService {
@@ -17,6 +20,13 @@ public interface ILoansService {
      */
     LoansDto fetchLoan(String mobileNumber);
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Loan Details keyed by mobileNumber, mobile numbers without a loan are omitted
+     */
+    Map<String, LoansDto> fetchLoans(List<String> mobileNumbers);
+
     /**
      *
      * @param loansDto - LoansDto Object
@@ -9,10 +9,12 @@ import com.eazybytes.loans.mapper.LoansMapper;
 import com.eazybytes.loans.repository.LoansRepository;
 import com.eazybytes.loans.service.ILoansService;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-import java.util.Random;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
@@ -25,11 +27,12 @@ public class LoansServiceImpl implements ILoansService {
      */
     @Override
     public void createLoan(String mobileNumber) {
-        Optional<Loans> optionalLoans= loansRepository.findByMobileNumber(mobileNumber);
-        if(optionalLoans.isPresent()){
+        try {
+            loansRepository.save(createNewLoan(mobileNumber));
+        } catch (DataIntegrityViolationException ex) {
+            // uk_loans_mobile_number rejects a second loan for the same mobile number
             throw new LoanAlreadyExistsException("Loan already registered with given mobileNumber "+mobileNumber);
         }
-        loansRepository.save(createNewLoan(mobileNumber));
     }
 
     /**
@@ -38,8 +41,7 @@ public class LoansServiceImpl implements ILoansService {
      */
     private Loans createNewLoan(String mobileNumber) {
         Loans newLoan = new Loans();
-        long randomLoanNumber = 100000000000L + new Random().nextInt(900000000);
-        newLoan.setLoanNumber(Long.toString(randomLoanNumber));
+        newLoan.setLoanNumber(loansRepository.nextLoanNumber().toString());
         newLoan.setMobileNumber(mobileNumber);
         newLoan.setLoanType(LoansConstants.HOME_LOAN);
         newLoan.setTotalLoan(LoansConstants.NEW_LOAN_LIMIT);
@@ -61,6 +63,20 @@ public class LoansServiceImpl implements ILoansService {
         return LoansMapper.mapToLoansDto(loans, new LoansDto());
     }
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Loan Details keyed by mobileNumber, mobile numbers without a loan are omitted
+     */
+    @Override
+    public Map<String, LoansDto> fetchLoans(List<String> mobileNumbers) {
+        Map<String, LoansDto> loansByMobileNumber = new LinkedHashMap<>();
+        for (Loans loans : loansRepository.findByMobileNumberIn(mobileNumbers)) {
+            loansByMobileNumber.putIfAbsent(loans.getMobileNumber(), LoansMapper.mapToLoansDto(loans, new LoansDto()));
+        }
+        return loansByMobileNumber;
+    }
+
     /**
      *
      * @param loansDto - LoansDto Object
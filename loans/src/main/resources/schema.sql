@@ -11,4 +11,10 @@ CREATE TABLE IF NOT EXISTS `loans` (
   `updated_at` date DEFAULT NULL,
   `updated_by` varchar(20) DEFAULT NULL,
   PRIMARY KEY (`loan_id`)
-);
\ No newline at end of file
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS `uk_loans_mobile_number` ON `loans` (`mobile_number`);
+
+CREATE UNIQUE INDEX IF NOT EXISTS `uk_loans_loan_number` ON `loans` (`loan_number`);
+
+CREATE SEQUENCE IF NOT EXISTS `loan_number_seq` START WITH 100000000000 CACHE 100;
@@ -2,8 +2,16 @@ package com.eazybytes.message;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+import com.eazybytes.message.config.MessageIdempotencyProperties;
+import com.eazybytes.message.config.MessageProcessingProperties;
+import com.eazybytes.message.config.MessageRetryProperties;
+import com.eazybytes.message.config.MessageSenderProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties(value = {MessageProcessingProperties.class, MessageIdempotencyProperties.class,
+		MessageSenderProperties.class, MessageRetryProperties.class})
 public class MessageApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,37 @@
+package com.eazybytes.message.codec;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+
+import com.eazybytes.message.dto.AccountsMsgDto;
+
+/**
+ * Message converter for the {@value #CONTENT_TYPE} content type. Messages are converted by their
+ * contentType header, so JSON and binary records can be mixed on the same topic while producers
+ * are switched over.
+ */
+public class AccountsMsgBinaryMessageConverter extends AbstractMessageConverter {
+
+	public static final String CONTENT_TYPE = "application/x-accounts-msg";
+
+	public AccountsMsgBinaryMessageConverter() {
+		super(MimeType.valueOf(CONTENT_TYPE));
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return AccountsMsgDto.class.equals(clazz);
+	}
+
+	@Override
+	protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+		return message.getPayload() instanceof byte[] payload ? AccountsMsgCodec.decode(payload) : null;
+	}
+
+	@Override
+	protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+		return payload instanceof AccountsMsgDto accountsMsgDto ? AccountsMsgCodec.encode(accountsMsgDto) : null;
+	}
+}
@@ -0,0 +1,112 @@
+package com.eazybytes.message.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.messaging.converter.MessageConversionException;
+
+import com.eazybytes.message.dto.AccountsMsgDto;
+
+/**
+ * Compact binary encoding of {@link AccountsMsgDto}, shared with the accounts service. Layout:
+ * schema version byte, null-flags byte, account number as an unsigned varint, then name, email and
+ * mobile number as varint-length-prefixed UTF-8. Readers ignore trailing bytes, so fields can be
+ * appended without a version bump; any other change needs a new {@link #SCHEMA_VERSION}.
+ */
+public final class AccountsMsgCodec {
+
+	public static final byte SCHEMA_VERSION = 1;
+
+	private static final int NULL_ACCOUNT_NUMBER = 1;
+	private static final int NULL_NAME = 1 << 1;
+	private static final int NULL_EMAIL = 1 << 2;
+	private static final int NULL_MOBILE_NUMBER = 1 << 3;
+
+	private AccountsMsgCodec() {
+		// restrict instantiation
+	}
+
+	public static byte[] encode(AccountsMsgDto accountsMsgDto) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+		out.write(SCHEMA_VERSION);
+		int nulls = (accountsMsgDto.accountNumber() == null ? NULL_ACCOUNT_NUMBER : 0)
+				| (accountsMsgDto.name() == null ? NULL_NAME : 0)
+				| (accountsMsgDto.email() == null ? NULL_EMAIL : 0)
+				| (accountsMsgDto.mobileNumber() == null ? NULL_MOBILE_NUMBER : 0);
+		out.write(nulls);
+		if (accountsMsgDto.accountNumber() != null) {
+			writeVarLong(out, accountsMsgDto.accountNumber());
+		}
+		writeString(out, accountsMsgDto.name());
+		writeString(out, accountsMsgDto.email());
+		writeString(out, accountsMsgDto.mobileNumber());
+		return out.toByteArray();
+	}
+
+	/**
+	 * @throws MessageConversionException when the payload is truncated, has an unsupported version
+	 *                                     or is otherwise malformed
+	 */
+	public static AccountsMsgDto decode(byte[] payload) {
+		try {
+			ByteBuffer in = ByteBuffer.wrap(payload);
+			byte version = in.get();
+			if (version != SCHEMA_VERSION) {
+				throw new MessageConversionException("Unsupported AccountsMsgDto schema version " + version);
+			}
+			int nulls = in.get();
+			Long accountNumber = (nulls & NULL_ACCOUNT_NUMBER) != 0 ? null : readVarLong(in);
+			String name = (nulls & NULL_NAME) != 0 ? null : readString(in);
+			String email = (nulls & NULL_EMAIL) != 0 ? null : readString(in);
+			String mobileNumber = (nulls & NULL_MOBILE_NUMBER) != 0 ? null : readString(in);
+			return new AccountsMsgDto(accountNumber, name, email, mobileNumber);
+		} catch (MessageConversionException ex) {
+			throw ex;
+		} catch (BufferUnderflowException ex) {
+			throw new MessageConversionException("Truncated AccountsMsgDto payload", ex);
+		} catch (RuntimeException ex) {
+			throw new MessageConversionException("Malformed AccountsMsgDto payload", ex);
+		}
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		if (value != null) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(out, bytes.length);
+			out.writeBytes(bytes);
+		}
+	}
+
+	private static String readString(ByteBuffer in) {
+		long length = readVarLong(in);
+		if (length < 0 || length > in.remaining()) {
+			throw new MessageConversionException("Field length " + length + " exceeds the remaining "
+					+ in.remaining() + " bytes of the AccountsMsgDto payload");
+		}
+		String value = new String(in.array(), in.arrayOffset() + in.position(), (int) length, StandardCharsets.UTF_8);
+		in.position(in.position() + (int) length);
+		return value;
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static long readVarLong(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new MessageConversionException("Malformed varint in AccountsMsgDto payload");
+	}
+}
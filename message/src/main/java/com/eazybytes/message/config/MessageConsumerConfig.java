@@ -0,0 +1,37 @@
+package com.eazybytes.message.config;
+
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.messaging.SubscribableChannel;
+
+@Configuration
+public class MessageConsumerConfig {
+
+	/**
+	 * The emailsms binding acknowledges manually from the worker lanes, so records of a partition
+	 * are acknowledged out of order; with async acks the container only commits an offset once
+	 * every record before it has been acknowledged. The retry tiers are processed on the consumer
+	 * thread and delay records that are not yet due with {@code nack}, which async acks do not
+	 * support, so they keep in-order acks.
+	 *
+	 * @return customizer applied to the Kafka listener container of every binding
+	 */
+	@Bean
+	public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>> asyncAcksCustomizer(
+			MessageRetryProperties retryProperties) {
+		return (container, destinationName, group) -> container.getContainerProperties()
+				.setAsyncAcks(retryProperties.getTopic().equals(destinationName));
+	}
+
+	/**
+	 * @return channel the Kafka binder sends each acknowledged communication-sent record to, named
+	 *         by the binding's record-metadata-channel
+	 */
+	@Bean(name = "communicationSentAcks")
+	public SubscribableChannel communicationSentAcks() {
+		return new DirectChannel();
+	}
+}
@@ -0,0 +1,19 @@
+package com.eazybytes.message.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+
+import com.eazybytes.message.codec.AccountsMsgBinaryMessageConverter;
+
+@Configuration
+public class MessageConverterConfig {
+
+	/**
+	 * @return converter picked up by Spring Cloud Stream for bindings using the binary content type
+	 */
+	@Bean
+	public MessageConverter accountsMsgBinaryMessageConverter() {
+		return new AccountsMsgBinaryMessageConverter();
+	}
+}
@@ -0,0 +1,33 @@
+package com.eazybytes.message.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+import com.eazybytes.message.idempotency.IdempotencyGuard;
+import com.eazybytes.message.idempotency.InMemoryProcessedMessageStore;
+import com.eazybytes.message.idempotency.ProcessedMessageStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MessageIdempotencyConfig {
+
+	/**
+	 * @return first-level store; a persistent store is added by declaring another
+	 *         ProcessedMessageStore bean with a later order
+	 */
+	@Bean
+	@Order(0)
+	public ProcessedMessageStore inMemoryProcessedMessageStore(MessageIdempotencyProperties properties) {
+		return new InMemoryProcessedMessageStore(properties);
+	}
+
+	@Bean
+	public IdempotencyGuard idempotencyGuard(List<ProcessedMessageStore> stores, MessageIdempotencyProperties properties,
+			MeterRegistry meterRegistry) {
+		return new IdempotencyGuard(properties.isEnabled() ? stores : List.of(), meterRegistry);
+	}
+}
@@ -0,0 +1,45 @@
+package com.eazybytes.message.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "message.idempotency")
+public class MessageIdempotencyProperties {
+
+	private boolean enabled = true;
+
+	/**
+	 * Number of processed keys remembered in memory.
+	 */
+	private long maximumSize = 100000;
+
+	/**
+	 * How long a processed key is remembered; should exceed the longest redelivery delay.
+	 */
+	private Duration retention = Duration.ofHours(24);
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public Duration getRetention() {
+		return retention;
+	}
+
+	public void setRetention(Duration retention) {
+		this.retention = retention;
+	}
+}
@@ -0,0 +1,51 @@
+package com.eazybytes.message.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "message.processing")
+public class MessageProcessingProperties {
+
+	/**
+	 * Number of worker lanes; records of the same account number always share a lane so they are
+	 * processed in order, while different accounts are processed in parallel. 0 processes every
+	 * record on the Kafka consumer thread.
+	 */
+	private int workers = 8;
+
+	/**
+	 * Records buffered per lane before the consumer thread is held back.
+	 */
+	private int queueCapacity = 256;
+
+	/**
+	 * How long to wait for the broker to acknowledge the confirmation on communication-sent before
+	 * the request counts as failed.
+	 */
+	private Duration confirmTimeout = Duration.ofSeconds(5);
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	public void setWorkers(int workers) {
+		this.workers = workers;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public Duration getConfirmTimeout() {
+		return confirmTimeout;
+	}
+
+	public void setConfirmTimeout(Duration confirmTimeout) {
+		this.confirmTimeout = confirmTimeout;
+	}
+}
@@ -0,0 +1,48 @@
+package com.eazybytes.message.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "message.retry")
+public class MessageRetryProperties {
+
+	/**
+	 * Topic of new communication requests; retry tiers are {topic}-retry-1..n and the dead-letter
+	 * topic is {topic}-dlt.
+	 */
+	private String topic = "send-communication";
+
+	/**
+	 * Delay of each retry tier. Every tier needs an emailsmsRetry{n}-in-0 binding, so the shipped
+	 * configuration supports up to three tiers.
+	 */
+	private List<Duration> delays = new ArrayList<>(List.of(Duration.ofSeconds(10), Duration.ofMinutes(1),
+			Duration.ofMinutes(5)));
+
+	public String getTopic() {
+		return topic;
+	}
+
+	public void setTopic(String topic) {
+		this.topic = topic;
+	}
+
+	public List<Duration> getDelays() {
+		return delays;
+	}
+
+	public void setDelays(List<Duration> delays) {
+		this.delays = delays;
+	}
+
+	public String retryTopic(int tier) {
+		return topic + "-retry-" + tier;
+	}
+
+	public String deadLetterTopic() {
+		return topic + "-dlt";
+	}
+}
@@ -0,0 +1,53 @@
+package com.eazybytes.message.config;
+
+import java.net.http.HttpClient;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.eazybytes.message.sender.BatchingCommunicationSender;
+import com.eazybytes.message.sender.CommunicationSender;
+import com.eazybytes.message.sender.HttpCommunicationSender;
+import com.eazybytes.message.sender.LoggingCommunicationSender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MessageSenderConfig {
+
+	@Bean
+	public HttpClient messageSenderHttpClient() {
+		return HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public BatchingCommunicationSender emailSender(MessageSenderProperties properties, HttpClient messageSenderHttpClient,
+			ObjectProvider<ObjectMapper> objectMapper, MeterRegistry meterRegistry) {
+		return new BatchingCommunicationSender("email",
+				provider("email", properties.getEmail(), messageSenderHttpClient, objectMapper.getIfAvailable(ObjectMapper::new)), properties.getEmail(),
+				meterRegistry);
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public BatchingCommunicationSender smsSender(MessageSenderProperties properties, HttpClient messageSenderHttpClient,
+			ObjectProvider<ObjectMapper> objectMapper, MeterRegistry meterRegistry) {
+		return new BatchingCommunicationSender("sms",
+				provider("sms", properties.getSms(), messageSenderHttpClient, objectMapper.getIfAvailable(ObjectMapper::new)), properties.getSms(),
+				meterRegistry);
+	}
+
+	private static CommunicationSender provider(String channel, MessageSenderProperties.Channel properties,
+			HttpClient httpClient, ObjectMapper objectMapper) {
+		return switch (properties.getProvider()) {
+		case LOGGING -> new LoggingCommunicationSender(channel);
+		case HTTP -> {
+			if (properties.getUrl() == null) {
+				throw new IllegalStateException("message.sender." + channel + ".url is required for the HTTP provider");
+			}
+			yield new HttpCommunicationSender(httpClient, objectMapper, properties.getUrl(), properties.getTimeout());
+		}
+		};
+	}
+}
@@ -0,0 +1,142 @@
+package com.eazybytes.message.config;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "message.sender")
+public class MessageSenderProperties {
+
+	private Channel email = new Channel();
+
+	private Channel sms = new Channel();
+
+	public Channel getEmail() {
+		return email;
+	}
+
+	public void setEmail(Channel email) {
+		this.email = email;
+	}
+
+	public Channel getSms() {
+		return sms;
+	}
+
+	public void setSms(Channel sms) {
+		this.sms = sms;
+	}
+
+	public enum Provider {
+		/** Only log the requests; for local runs and tests. */
+		LOGGING,
+		/** POST batches as JSON to {@link Channel#getUrl()}. */
+		HTTP
+	}
+
+	public static class Channel {
+
+		private Provider provider = Provider.LOGGING;
+
+		/**
+		 * Provider endpoint, required for the HTTP provider.
+		 */
+		private URI url;
+
+		/**
+		 * Timeout of a single provider call.
+		 */
+		private Duration timeout = Duration.ofSeconds(5);
+
+		/**
+		 * Maximum number of requests sent to the provider in one call.
+		 */
+		private int batchSize = 50;
+
+		/**
+		 * How long a request may wait for its batch to fill up.
+		 */
+		private Duration linger = Duration.ofMillis(20);
+
+		/**
+		 * Requests per second the provider accepts; 0 disables throttling.
+		 */
+		private double ratePerSecond = 0;
+
+		/**
+		 * Maximum number of requests queued or in flight with the provider.
+		 */
+		private int maxPending = 1000;
+
+		/**
+		 * How long a caller may block for room once max-pending is reached before its request is
+		 * rejected.
+		 */
+		private Duration enqueueTimeout = Duration.ofSeconds(5);
+
+		public Provider getProvider() {
+			return provider;
+		}
+
+		public void setProvider(Provider provider) {
+			this.provider = provider;
+		}
+
+		public URI getUrl() {
+			return url;
+		}
+
+		public void setUrl(URI url) {
+			this.url = url;
+		}
+
+		public Duration getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+
+		public int getBatchSize() {
+			return batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public Duration getLinger() {
+			return linger;
+		}
+
+		public void setLinger(Duration linger) {
+			this.linger = linger;
+		}
+
+		public double getRatePerSecond() {
+			return ratePerSecond;
+		}
+
+		public void setRatePerSecond(double ratePerSecond) {
+			this.ratePerSecond = ratePerSecond;
+		}
+
+		public int getMaxPending() {
+			return maxPending;
+		}
+
+		public void setMaxPending(int maxPending) {
+			this.maxPending = maxPending;
+		}
+
+		public Duration getEnqueueTimeout() {
+			return enqueueTimeout;
+		}
+
+		public void setEnqueueTimeout(Duration enqueueTimeout) {
+			this.enqueueTimeout = enqueueTimeout;
+		}
+	}
+}
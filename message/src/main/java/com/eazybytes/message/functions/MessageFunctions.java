@@ -1,33 +1,73 @@
 package com.eazybytes.message.functions;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 
 import com.eazybytes.message.dto.AccountsMsgDto;
+import com.eazybytes.message.processing.CommunicationProcessor;
+import com.eazybytes.message.sender.BatchingCommunicationSender;
 
 @Configuration
 public class MessageFunctions {
 
 	private static final Logger log = LoggerFactory.getLogger(MessageFunctions.class);
 	
+	/**
+	 * Hands the request to the email provider's batching sender; completes once it was delivered.
+	 */
 	@Bean
-	public Function<AccountsMsgDto, AccountsMsgDto> email() {
+	public Function<AccountsMsgDto, CompletableFuture<AccountsMsgDto>> email(BatchingCommunicationSender emailSender) {
 		return accountsMsgDto -> {
-			log.info("Sending email with the details recieved ::" + accountsMsgDto.toString());
-			return accountsMsgDto;
+			log.debug("Queueing email with the details recieved ::{}", accountsMsgDto);
+			return emailSender.send(accountsMsgDto);
 		};
 	}
 	
 	
+	/**
+	 * Hands the request to the sms provider's batching sender; completes with the account number
+	 * to acknowledge once it was delivered.
+	 */
 	@Bean
-	public Function<AccountsMsgDto, Long> sms() {
+	public Function<AccountsMsgDto, CompletableFuture<Long>> sms(BatchingCommunicationSender smsSender) {
 		return accountsMsgDto -> {
-			log.info("Sending sms with the details recieved ::" + accountsMsgDto.toString());
-			return accountsMsgDto.accountNumber();
+			log.debug("Queueing sms with the details recieved ::{}", accountsMsgDto);
+			return smsSender.send(accountsMsgDto).thenApply(AccountsMsgDto::accountNumber);
 		};
 	}
+
+	/**
+	 * Entry point of the emailsms binding: runs email then sms for each request and publishes the
+	 * account number to communication-sent once both were delivered.
+	 */
+	@Bean
+	public Consumer<Message<AccountsMsgDto>> emailsms(CommunicationProcessor communicationProcessor) {
+		return communicationProcessor::dispatch;
+	}
+
+	/**
+	 * Consumers of the retry tiers; each tier has its own binding so a long delay on one tier
+	 * never holds up a shorter one.
+	 */
+	@Bean
+	public Consumer<Message<AccountsMsgDto>> emailsmsRetry1(CommunicationProcessor communicationProcessor) {
+		return communicationProcessor::dispatchWhenDue;
+	}
+
+	@Bean
+	public Consumer<Message<AccountsMsgDto>> emailsmsRetry2(CommunicationProcessor communicationProcessor) {
+		return communicationProcessor::dispatchWhenDue;
+	}
+
+	@Bean
+	public Consumer<Message<AccountsMsgDto>> emailsmsRetry3(CommunicationProcessor communicationProcessor) {
+		return communicationProcessor::dispatchWhenDue;
+	}
 }
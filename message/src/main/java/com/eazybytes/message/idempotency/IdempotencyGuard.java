@@ -0,0 +1,64 @@
+package com.eazybytes.message.idempotency;
+
+import java.util.List;
+
+import org.springframework.messaging.Message;
+
+import com.eazybytes.message.dto.AccountsMsgDto;
+import com.eazybytes.message.processing.CommunicationHeaders;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Skips communication requests that were already sent, keyed by account number and the eventId
+ * header set by the accounts outbox. Every configured store is consulted in order, so a cheap
+ * in-memory hit avoids the round trip to a persistent store.
+ */
+public class IdempotencyGuard {
+
+	private final List<ProcessedMessageStore> stores;
+	private final Counter duplicateCounter;
+
+	public IdempotencyGuard(List<ProcessedMessageStore> stores, MeterRegistry meterRegistry) {
+		this.stores = stores;
+		this.duplicateCounter = Counter.builder("message.duplicates")
+				.description("Communication requests skipped because they were already sent")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * @param message - communication request
+	 * @return the idempotency key, or null when the request carries no event id
+	 */
+	public String keyOf(Message<AccountsMsgDto> message) {
+		String eventId = CommunicationHeaders.get(message.getHeaders(), CommunicationHeaders.EVENT_ID);
+		return eventId == null ? null : message.getPayload().accountNumber() + ":" + eventId;
+	}
+
+	/**
+	 * @param key - idempotency key, may be null
+	 * @return true when the request should be skipped
+	 */
+	public boolean isDuplicate(String key) {
+		if (key == null) {
+			return false;
+		}
+		for (ProcessedMessageStore store : stores) {
+			if (store.isProcessed(key)) {
+				duplicateCounter.increment();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param key - idempotency key of a request that was sent, may be null
+	 */
+	public void markProcessed(String key) {
+		if (key != null) {
+			stores.forEach(store -> store.markProcessed(key));
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.eazybytes.message.idempotency;
+
+import com.eazybytes.message.config.MessageIdempotencyProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded, time-limited set of processed keys held in a Caffeine cache.
+ */
+public class InMemoryProcessedMessageStore implements ProcessedMessageStore {
+
+	private final Cache<String, Boolean> processed;
+
+	public InMemoryProcessedMessageStore(MessageIdempotencyProperties properties) {
+		this.processed = Caffeine.newBuilder()
+				.maximumSize(properties.getMaximumSize())
+				.expireAfterWrite(properties.getRetention())
+				.build();
+	}
+
+	@Override
+	public boolean isProcessed(String key) {
+		return processed.getIfPresent(key) != null;
+	}
+
+	@Override
+	public void markProcessed(String key) {
+		processed.put(key, Boolean.TRUE);
+	}
+}
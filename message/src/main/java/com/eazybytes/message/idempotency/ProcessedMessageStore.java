@@ -0,0 +1,20 @@
+package com.eazybytes.message.idempotency;
+
+/**
+ * Remembers which communication requests have already been sent. Implementations only need to be
+ * as durable as the duplicates they should catch: the in-memory store covers redeliveries and
+ * producer retries, a shared store also covers rebalances onto another instance.
+ */
+public interface ProcessedMessageStore {
+
+	/**
+	 * @param key - idempotency key of the request
+	 * @return true when a request with this key was already sent
+	 */
+	boolean isProcessed(String key);
+
+	/**
+	 * @param key - idempotency key of a request that has been sent
+	 */
+	void markProcessed(String key);
+}
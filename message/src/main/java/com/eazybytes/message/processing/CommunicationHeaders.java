@@ -0,0 +1,63 @@
+package com.eazybytes.message.processing;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Headers carried by communication requests. Values are written as strings; depending on the
+ * header mapper they come back as a String or as raw bytes, so they are read through
+ * {@link #get(MessageHeaders, String)}.
+ */
+public final class CommunicationHeaders {
+
+	/** Identifier of the event, set by the accounts outbox. */
+	public static final String EVENT_ID = "eventId";
+
+	/** Number of failed attempts before the request was parked on a retry topic. */
+	public static final String RETRY_ATTEMPT = "retryAttempt";
+
+	/** Epoch millis before which a parked request must not be retried. */
+	public static final String RETRY_NOT_BEFORE = "retryNotBefore";
+
+	/** Message of the error that caused the last failure. */
+	public static final String RETRY_ERROR = "retryError";
+
+	/** Correlates a communication-sent record with the broker's acknowledgement of it. */
+	public static final String CONFIRMATION_ID = "confirmationId";
+
+	private CommunicationHeaders() {
+		// restrict instantiation
+	}
+
+	/**
+	 * @return the header as a string, or null when absent
+	 */
+	public static String get(MessageHeaders headers, String name) {
+		Object value = headers.get(name);
+		if (value == null) {
+			return null;
+		}
+		String text = value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : value.toString();
+		// a JSON header mapper may have quoted the string
+		if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+			text = text.substring(1, text.length() - 1);
+		}
+		return text;
+	}
+
+	/**
+	 * @return the header as a long, or the default when absent or not a number
+	 */
+	public static long getLong(MessageHeaders headers, String name, long defaultValue) {
+		String value = get(headers, name);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException ex) {
+			return defaultValue;
+		}
+	}
+}
@@ -0,0 +1,278 @@
+package com.eazybytes.message.processing;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import com.eazybytes.message.config.MessageProcessingProperties;
+import com.eazybytes.message.dto.AccountsMsgDto;
+import com.eazybytes.message.idempotency.IdempotencyGuard;
+import com.eazybytes.message.retry.RetryRouter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends the email and sms for a communication request and confirms it on communication-sent once
+ * both providers accepted it. With worker lanes configured the work is handed off keyed by
+ * account number, so the consumer thread only deserializes and dispatches; the sends themselves
+ * complete asynchronously on the providers' batching senders. Failed requests are parked on the
+ * retry tiers instead of being redelivered in place.
+ * <p>
+ * The bindings acknowledge manually: a record is acknowledged only once it was sent and confirmed
+ * on communication-sent, skipped as a duplicate, or parked, so the offset of a record still queued
+ * on a lane is never committed and a crash redelivers it. A lane keeps retrying a park the broker
+ * rejects rather than dropping the record.
+ * <p>
+ * A request counts as sent, and is only then remembered by the idempotency guard, once the broker
+ * acknowledged its confirmation on communication-sent; the binder reports acknowledged sends on the
+ * {@code communicationSentAcks} channel. A confirmation that is rejected or not acknowledged in time
+ * fails the request like a failed send, so it is parked and retried rather than lost.
+ */
+@Component
+public class CommunicationProcessor {
+
+	private static final Logger log = LoggerFactory.getLogger(CommunicationProcessor.class);
+
+	private static final long MAX_PARK_BACKOFF_MILLIS = 30_000;
+
+	private final Function<AccountsMsgDto, CompletableFuture<AccountsMsgDto>> email;
+	private final Function<AccountsMsgDto, CompletableFuture<Long>> sms;
+	private final StreamBridge streamBridge;
+	private final IdempotencyGuard idempotencyGuard;
+	private final RetryRouter retryRouter;
+	private final KeyOrderedExecutor executor;
+	private final Timer processedTimer;
+	private final Timer failedTimer;
+	private final Duration confirmTimeout;
+	private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+	private final Map<String, CompletableFuture<Void>> pendingConfirmations = new ConcurrentHashMap<>();
+	private volatile boolean shuttingDown;
+
+	public CommunicationProcessor(Function<AccountsMsgDto, CompletableFuture<AccountsMsgDto>> email,
+			Function<AccountsMsgDto, CompletableFuture<Long>> sms,
+			StreamBridge streamBridge, @Qualifier("communicationSentAcks") SubscribableChannel communicationSentAcks,
+			IdempotencyGuard idempotencyGuard, RetryRouter retryRouter, MessageProcessingProperties properties,
+			MeterRegistry meterRegistry) {
+		this.email = email;
+		this.sms = sms;
+		this.streamBridge = streamBridge;
+		this.idempotencyGuard = idempotencyGuard;
+		this.retryRouter = retryRouter;
+		this.confirmTimeout = properties.getConfirmTimeout();
+		this.executor = properties.getWorkers() > 0
+				? new KeyOrderedExecutor("message-worker", properties.getWorkers(), properties.getQueueCapacity(), meterRegistry)
+				: null;
+		this.processedTimer = Timer.builder("message.processing")
+				.description("Time to send the email and sms of a communication request")
+				.tag("outcome", "success")
+				.register(meterRegistry);
+		this.failedTimer = Timer.builder("message.processing")
+				.description("Time spent on communication requests that failed")
+				.tag("outcome", "failure")
+				.register(meterRegistry);
+		communicationSentAcks.subscribe(this::confirmed);
+	}
+
+	/**
+	 * @param message - communication request received from send-communication
+	 */
+	public void dispatch(Message<AccountsMsgDto> message) {
+		if (executor == null) {
+			dispatchInline(message);
+			return;
+		}
+		AccountsMsgDto accountsMsgDto = message.getPayload();
+		String eventId = CommunicationHeaders.get(message.getHeaders(), CommunicationHeaders.EVENT_ID);
+		String idempotencyKey = idempotencyGuard.keyOf(message);
+		int attempt = (int) CommunicationHeaders.getLong(message.getHeaders(), CommunicationHeaders.RETRY_ATTEMPT, 0);
+		Acknowledgment acknowledgment = message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class);
+		executor.execute(accountsMsgDto.accountNumber(), () -> process(accountsMsgDto, eventId, idempotencyKey, attempt, true)
+				.whenComplete((done, ex) -> {
+					if (ex == null) {
+						acknowledge(acknowledgment);
+					} else {
+						log.error("Left communication for the account number : {} unacknowledged, it is redelivered "
+								+ "after a restart or rebalance", accountsMsgDto.accountNumber(), ex);
+					}
+				}));
+	}
+
+	/**
+	 * Processes a parked request on the retry tier's consumer thread once it is due. A request that
+	 * is not due yet is negatively acknowledged for the remaining delay: the container seeks back to
+	 * it and pauses the consumer meanwhile, so the thread is free and keeps polling instead of
+	 * blocking past max.poll.interval.ms. Requests of one tier share the same delay, so only the head
+	 * of a partition is ever early.
+	 *
+	 * @param message - communication request received from a retry tier
+	 */
+	public void dispatchWhenDue(Message<AccountsMsgDto> message) {
+		long waitMillis = CommunicationHeaders.getLong(message.getHeaders(), CommunicationHeaders.RETRY_NOT_BEFORE, 0)
+				- System.currentTimeMillis();
+		Acknowledgment acknowledgment = message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class);
+		if (waitMillis > 0 && acknowledgment != null) {
+			acknowledgment.nack(Duration.ofMillis(waitMillis));
+			return;
+		}
+		dispatchInline(message);
+	}
+
+	/**
+	 * Processes the request on the calling consumer thread and acknowledges it. Fails the record when
+	 * it could not even be parked, so the binder redelivers it.
+	 */
+	private void dispatchInline(Message<AccountsMsgDto> message) {
+		AccountsMsgDto accountsMsgDto = message.getPayload();
+		String eventId = CommunicationHeaders.get(message.getHeaders(), CommunicationHeaders.EVENT_ID);
+		int attempt = (int) CommunicationHeaders.getLong(message.getHeaders(), CommunicationHeaders.RETRY_ATTEMPT, 0);
+		try {
+			process(accountsMsgDto, eventId, idempotencyGuard.keyOf(message), attempt, false).join();
+		} catch (CompletionException ex) {
+			throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+		}
+		acknowledge(message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class));
+	}
+
+	/**
+	 * The duplicate check runs on the account's lane and covers requests still in flight, so it
+	 * cannot race with an earlier copy of the same request.
+	 *
+	 * @param attempt - number of earlier failed attempts
+	 * @param onLane  - whether a rejected park is retried instead of failing the record
+	 * @return completes once the request was sent, skipped or parked; fails when it could not be parked
+	 */
+	private CompletableFuture<Void> process(AccountsMsgDto accountsMsgDto, String eventId, String idempotencyKey,
+			int attempt, boolean onLane) {
+		if (idempotencyGuard.isDuplicate(idempotencyKey) || (idempotencyKey != null && !inFlight.add(idempotencyKey))) {
+			log.debug("Skipping already sent communication for the account number : {}", accountsMsgDto.accountNumber());
+			return CompletableFuture.completedFuture(null);
+		}
+		long start = System.nanoTime();
+		return CompletableFuture.completedFuture(accountsMsgDto).thenCompose(email).thenCompose(sms)
+				.thenCompose(this::confirm)
+				.whenComplete((done, ex) -> {
+					if (idempotencyKey != null) {
+						if (ex == null) {
+							idempotencyGuard.markProcessed(idempotencyKey);
+						}
+						inFlight.remove(idempotencyKey);
+					}
+					if (ex == null) {
+						retryRouter.recovered(attempt);
+						processedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					} else {
+						failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+						log.error("Failed to send communication for the account number : {}", accountsMsgDto.accountNumber(), ex);
+					}
+				})
+				.handle((done, ex) -> ex)
+				.thenCompose(ex -> {
+					if (ex == null) {
+						return CompletableFuture.completedFuture(null);
+					}
+					Throwable error = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+					if (!onLane) {
+						retryRouter.park(accountsMsgDto, eventId, attempt + 1, error);
+						return CompletableFuture.completedFuture(null);
+					}
+					return parkUntilAccepted(accountsMsgDto, eventId, attempt + 1, error, 1000);
+				});
+	}
+
+	/**
+	 * Retries a park the broker rejected with a growing delay, without holding the lane, until it is
+	 * accepted or the service shuts down.
+	 */
+	private CompletableFuture<Void> parkUntilAccepted(AccountsMsgDto accountsMsgDto, String eventId, int attempt,
+			Throwable error, long backoffMillis) {
+		try {
+			retryRouter.park(accountsMsgDto, eventId, attempt, error);
+			return CompletableFuture.completedFuture(null);
+		} catch (RuntimeException ex) {
+			if (shuttingDown) {
+				return CompletableFuture.failedFuture(ex);
+			}
+			log.warn("Could not park communication for the account number : {}, retrying in {} ms",
+					accountsMsgDto.accountNumber(), backoffMillis, ex);
+			Executor delayed = CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS);
+			return CompletableFuture.runAsync(() -> { }, delayed).thenCompose(ignored -> parkUntilAccepted(accountsMsgDto,
+					eventId, attempt, error, Math.min(backoffMillis * 2, MAX_PARK_BACKOFF_MILLIS)));
+		}
+	}
+
+	/**
+	 * Publishes the account number on communication-sent.
+	 *
+	 * @return completes once the broker acknowledged the record; fails when the binding rejected it
+	 *         or no acknowledgement arrived within the confirm timeout
+	 */
+	private CompletableFuture<Void> confirm(Long accountNumber) {
+		String confirmationId = UUID.randomUUID().toString();
+		CompletableFuture<Void> confirmation = new CompletableFuture<>();
+		pendingConfirmations.put(confirmationId, confirmation);
+		boolean sent;
+		try {
+			sent = streamBridge.send("emailsms-out-0", MessageBuilder.withPayload(accountNumber)
+					.setHeader(CommunicationHeaders.CONFIRMATION_ID, confirmationId)
+					.build());
+		} catch (RuntimeException ex) {
+			pendingConfirmations.remove(confirmationId);
+			return CompletableFuture.failedFuture(ex);
+		}
+		if (!sent) {
+			pendingConfirmations.remove(confirmationId);
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					"Could not confirm communication for the account number " + accountNumber + " on communication-sent"));
+		}
+		return confirmation.orTimeout(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)
+				.whenComplete((done, ex) -> pendingConfirmations.remove(confirmationId));
+	}
+
+	/**
+	 * Completes the pending confirmation whose id the acknowledged record carries.
+	 */
+	private void confirmed(Message<?> message) {
+		String confirmationId = CommunicationHeaders.get(message.getHeaders(), CommunicationHeaders.CONFIRMATION_ID);
+		CompletableFuture<Void> confirmation = confirmationId != null ? pendingConfirmations.get(confirmationId) : null;
+		if (confirmation != null) {
+			confirmation.complete(null);
+		}
+	}
+
+	private static void acknowledge(Acknowledgment acknowledgment) {
+		if (acknowledgment != null) {
+			acknowledgment.acknowledge();
+		}
+	}
+
+	/**
+	 * Drains the worker lanes on shutdown.
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		shuttingDown = true;
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+}
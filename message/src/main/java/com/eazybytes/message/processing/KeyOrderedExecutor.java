@@ -0,0 +1,80 @@
+package com.eazybytes.message.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs tasks on a fixed set of single-threaded lanes chosen by key, so tasks with the same key run
+ * one after another in submission order and tasks with different keys run concurrently. A full
+ * lane blocks the submitter, which pushes back on the Kafka consumer instead of buffering without
+ * bound.
+ */
+public class KeyOrderedExecutor {
+
+	private static final Logger log = LoggerFactory.getLogger(KeyOrderedExecutor.class);
+
+	private final List<ThreadPoolExecutor> lanes;
+
+	public KeyOrderedExecutor(String name, int laneCount, int queueCapacity, MeterRegistry meterRegistry) {
+		this.lanes = new ArrayList<>(laneCount);
+		AtomicInteger threadNumber = new AtomicInteger();
+		for (int i = 0; i < laneCount; i++) {
+			ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(queueCapacity),
+					runnable -> new Thread(runnable, name + "-" + threadNumber.incrementAndGet()),
+					KeyOrderedExecutor::blockUntilQueued);
+			lanes.add(lane);
+		}
+		Gauge.builder("message.processing.queued", lanes, KeyOrderedExecutor::queued)
+				.description("Records waiting in the worker lanes")
+				.tag("executor", name)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * @param key  - ordering key, e.g. the account number
+	 * @param task - work to run after every earlier task with the same key
+	 */
+	public void execute(Object key, Runnable task) {
+		lanes.get(Math.floorMod(key == null ? 0 : key.hashCode(), lanes.size())).execute(task);
+	}
+
+	private static void blockUntilQueued(Runnable task, ThreadPoolExecutor lane) {
+		if (lane.isShutdown()) {
+			throw new RejectedExecutionException("Worker lane is shut down");
+		}
+		try {
+			lane.getQueue().put(task);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted while waiting for a worker lane", ex);
+		}
+	}
+
+	private static double queued(List<ThreadPoolExecutor> lanes) {
+		return lanes.stream().mapToInt(lane -> lane.getQueue().size()).sum();
+	}
+
+	/**
+	 * Drains the records already handed to the lanes so they are not lost on a graceful shutdown.
+	 */
+	public void shutdown() throws InterruptedException {
+		lanes.forEach(ThreadPoolExecutor::shutdown);
+		for (ThreadPoolExecutor lane : lanes) {
+			if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+				log.warn("Worker lane did not drain in time, {} records dropped", lane.shutdownNow().size());
+			}
+		}
+	}
+}
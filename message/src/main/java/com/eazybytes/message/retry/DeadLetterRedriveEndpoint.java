@@ -0,0 +1,152 @@
+package com.eazybytes.message.retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.eazybytes.message.config.MessageRetryProperties;
+import com.eazybytes.message.processing.CommunicationHeaders;
+
+/**
+ * Actuator endpoint ({@code POST /actuator/communicationdlt}) that moves parked requests from the
+ * dead-letter topic back onto send-communication with a fresh retry budget, e.g. after a provider
+ * outage has been fixed. The records present when the call starts are read from the offsets
+ * committed under the endpoint's own consumer group, so every record is re-driven once.
+ */
+@Component
+@Endpoint(id = "communicationdlt")
+public class DeadLetterRedriveEndpoint {
+
+	private static final int DEFAULT_LIMIT = 1000;
+	private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+	private static final Duration READ_TIMEOUT = Duration.ofMinutes(1);
+
+	private final StreamBridge streamBridge;
+	private final MessageRetryProperties properties;
+	private final Environment environment;
+
+	public DeadLetterRedriveEndpoint(StreamBridge streamBridge, MessageRetryProperties properties,
+			Environment environment) {
+		this.streamBridge = streamBridge;
+		this.properties = properties;
+		this.environment = environment;
+	}
+
+	/**
+	 * @param limit - maximum number of records to re-drive, 1000 by default
+	 * @return number of records re-driven
+	 */
+	@WriteOperation
+	public synchronized Map<String, Object> redrive(@Nullable Integer limit) {
+		int max = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+		int redriven = 0;
+		try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProperties())) {
+			// partitions are assigned rather than subscribed, so reading does not wait for a group
+			// rebalance; the group only keeps the committed progress
+			List<TopicPartition> partitions = consumer.partitionsFor(properties.deadLetterTopic(), POLL_TIMEOUT)
+					.stream()
+					.map(partition -> new TopicPartition(partition.topic(), partition.partition()))
+					.toList();
+			consumer.assign(partitions);
+			Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+			for (TopicPartition partition : partitions) {
+				OffsetAndMetadata offset = committed.get(partition);
+				if (offset != null) {
+					consumer.seek(partition, offset);
+				}
+				else {
+					consumer.seekToBeginning(List.of(partition));
+				}
+			}
+			// records parked while re-driving are left for the next call
+			Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+			long deadline = System.nanoTime() + READ_TIMEOUT.toNanos();
+			while (redriven < max && !reachedEnd(consumer, endOffsets) && System.nanoTime() < deadline) {
+				ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+				Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+				for (ConsumerRecord<byte[], byte[]> record : records) {
+					TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+					if (redriven == max || record.offset() >= endOffsets.get(partition)) {
+						continue;
+					}
+					republish(record);
+					offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+					redriven++;
+				}
+				if (!offsets.isEmpty()) {
+					consumer.commitSync(offsets);
+				}
+			}
+		}
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("topic", properties.deadLetterTopic());
+		result.put("redriven", redriven);
+		return result;
+	}
+
+	private static boolean reachedEnd(KafkaConsumer<?, ?> consumer, Map<TopicPartition, Long> endOffsets) {
+		return endOffsets.entrySet().stream().allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+	}
+
+	private void republish(ConsumerRecord<byte[], byte[]> record) {
+		// keep the record's encoding, JSON or binary
+		Header contentType = record.headers().lastHeader(MessageHeaders.CONTENT_TYPE);
+		MessageBuilder<byte[]> message = MessageBuilder.withPayload(record.value())
+				.setHeader(MessageHeaders.CONTENT_TYPE, contentType != null
+						? unquote(new String(contentType.value(), StandardCharsets.UTF_8))
+						: MimeTypeUtils.APPLICATION_JSON_VALUE);
+		Header eventId = record.headers().lastHeader(CommunicationHeaders.EVENT_ID);
+		if (eventId != null) {
+			message.setHeader(CommunicationHeaders.EVENT_ID, eventId.value());
+		}
+		if (!streamBridge.send(properties.getTopic(), message.build())) {
+			throw new IllegalStateException("Could not re-drive record " + record.offset() + " of " + record.topic());
+		}
+	}
+
+	private static String unquote(String value) {
+		return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+				? value.substring(1, value.length() - 1)
+				: value;
+	}
+
+	private Properties consumerProperties() {
+		List<String> brokers = Binder.get(environment)
+				.bind("spring.cloud.stream.kafka.binder.brokers", Bindable.listOf(String.class))
+				.orElse(List.of("localhost:9092"));
+		Properties consumerProperties = new Properties();
+		consumerProperties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, String.join(",", brokers));
+		consumerProperties.put(ConsumerConfig.GROUP_ID_CONFIG,
+				environment.getProperty("spring.application.name", "message") + "-dlt-redrive");
+		consumerProperties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+		consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		consumerProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+		consumerProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+		return consumerProperties;
+	}
+}
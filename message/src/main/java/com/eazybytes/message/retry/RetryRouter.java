@@ -0,0 +1,91 @@
+package com.eazybytes.message.retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import com.eazybytes.message.config.MessageRetryProperties;
+import com.eazybytes.message.dto.AccountsMsgDto;
+import com.eazybytes.message.processing.CommunicationHeaders;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Parks failed communication requests on the next retry tier, or on the dead-letter topic once
+ * every tier has been tried, so a failing request never holds up its source partition.
+ */
+@Component
+public class RetryRouter {
+
+	private static final Logger log = LoggerFactory.getLogger(RetryRouter.class);
+
+	private static final int MAX_ERROR_LENGTH = 500;
+
+	private final StreamBridge streamBridge;
+	private final MessageRetryProperties properties;
+	private final MeterRegistry meterRegistry;
+	private final Map<String, Counter> parkedCounters = new ConcurrentHashMap<>();
+	private final Map<String, Counter> recoveredCounters = new ConcurrentHashMap<>();
+
+	public RetryRouter(StreamBridge streamBridge, MessageRetryProperties properties, MeterRegistry meterRegistry) {
+		this.streamBridge = streamBridge;
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * @param accountsMsgDto - request that failed
+	 * @param eventId        - event id of the request, may be null
+	 * @param attempt        - number of attempts made so far, including the failed one
+	 * @param error          - cause of the failure
+	 */
+	public void park(AccountsMsgDto accountsMsgDto, String eventId, int attempt, Throwable error) {
+		boolean deadLetter = attempt > properties.getDelays().size();
+		String destination = deadLetter ? properties.deadLetterTopic() : properties.retryTopic(attempt);
+		Duration delay = deadLetter ? Duration.ZERO : properties.getDelays().get(attempt - 1);
+		MessageBuilder<AccountsMsgDto> message = MessageBuilder.withPayload(accountsMsgDto)
+				.setHeader(CommunicationHeaders.RETRY_ATTEMPT, String.valueOf(attempt))
+				.setHeader(CommunicationHeaders.RETRY_NOT_BEFORE, String.valueOf(System.currentTimeMillis() + delay.toMillis()))
+				.setHeader(CommunicationHeaders.RETRY_ERROR, abbreviate(String.valueOf(error.getMessage())));
+		if (eventId != null) {
+			message.setHeader(CommunicationHeaders.EVENT_ID, eventId);
+		}
+		if (!streamBridge.send(destination, message.build())) {
+			throw new IllegalStateException("Could not park communication request on " + destination);
+		}
+		counter(parkedCounters, "message.retry.parked", tier(attempt, deadLetter)).increment();
+		log.warn("Parked communication for the account number : {} on {} after {} attempts",
+				accountsMsgDto.accountNumber(), destination, attempt);
+	}
+
+	/**
+	 * @param attempt - number of earlier failed attempts of a request that has now been sent
+	 */
+	public void recovered(int attempt) {
+		if (attempt > 0) {
+			counter(recoveredCounters, "message.retry.recovered", tier(attempt, false)).increment();
+		}
+	}
+
+	private static String tier(int attempt, boolean deadLetter) {
+		return deadLetter ? "dlt" : "retry-" + attempt;
+	}
+
+	private Counter counter(Map<String, Counter> counters, String name, String tier) {
+		return counters.computeIfAbsent(tier, key -> Counter.builder(name)
+				.tag("tier", key)
+				.register(meterRegistry));
+	}
+
+	private static String abbreviate(String text) {
+		return text.length() <= MAX_ERROR_LENGTH ? text : text.substring(0, MAX_ERROR_LENGTH);
+	}
+}
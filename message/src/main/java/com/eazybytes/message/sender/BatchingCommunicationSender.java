@@ -0,0 +1,195 @@
+package com.eazybytes.message.sender;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.eazybytes.message.config.MessageSenderProperties;
+import com.eazybytes.message.dto.AccountsMsgDto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collects single requests into micro-batches for a provider and throttles them to the provider's
+ * rate limit. A batch is flushed when it is full or when its oldest request has waited for the
+ * linger time; all flushing happens on one scheduler thread per provider, which never waits itself:
+ * a batch that is not yet due under the rate limit is flushed by a later scheduled run instead.
+ * The returned futures are completed on a separate pool, so whatever the caller chains onto them,
+ * such as a send to another provider, never runs on the scheduler thread.
+ * <p>
+ * At most {@code maxPending} requests may be queued or in flight with the provider at once. Once
+ * the limit is reached {@link #send(AccountsMsgDto)} blocks the caller for up to the enqueue
+ * timeout and then fails the request, so a slow provider pushes back on the consumer rather than
+ * filling the heap.
+ */
+public class BatchingCommunicationSender {
+
+	private final String channel;
+	private final CommunicationSender delegate;
+	private final int batchSize;
+	private final long lingerNanos;
+	private final double permitsPerNano;
+	private final long enqueueTimeoutNanos;
+	private final Semaphore capacity;
+	private final ScheduledExecutorService scheduler;
+	private final ExecutorService completions;
+	private final DistributionSummary batchSizes;
+	private final Counter failedCounter;
+	private final Counter rejectedCounter;
+
+	// guarded by this
+	private final Deque<Pending> pending = new ArrayDeque<>();
+	private ScheduledFuture<?> scheduledFlush;
+	private long scheduledFlushNanos;
+	private long nextFreeNanos = System.nanoTime();
+
+	public BatchingCommunicationSender(String channel, CommunicationSender delegate,
+			MessageSenderProperties.Channel properties, MeterRegistry meterRegistry) {
+		this.channel = channel;
+		this.delegate = delegate;
+		this.batchSize = properties.getBatchSize();
+		this.lingerNanos = properties.getLinger().toNanos();
+		this.permitsPerNano = properties.getRatePerSecond() / 1_000_000_000d;
+		this.enqueueTimeoutNanos = properties.getEnqueueTimeout().toNanos();
+		this.capacity = new Semaphore(properties.getMaxPending());
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(
+				runnable -> new Thread(runnable, "message-sender-" + channel));
+		AtomicInteger completionThreads = new AtomicInteger();
+		this.completions = Executors.newCachedThreadPool(
+				runnable -> new Thread(runnable, "message-sender-" + channel + "-completion-" + completionThreads.incrementAndGet()));
+		this.batchSizes = DistributionSummary.builder("message.sender.batch.size")
+				.description("Requests per batch handed to the provider")
+				.tag("channel", channel)
+				.register(meterRegistry);
+		this.failedCounter = Counter.builder("message.sender.failures")
+				.description("Requests the provider failed to accept")
+				.tag("channel", channel)
+				.register(meterRegistry);
+		this.rejectedCounter = Counter.builder("message.sender.rejected")
+				.description("Requests refused because too many were pending")
+				.tag("channel", channel)
+				.register(meterRegistry);
+		Gauge.builder("message.sender.pending", capacity, permits -> properties.getMaxPending() - permits.availablePermits())
+				.description("Requests queued or in flight with the provider")
+				.tag("channel", channel)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Blocks while the sender is at capacity, at most for the enqueue timeout.
+	 *
+	 * @param accountsMsgDto - communication request
+	 * @return completion of the delivery of the batch the request ended up in; completes
+	 *         exceptionally with a {@link RejectedExecutionException} if the request could not be
+	 *         queued in time
+	 */
+	public CompletableFuture<AccountsMsgDto> send(AccountsMsgDto accountsMsgDto) {
+		try {
+			if (!capacity.tryAcquire(enqueueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+				rejectedCounter.increment();
+				return CompletableFuture.failedFuture(
+						new RejectedExecutionException("Too many pending " + channel + " requests"));
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return CompletableFuture.failedFuture(ex);
+		}
+		CompletableFuture<AccountsMsgDto> result = new CompletableFuture<>();
+		result.whenComplete((ignored, ex) -> capacity.release());
+		synchronized (this) {
+			pending.add(new Pending(accountsMsgDto, result));
+			scheduleFlush(pending.size() >= batchSize ? 0 : lingerNanos);
+		}
+		return result;
+	}
+
+	/**
+	 * Makes sure a flush runs within the given delay, but never before the rate limit allows the
+	 * next batch. An already scheduled flush that is due earlier is kept.
+	 */
+	private void scheduleFlush(long delayNanos) {
+		long dueNanos = System.nanoTime() + delayNanos;
+		if (dueNanos - nextFreeNanos < 0) {
+			dueNanos = nextFreeNanos;
+		}
+		if (scheduledFlush != null) {
+			if (scheduledFlushNanos - dueNanos <= 0) {
+				return;
+			}
+			scheduledFlush.cancel(false);
+		}
+		scheduledFlushNanos = dueNanos;
+		scheduledFlush = scheduler.schedule(this::flush, dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+	}
+
+	private void flush() {
+		List<Pending> batch = new ArrayList<>(batchSize);
+		synchronized (this) {
+			scheduledFlush = null;
+			long now = System.nanoTime();
+			if (now - nextFreeNanos < 0) {
+				scheduleFlush(0);
+				return;
+			}
+			while (batch.size() < batchSize && !pending.isEmpty()) {
+				batch.add(pending.poll());
+			}
+			if (batch.isEmpty()) {
+				return;
+			}
+			reserve(now, batch.size());
+			if (!pending.isEmpty()) {
+				scheduleFlush(0);
+			}
+		}
+		batchSizes.record(batch.size());
+		List<AccountsMsgDto> payload = batch.stream().map(Pending::accountsMsgDto).toList();
+		CompletableFuture<Void> delivery;
+		try {
+			delivery = delegate.send(payload);
+		} catch (RuntimeException ex) {
+			delivery = CompletableFuture.failedFuture(ex);
+		}
+		// each request on its own, so a caller blocking in its continuation holds up no other request
+		delivery.whenComplete((ignored, ex) -> batch.forEach(entry -> completions.execute(() -> {
+			if (ex == null) {
+				entry.result().complete(entry.accountsMsgDto());
+			} else {
+				failedCounter.increment();
+				entry.result().completeExceptionally(ex);
+			}
+		})));
+	}
+
+	/**
+	 * Token bucket without burst: every request reserves 1 / rate of time, and the next batch is
+	 * not flushed before the reservation of this one has run out.
+	 */
+	private void reserve(long now, int permits) {
+		if (permitsPerNano <= 0) {
+			return;
+		}
+		nextFreeNanos = now + (long) (permits / permitsPerNano);
+	}
+
+	public void shutdown() {
+		scheduler.shutdown();
+		completions.shutdown();
+	}
+
+	private record Pending(AccountsMsgDto accountsMsgDto, CompletableFuture<AccountsMsgDto> result) {
+	}
+}
@@ -0,0 +1,8 @@
+package com.eazybytes.message.sender;
+
+public class CommunicationSendException extends RuntimeException {
+
+	public CommunicationSendException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,20 @@
+package com.eazybytes.message.sender;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.eazybytes.message.dto.AccountsMsgDto;
+
+/**
+ * Delivery provider for one channel, e.g. an email or sms gateway. Implementations must not block
+ * the calling thread; the returned future completes once the provider has accepted the whole batch
+ * and completes exceptionally if any of it was rejected.
+ */
+public interface CommunicationSender {
+
+	/**
+	 * @param batch - communication requests to deliver together
+	 * @return completion of the delivery
+	 */
+	CompletableFuture<Void> send(List<AccountsMsgDto> batch);
+}
@@ -0,0 +1,51 @@
+package com.eazybytes.message.sender;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.eazybytes.message.dto.AccountsMsgDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Posts each batch as a JSON array to a provider's HTTP endpoint using the non-blocking JDK client.
+ */
+public class HttpCommunicationSender implements CommunicationSender {
+
+	private final HttpClient httpClient;
+	private final ObjectMapper objectMapper;
+	private final URI uri;
+	private final Duration timeout;
+
+	public HttpCommunicationSender(HttpClient httpClient, ObjectMapper objectMapper, URI uri, Duration timeout) {
+		this.httpClient = httpClient;
+		this.objectMapper = objectMapper;
+		this.uri = uri;
+		this.timeout = timeout;
+	}
+
+	@Override
+	public CompletableFuture<Void> send(List<AccountsMsgDto> batch) {
+		HttpRequest request;
+		try {
+			request = HttpRequest.newBuilder(uri)
+					.timeout(timeout)
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+					.build();
+		} catch (JsonProcessingException ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+		return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenAccept(response -> {
+			if (response.statusCode() / 100 != 2) {
+				throw new CommunicationSendException(
+						"Provider " + uri + " rejected a batch of " + batch.size() + " with status " + response.statusCode());
+			}
+		});
+	}
+}
@@ -0,0 +1,29 @@
+package com.eazybytes.message.sender;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.eazybytes.message.dto.AccountsMsgDto;
+
+/**
+ * Local provider that only logs what would be sent; used for development and tests.
+ */
+public class LoggingCommunicationSender implements CommunicationSender {
+
+	private static final Logger log = LoggerFactory.getLogger(LoggingCommunicationSender.class);
+
+	private final String channel;
+
+	public LoggingCommunicationSender(String channel) {
+		this.channel = channel;
+	}
+
+	@Override
+	public CompletableFuture<Void> send(List<AccountsMsgDto> batch) {
+		batch.forEach(accountsMsgDto -> log.info("Sending {} with the details recieved ::{}", channel, accountsMsgDto));
+		return CompletableFuture.completedFuture(null);
+	}
+}
@@ -0,0 +1,242 @@
+package com.eazybytes.message.processing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.mockito.InOrder;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.eazybytes.message.config.MessageIdempotencyProperties;
+import com.eazybytes.message.config.MessageProcessingProperties;
+import com.eazybytes.message.dto.AccountsMsgDto;
+import com.eazybytes.message.idempotency.IdempotencyGuard;
+import com.eazybytes.message.idempotency.InMemoryProcessedMessageStore;
+import com.eazybytes.message.retry.RetryRouter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Checks when records handed to the worker lanes are acknowledged, i.e. when the container may
+ * commit their offsets: never while the email or sms is still pending, and never before the broker
+ * acknowledged the confirmation on communication-sent.
+ */
+class CommunicationProcessorTests {
+
+	private final Map<Long, CompletableFuture<AccountsMsgDto>> emails = new ConcurrentHashMap<>();
+	private final StreamBridge streamBridge = mock(StreamBridge.class);
+	private final RetryRouter retryRouter = mock(RetryRouter.class);
+	private final DirectChannel communicationSentAcks = new DirectChannel();
+	private CommunicationProcessor processor;
+
+	@BeforeEach
+	void setUp() {
+		processor = processor();
+		// the broker acknowledges every confirmation right away
+		when(streamBridge.send(eq("emailsms-out-0"), any())).thenAnswer(invocation -> {
+			communicationSentAcks.send(invocation.getArgument(1));
+			return true;
+		});
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		processor.shutdown();
+	}
+
+	@Test
+	void recordIsAcknowledgedOnlyAfterItWasSentAndConfirmed() {
+		Acknowledgment first = mock(Acknowledgment.class);
+		Acknowledgment second = mock(Acknowledgment.class);
+
+		processor.dispatch(message(1L, "e1", first));
+		processor.dispatch(message(2L, "e2", second));
+
+		verify(first, after(200).never()).acknowledge();
+		verify(second, never()).acknowledge();
+
+		sendEmail(2L);
+		verify(second, timeout(1000)).acknowledge();
+		verify(first, never()).acknowledge();
+
+		sendEmail(1L);
+		InOrder inOrder = inOrder(streamBridge, first);
+		inOrder.verify(streamBridge, timeout(1000)).send(eq("emailsms-out-0"), confirmationOf(1L));
+		inOrder.verify(first, timeout(1000)).acknowledge();
+	}
+
+	@Test
+	void failedRecordIsAcknowledgedOnlyOnceItIsParked() {
+		Acknowledgment acknowledgment = mock(Acknowledgment.class);
+		doThrow(new IllegalStateException("Could not park communication request"))
+				.doNothing()
+				.when(retryRouter).park(any(), any(), anyInt(), any());
+
+		processor.dispatch(message(1L, "e1", acknowledgment));
+		emails.get(awaitEmail(1L)).completeExceptionally(new IllegalStateException("provider unavailable"));
+
+		verify(acknowledgment, after(500).never()).acknowledge();
+		verify(retryRouter, timeout(3000).times(2)).park(any(), eq("e1"), eq(1), any());
+		verify(acknowledgment, timeout(1000)).acknowledge();
+		verify(streamBridge, never()).send(eq("emailsms-out-0"), any());
+	}
+
+	@Test
+	void parkStillFailingAtShutdownLeavesTheRecordUnacknowledged() throws InterruptedException {
+		Acknowledgment acknowledgment = mock(Acknowledgment.class);
+		doThrow(new IllegalStateException("Could not park communication request"))
+				.when(retryRouter).park(any(), any(), anyInt(), any());
+
+		processor.dispatch(message(1L, "e1", acknowledgment));
+		emails.get(awaitEmail(1L)).completeExceptionally(new IllegalStateException("provider unavailable"));
+		verify(retryRouter, timeout(1000)).park(any(), any(), anyInt(), any());
+		processor.shutdown();
+
+		verify(acknowledgment, after(1500).never()).acknowledge();
+	}
+
+	@Test
+	void duplicateIsAcknowledgedWithoutSendingAgain() {
+		Acknowledgment original = mock(Acknowledgment.class);
+		Acknowledgment redelivery = mock(Acknowledgment.class);
+		processor.dispatch(message(1L, "e1", original));
+		sendEmail(1L);
+		verify(original, timeout(1000)).acknowledge();
+
+		processor.dispatch(message(1L, "e1", redelivery));
+
+		verify(redelivery, timeout(1000)).acknowledge();
+		verify(streamBridge, after(200).times(1)).send(eq("emailsms-out-0"), confirmationOf(1L));
+	}
+
+	@Test
+	void requestWhoseConfirmationIsNotAcknowledgedIsParkedAndNotRememberedAsSent() {
+		when(streamBridge.send(eq("emailsms-out-0"), any())).thenReturn(true);
+		Acknowledgment original = mock(Acknowledgment.class);
+		Acknowledgment retry = mock(Acknowledgment.class);
+
+		processor.dispatch(message(1L, "e1", original));
+		sendEmail(1L);
+
+		verify(retryRouter, timeout(2000)).park(any(), eq("e1"), eq(1), any());
+		verify(original, timeout(1000)).acknowledge();
+
+		emails.clear();
+		processor.dispatch(message(1L, "e1", retry));
+		sendEmail(1L);
+		verify(streamBridge, timeout(1000).times(2)).send(eq("emailsms-out-0"), confirmationOf(1L));
+	}
+
+	@Test
+	void rejectedConfirmationFailsTheRequest() {
+		when(streamBridge.send(eq("emailsms-out-0"), any())).thenReturn(false);
+		Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+		processor.dispatch(message(1L, "e1", acknowledgment));
+		sendEmail(1L);
+
+		verify(retryRouter, timeout(1000)).park(any(), eq("e1"), eq(1), any());
+		verify(retryRouter, never()).recovered(anyInt());
+	}
+
+	@Test
+	void retryTierNacksARequestThatIsNotDueWithoutWaiting() {
+		Acknowledgment acknowledgment = mock(Acknowledgment.class);
+		Message<AccountsMsgDto> parked = MessageBuilder.fromMessage(message(1L, "e1", acknowledgment))
+				.setHeader(CommunicationHeaders.RETRY_ATTEMPT, "1")
+				.setHeader(CommunicationHeaders.RETRY_NOT_BEFORE, String.valueOf(System.currentTimeMillis() + 60_000))
+				.build();
+
+		long start = System.nanoTime();
+		processor.dispatchWhenDue(parked);
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+		verify(acknowledgment).nack(argThat(delay -> delay.compareTo(Duration.ofSeconds(55)) > 0
+				&& delay.compareTo(Duration.ofSeconds(60)) <= 0));
+		verify(acknowledgment, never()).acknowledge();
+		assertThat(emails).isEmpty();
+	}
+
+	@Test
+	void retryTierProcessesADueRequestOnTheConsumerThread() {
+		Acknowledgment acknowledgment = mock(Acknowledgment.class);
+		Message<AccountsMsgDto> parked = MessageBuilder.fromMessage(message(1L, "e1", acknowledgment))
+				.setHeader(CommunicationHeaders.RETRY_ATTEMPT, "1")
+				.setHeader(CommunicationHeaders.RETRY_NOT_BEFORE, String.valueOf(System.currentTimeMillis() - 1))
+				.build();
+		emails.put(1L, CompletableFuture.completedFuture(accountsMsgDto(1L)));
+
+		processor.dispatchWhenDue(parked);
+
+		verify(acknowledgment, never()).nack(any(Duration.class));
+		verify(acknowledgment).acknowledge();
+		verify(retryRouter).recovered(1);
+	}
+
+	private CommunicationProcessor processor() {
+		MessageProcessingProperties properties = new MessageProcessingProperties();
+		properties.setWorkers(2);
+		properties.setQueueCapacity(4);
+		properties.setConfirmTimeout(Duration.ofMillis(200));
+		IdempotencyGuard idempotencyGuard = new IdempotencyGuard(
+				List.of(new InMemoryProcessedMessageStore(new MessageIdempotencyProperties())), new SimpleMeterRegistry());
+		return new CommunicationProcessor(
+				accountsMsgDto -> emails.computeIfAbsent(accountsMsgDto.accountNumber(), key -> new CompletableFuture<>()),
+				accountsMsgDto -> CompletableFuture.completedFuture(accountsMsgDto.accountNumber()),
+				streamBridge, communicationSentAcks, idempotencyGuard, retryRouter, properties, new SimpleMeterRegistry());
+	}
+
+	private static Message<?> confirmationOf(long accountNumber) {
+		ArgumentMatcher<Message<?>> matcher = message -> Long.valueOf(accountNumber).equals(message.getPayload())
+				&& message.getHeaders().containsKey(CommunicationHeaders.CONFIRMATION_ID);
+		return argThat(matcher);
+	}
+
+	private void sendEmail(long accountNumber) {
+		emails.get(awaitEmail(accountNumber)).complete(accountsMsgDto(accountNumber));
+	}
+
+	private long awaitEmail(long accountNumber) {
+		long deadline = System.nanoTime() + 1_000_000_000L;
+		while (!emails.containsKey(accountNumber) && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+		}
+		return accountNumber;
+	}
+
+	private static Message<AccountsMsgDto> message(long accountNumber, String eventId, Acknowledgment acknowledgment) {
+		return MessageBuilder.withPayload(accountsMsgDto(accountNumber))
+				.setHeader(CommunicationHeaders.EVENT_ID, eventId)
+				.setHeader(KafkaHeaders.ACKNOWLEDGMENT, acknowledgment)
+				.build();
+	}
+
+	private static AccountsMsgDto accountsMsgDto(long accountNumber) {
+		return new AccountsMsgDto(accountNumber, "Eazy Bytes", "tutor@eazybytes.com", "9999999999");
+	}
+}
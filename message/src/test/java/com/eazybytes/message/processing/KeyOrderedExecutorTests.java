@@ -0,0 +1,84 @@
+package com.eazybytes.message.processing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KeyOrderedExecutorTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 4, 2, meterRegistry);
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		executor.shutdown();
+	}
+
+	@Test
+	void tasksOfOneKeyRunInSubmissionOrder() throws InterruptedException {
+		Map<Integer, List<Integer>> runs = new ConcurrentHashMap<>();
+		CountDownLatch done = new CountDownLatch(400);
+		for (int i = 0; i < 100; i++) {
+			for (int key = 0; key < 4; key++) {
+				int sequence = i;
+				int taskKey = key;
+				executor.execute(taskKey, () -> {
+					runs.computeIfAbsent(taskKey, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+					done.countDown();
+				});
+			}
+		}
+
+		assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(runs.values()).allSatisfy(sequences -> assertThat(sequences).isSorted().hasSize(100));
+	}
+
+	@Test
+	void aBlockedKeyDoesNotHoldUpOtherLanes() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch otherKeyRan = new CountDownLatch(1);
+		executor.execute(0, () -> await(release));
+
+		executor.execute(1, otherKeyRan::countDown);
+
+		assertThat(otherKeyRan.await(1, TimeUnit.SECONDS)).isTrue();
+		release.countDown();
+	}
+
+	@Test
+	void aFullLaneBlocksTheSubmitter() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		executor.execute(0, () -> await(release));
+		// one task running, two queued: the lane is full
+		executor.execute(0, () -> { });
+		executor.execute(0, () -> { });
+
+		CompletableFuture<Void> blockedSubmit = CompletableFuture.runAsync(() -> executor.execute(0, () -> { }));
+
+		Thread.sleep(200);
+		assertThat(blockedSubmit).isNotDone();
+		assertThat(meterRegistry.get("message.processing.queued").gauge().value()).isEqualTo(2);
+		release.countDown();
+		blockedSubmit.get(1, TimeUnit.SECONDS);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
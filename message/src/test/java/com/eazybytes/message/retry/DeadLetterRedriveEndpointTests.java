@@ -0,0 +1,123 @@
+package com.eazybytes.message.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.eazybytes.message.config.MessageRetryProperties;
+import com.eazybytes.message.processing.CommunicationHeaders;
+
+/**
+ * Re-drives from an embedded broker that, like the one in docker-compose, delays the first
+ * rebalance of a new consumer group by three seconds.
+ */
+class DeadLetterRedriveEndpointTests {
+
+	private static final AtomicInteger TOPICS = new AtomicInteger();
+
+	private static EmbeddedKafkaBroker broker;
+
+	private final MessageRetryProperties properties = new MessageRetryProperties();
+	private final StreamBridge streamBridge = mock(StreamBridge.class);
+	private final List<Message<?>> redriven = new CopyOnWriteArrayList<>();
+	private DeadLetterRedriveEndpoint endpoint;
+
+	@BeforeAll
+	static void startBroker() {
+		broker = new EmbeddedKafkaKraftBroker(1, 2)
+				.brokerProperties(Map.of("group.initial.rebalance.delay.ms", "3000"));
+		broker.afterPropertiesSet();
+	}
+
+	@AfterAll
+	static void stopBroker() {
+		broker.destroy();
+	}
+
+	@BeforeEach
+	void setUp() {
+		properties.setTopic("send-communication-" + TOPICS.incrementAndGet());
+		broker.addTopics(properties.deadLetterTopic());
+		when(streamBridge.send(eq(properties.getTopic()), any(Message.class))).thenAnswer(invocation -> {
+			redriven.add(invocation.getArgument(1));
+			return true;
+		});
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("spring.application.name", "message-" + properties.getTopic())
+				.withProperty("spring.cloud.stream.kafka.binder.brokers", broker.getBrokersAsString());
+		endpoint = new DeadLetterRedriveEndpoint(streamBridge, properties, environment);
+	}
+
+	@Test
+	void everyParkedRecordIsRedrivenOnceWithItsEncodingAndEventId() {
+		park(5);
+
+		assertThat(endpoint.redrive(null)).containsEntry("redriven", 5);
+		assertThat(redriven).hasSize(5);
+		assertThat(redriven).allSatisfy(message -> {
+			assertThat(message.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo("application/x-accounts-msg");
+			assertThat(CommunicationHeaders.get(message.getHeaders(), CommunicationHeaders.EVENT_ID)).startsWith("e");
+		});
+		assertThat(redriven).extracting(message -> new String((byte[]) message.getPayload(), StandardCharsets.UTF_8))
+				.containsExactlyInAnyOrder("0", "1", "2", "3", "4");
+
+		assertThat(endpoint.redrive(null)).containsEntry("redriven", 0);
+		assertThat(redriven).hasSize(5);
+	}
+
+	@Test
+	void recordsOverTheLimitAreLeftForTheNextCall() {
+		park(5);
+
+		assertThat(endpoint.redrive(2)).containsEntry("redriven", 2);
+		assertThat(endpoint.redrive(null)).containsEntry("redriven", 3);
+		assertThat(redriven).extracting(message -> new String((byte[]) message.getPayload(), StandardCharsets.UTF_8))
+				.containsExactlyInAnyOrder("0", "1", "2", "3", "4");
+	}
+
+	@Test
+	void emptyDeadLetterTopicRedrivesNothing() {
+		assertThat(endpoint.redrive(null)).containsEntry("redriven", 0);
+	}
+
+	private void park(int count) {
+		Properties producerProperties = new Properties();
+		producerProperties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+		producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+		producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+		try (KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(producerProperties)) {
+			for (int i = 0; i < count; i++) {
+				ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(properties.deadLetterTopic(), i % 2, null,
+						String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+				record.headers().add(MessageHeaders.CONTENT_TYPE,
+						"\"application/x-accounts-msg\"".getBytes(StandardCharsets.UTF_8));
+				record.headers().add(CommunicationHeaders.EVENT_ID, ("e" + i).getBytes(StandardCharsets.UTF_8));
+				producer.send(record);
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.eazybytes.message.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+
+import com.eazybytes.message.config.MessageRetryProperties;
+import com.eazybytes.message.dto.AccountsMsgDto;
+import com.eazybytes.message.processing.CommunicationHeaders;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetryRouterTests {
+
+	private static final AccountsMsgDto REQUEST = new AccountsMsgDto(1234567890L, "Eazy Bytes", "tutor@eazybytes.com",
+			"9999999999");
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final StreamBridge streamBridge = mock(StreamBridge.class);
+	private final Map<String, Message<?>> sent = new ConcurrentHashMap<>();
+	private RetryRouter retryRouter;
+
+	@BeforeEach
+	void setUp() {
+		MessageRetryProperties properties = new MessageRetryProperties();
+		properties.setDelays(List.of(Duration.ofSeconds(10), Duration.ofMinutes(1)));
+		retryRouter = new RetryRouter(streamBridge, properties, meterRegistry);
+		when(streamBridge.send(anyString(), any(Message.class))).thenAnswer(invocation -> {
+			sent.put(invocation.getArgument(0), invocation.getArgument(1));
+			return true;
+		});
+	}
+
+	@Test
+	void failedRequestIsParkedOnTheTierOfItsAttemptUntilItsDelayHasPassed() {
+		long before = System.currentTimeMillis();
+
+		retryRouter.park(REQUEST, "e1", 2, new IllegalStateException("provider down"));
+
+		Message<?> parked = sent.get("send-communication-retry-2");
+		assertThat(parked.getPayload()).isEqualTo(REQUEST);
+		assertThat(CommunicationHeaders.get(parked.getHeaders(), CommunicationHeaders.EVENT_ID)).isEqualTo("e1");
+		assertThat(CommunicationHeaders.get(parked.getHeaders(), CommunicationHeaders.RETRY_ATTEMPT)).isEqualTo("2");
+		assertThat(CommunicationHeaders.get(parked.getHeaders(), CommunicationHeaders.RETRY_ERROR))
+				.isEqualTo("provider down");
+		assertThat(CommunicationHeaders.getLong(parked.getHeaders(), CommunicationHeaders.RETRY_NOT_BEFORE, 0))
+				.isBetween(before + 60_000, System.currentTimeMillis() + 60_000);
+		assertThat(meterRegistry.get("message.retry.parked").tag("tier", "retry-2").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void requestIsDeadLetteredOnceEveryTierWasTried() {
+		retryRouter.park(REQUEST, null, 3, new IllegalStateException("x".repeat(600)));
+
+		Message<?> parked = sent.get("send-communication-dlt");
+		assertThat(parked.getHeaders()).doesNotContainKey(CommunicationHeaders.EVENT_ID);
+		assertThat(CommunicationHeaders.get(parked.getHeaders(), CommunicationHeaders.RETRY_ERROR)).hasSize(500);
+		assertThat(meterRegistry.get("message.retry.parked").tag("tier", "dlt").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void requestThatCouldNotBeParkedFailsLoudly() {
+		when(streamBridge.send(anyString(), any(Message.class))).thenReturn(false);
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> retryRouter.park(REQUEST, "e1", 1, new IllegalStateException("provider down")));
+		assertThat(meterRegistry.find("message.retry.parked").counter()).isNull();
+	}
+
+	@Test
+	void onlyRetriedRequestsCountAsRecovered() {
+		retryRouter.recovered(0);
+		retryRouter.recovered(1);
+
+		assertThat(meterRegistry.get("message.retry.recovered").counters()).hasSize(1);
+		assertThat(meterRegistry.get("message.retry.recovered").tag("tier", "retry-1").counter().count()).isEqualTo(1);
+	}
+}
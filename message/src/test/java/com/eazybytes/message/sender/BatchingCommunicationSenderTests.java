@@ -0,0 +1,176 @@
+package com.eazybytes.message.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.eazybytes.message.config.MessageSenderProperties;
+import com.eazybytes.message.dto.AccountsMsgDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BatchingCommunicationSenderTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<List<AccountsMsgDto>> batches = Collections.synchronizedList(new ArrayList<>());
+	private final List<Long> flushedAt = Collections.synchronizedList(new ArrayList<>());
+	private final List<CompletableFuture<Void>> deliveries = Collections.synchronizedList(new ArrayList<>());
+	private BatchingCommunicationSender sender;
+
+	@AfterEach
+	void tearDown() {
+		sender.shutdown();
+	}
+
+	@Test
+	void fullBatchIsFlushedWithoutWaitingForTheLinger() throws Exception {
+		sender = sender(channel(5, Duration.ofMinutes(1), 0, 100, Duration.ofSeconds(1)), true);
+
+		List<CompletableFuture<AccountsMsgDto>> results = new ArrayList<>();
+		for (long i = 0; i < 5; i++) {
+			results.add(sender.send(request(i)));
+		}
+
+		CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(2, TimeUnit.SECONDS);
+		assertThat(batches).hasSize(1);
+		assertThat(batches.get(0)).extracting(AccountsMsgDto::accountNumber).containsExactly(0L, 1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void partialBatchIsFlushedAfterTheLinger() throws Exception {
+		sender = sender(channel(50, Duration.ofMillis(20), 0, 100, Duration.ofSeconds(1)), true);
+
+		CompletableFuture<AccountsMsgDto> first = sender.send(request(1));
+		CompletableFuture<AccountsMsgDto> second = sender.send(request(2));
+
+		assertThat(second.get(2, TimeUnit.SECONDS).accountNumber()).isEqualTo(2L);
+		assertThat(first).isCompleted();
+		assertThat(batches).hasSize(1);
+		assertThat(batches.get(0)).hasSize(2);
+	}
+
+	@Test
+	void sendFailsOnceTooManyRequestsArePendingAndRecoversWhenTheProviderCatchesUp() throws Exception {
+		sender = sender(channel(1, Duration.ZERO, 0, 3, Duration.ofMillis(50)), false);
+
+		for (long i = 0; i < 3; i++) {
+			sender.send(request(i));
+		}
+		long start = System.nanoTime();
+		CompletableFuture<AccountsMsgDto> rejected = sender.send(request(3));
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(40);
+		assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+		assertThat(meterRegistry.get("message.sender.rejected").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("message.sender.pending").gauge().value()).isEqualTo(3);
+
+		awaitDeliveries(1);
+		deliveries.get(0).complete(null);
+		CompletableFuture<AccountsMsgDto> accepted = sender.send(request(4));
+
+		assertThat(accepted).isNotCompletedExceptionally();
+		awaitDeliveries(4);
+		deliveries.forEach(delivery -> delivery.complete(null));
+		assertThat(accepted.get(2, TimeUnit.SECONDS).accountNumber()).isEqualTo(4L);
+	}
+
+	@Test
+	void rateLimitSpacesBatchesWithoutBlockingTheCaller() throws Exception {
+		sender = sender(channel(1, Duration.ZERO, 20, 100, Duration.ofSeconds(1)), true);
+
+		long start = System.nanoTime();
+		List<CompletableFuture<AccountsMsgDto>> results = new ArrayList<>();
+		for (long i = 0; i < 4; i++) {
+			results.add(sender.send(request(i)));
+		}
+		long sendMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(2, TimeUnit.SECONDS);
+		assertThat(sendMillis).isLessThan(50);
+		assertThat(batches).hasSize(4);
+		// 20 per second: one batch of one every 50ms
+		assertThat(TimeUnit.NANOSECONDS.toMillis(flushedAt.get(3) - flushedAt.get(0))).isGreaterThanOrEqualTo(140);
+	}
+
+	@Test
+	void providerFailureFailsEveryRequestOfTheBatch() {
+		sender = new BatchingCommunicationSender("test",
+				batch -> CompletableFuture.failedFuture(new IllegalStateException("provider down")),
+				channel(2, Duration.ofMinutes(1), 0, 100, Duration.ofSeconds(1)), meterRegistry);
+
+		CompletableFuture<AccountsMsgDto> first = sender.send(request(1));
+		CompletableFuture<AccountsMsgDto> second = sender.send(request(2));
+
+		assertThatThrownBy(() -> first.get(2, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> second.get(2, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+		assertThat(meterRegistry.get("message.sender.failures").counter().count()).isEqualTo(2);
+		assertThat(meterRegistry.get("message.sender.pending").gauge().value()).isZero();
+	}
+
+	@Test
+	void callerBlockedOnAnotherProviderDoesNotHoldUpBatching() throws Exception {
+		sender = sender(channel(1, Duration.ZERO, 0, 100, Duration.ofSeconds(1)), true);
+		// a second provider that accepts one request and never answers
+		BatchingCommunicationSender sms = new BatchingCommunicationSender("sms", batch -> new CompletableFuture<>(),
+				channel(1, Duration.ZERO, 0, 1, Duration.ofSeconds(2)), meterRegistry);
+		try {
+			// like the processor: sms once the email is out, which blocks while sms is at capacity
+			sender.send(request(1)).thenCompose(sms::send);
+			CompletableFuture<AccountsMsgDto> blocked = sender.send(request(2)).thenCompose(sms::send);
+			awaitDeliveries(2);
+
+			CompletableFuture<AccountsMsgDto> next = sender.send(request(3));
+
+			assertThat(next.get(500, TimeUnit.MILLISECONDS).accountNumber()).isEqualTo(3L);
+			assertThat(blocked).isNotDone();
+		} finally {
+			sms.shutdown();
+		}
+	}
+
+	private BatchingCommunicationSender sender(MessageSenderProperties.Channel properties, boolean completeDeliveries) {
+		return new BatchingCommunicationSender("test", batch -> {
+			batches.add(batch);
+			flushedAt.add(System.nanoTime());
+			CompletableFuture<Void> delivery = completeDeliveries ? CompletableFuture.completedFuture(null)
+					: new CompletableFuture<>();
+			deliveries.add(delivery);
+			return delivery;
+		}, properties, meterRegistry);
+	}
+
+	private void awaitDeliveries(int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (deliveries.size() < count && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(deliveries).hasSizeGreaterThanOrEqualTo(count);
+	}
+
+	private static MessageSenderProperties.Channel channel(int batchSize, Duration linger, double ratePerSecond,
+			int maxPending, Duration enqueueTimeout) {
+		MessageSenderProperties.Channel channel = new MessageSenderProperties.Channel();
+		channel.setBatchSize(batchSize);
+		channel.setLinger(linger);
+		channel.setRatePerSecond(ratePerSecond);
+		channel.setMaxPending(maxPending);
+		channel.setEnqueueTimeout(enqueueTimeout);
+		return channel;
+	}
+
+	private static AccountsMsgDto request(long accountNumber) {
+		return new AccountsMsgDto(accountNumber, "name", "name@example.com", "4354437687");
+	}
+}